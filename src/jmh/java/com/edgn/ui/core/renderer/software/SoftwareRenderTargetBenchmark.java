@@ -0,0 +1,67 @@
+package com.edgn.ui.core.renderer.software;
+
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The raw rasterizer of {@link SoftwareRenderTarget}: opaque and blended rects, gradients and
+ * rotated quads over a 320x240 framebuffer.
+ * @author EDGN
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoftwareRenderTargetBenchmark {
+    private static final Matrix4f IDENTITY = new Matrix4f();
+
+    private SoftwareRenderTarget target;
+    private Matrix4f rotated;
+
+    @Setup
+    public void setup() {
+        target = new SoftwareRenderTarget(320, 240);
+        rotated = new Matrix4f().translate(160, 120, 0).rotateZ(0.3f);
+    }
+
+    @Benchmark
+    public SoftwareRenderTarget opaqueRects() {
+        for (int i = 0; i < 64; i++) target.fill(IDENTITY, i * 4, i * 3, i * 4 + 48.5f, i * 3 + 32.5f, 0xFF3A7BD5);
+        return target;
+    }
+
+    @Benchmark
+    public SoftwareRenderTarget blendedRects() {
+        for (int i = 0; i < 64; i++) target.fill(IDENTITY, i * 4, i * 3, i * 4 + 48.5f, i * 3 + 32.5f, 0x80E5484D);
+        return target;
+    }
+
+    @Benchmark
+    public SoftwareRenderTarget gradients() {
+        for (int i = 0; i < 16; i++) target.fillGradient(IDENTITY, i * 16, 0, i * 16 + 64, 240, 0xFF3A7BD5, 0x80F59E0B);
+        return target;
+    }
+
+    @Benchmark
+    public SoftwareRenderTarget rotatedQuads() {
+        for (int i = 0; i < 64; i++) {
+            float o = i - 32;
+            target.quad(rotated, o, o, o, o + 40, o + 60, o + 40, o + 60, o,
+                    0xFF3A7BD5, 0xFFF59E0B, 0x80E5484D, 0xFFF2F2F2);
+        }
+        return target;
+    }
+}
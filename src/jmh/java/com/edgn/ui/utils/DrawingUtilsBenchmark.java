@@ -0,0 +1,96 @@
+package com.edgn.ui.utils;
+
+import com.edgn.ui.core.renderer.software.SoftwareRenderTarget;
+import com.edgn.ui.css.values.Shadow;
+import net.minecraft.client.gui.DrawContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The CPU side of the {@link DrawingUtils} shapes, span generation and tessellation included,
+ * drawn through a {@link SoftwareRenderTarget} so no GPU is needed. Each benchmark is one frame of
+ * a small grid of the same shape family.
+ * @author EDGN
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrawingUtilsBenchmark {
+    private static final int BLUE = 0xFF3A7BD5;
+    private static final int WHITE = 0xFFF2F2F2;
+    private static final int TRANSLUCENT_RED = 0x99E5484D;
+
+    private SoftwareRenderTarget target;
+
+    @Setup
+    public void setup() {
+        target = new SoftwareRenderTarget(320, 240);
+    }
+
+    @Benchmark
+    public SoftwareRenderTarget roundedRects() {
+        return grid(ctx -> {
+            for (int i = 0; i < 48; i++) {
+                int x = (i % 8) * 40;
+                int y = (i / 8) * 40;
+                DrawingUtils.drawRoundedRect(ctx, x + 2, y + 2, 36, 24, 2 + i % 10, BLUE);
+                DrawingUtils.drawRoundedRectBorder(ctx, x + 2, y + 2, 36, 24, 2 + i % 10, WHITE, 1 + i % 3);
+            }
+        });
+    }
+
+    @Benchmark
+    public SoftwareRenderTarget circlesAndArcs() {
+        return grid(ctx -> {
+            for (int i = 0; i < 48; i++) {
+                int cx = (i % 8) * 40 + 20;
+                int cy = (i / 8) * 40 + 20;
+                DrawingUtils.drawCircleFilled(ctx, cx, cy, 6 + i % 12, TRANSLUCENT_RED);
+                DrawingUtils.drawArc(ctx, cx, cy, 18, 3, i * 15f, 240f, WHITE);
+            }
+        });
+    }
+
+    @Benchmark
+    public SoftwareRenderTarget shadows() {
+        return grid(ctx -> {
+            for (int i = 0; i < 24; i++) {
+                int x = (i % 6) * 52 + 8;
+                int y = (i / 6) * 56 + 8;
+                DrawingUtils.drawShadow(ctx, x, y, 36, 28, 6, 0, 2, Shadow.LG);
+                DrawingUtils.drawRoundedRect(ctx, x, y, 36, 28, 6, BLUE);
+            }
+        });
+    }
+
+    @Benchmark
+    public SoftwareRenderTarget gradientsAndLines() {
+        return grid(ctx -> {
+            for (int i = 0; i < 24; i++) {
+                int x = (i % 6) * 52 + 8;
+                int y = (i / 6) * 56 + 8;
+                DrawingUtils.drawRoundedRectGradientV(ctx, x, y, 40, 40, 8, WHITE, TRANSLUCENT_RED);
+                DrawingUtils.drawLine(ctx, x, y, x + 40, y + 40, BLUE);
+            }
+        });
+    }
+
+    private SoftwareRenderTarget grid(Consumer<DrawContext> painter) {
+        target.clear(0xFF1E1F22);
+        return target.render(painter);
+    }
+}
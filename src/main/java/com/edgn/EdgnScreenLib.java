@@ -1,13 +1,21 @@
 package com.edgn;
 
 import com.edgn.examples.FlexContainerExample;
+import com.edgn.ui.core.renderer.atlas.IconAtlas;
+import com.edgn.ui.core.renderer.font.CachingFontRenderer;
+import com.edgn.ui.css.StyleRegistry;
 import net.fabricmc.api.ModInitializer;
 
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.util.Identifier;
 import org.lwjgl.glfw.GLFW;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +40,21 @@ public class EdgnScreenLib implements ModInitializer {
 
 	@Override
 	public void onInitialize() {
+		StyleRegistry.initialize();
+
+		ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(new SimpleSynchronousResourceReloadListener() {
+			@Override
+			public Identifier getFabricId() {
+				return Identifier.of(MOD_ID, "render_caches");
+			}
+
+			@Override
+			public void reload(ResourceManager manager) {
+				CachingFontRenderer.invalidateAll();
+				IconAtlas.invalidate();
+			}
+		});
+
 		if(!FabricLoader.getInstance().isDevelopmentEnvironment()) return;
 
 		KeyBindingHelper.registerKeyBinding(openExampleScreenKey);
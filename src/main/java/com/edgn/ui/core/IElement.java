@@ -2,12 +2,15 @@ package com.edgn.ui.core;
 
 import com.edgn.ui.core.renderer.FontRenderer;
 import com.edgn.ui.css.StyleKey;
+import com.edgn.ui.css.StyleToken;
 import com.edgn.ui.layout.LayoutConstraints;
 import com.edgn.ui.layout.ZIndex;
 
 public interface IElement {
     <T extends IElement> T addClass(StyleKey... keys);
     <T extends IElement> T removeClass(StyleKey key);
+    <T extends IElement> T addStyle(StyleToken... tokens);
+    <T extends IElement> T removeStyle(StyleToken.Property property);
     <T extends IElement> T setZIndex(ZIndex zIndex);
     <T extends IElement> T setZIndex(ZIndex.Layer layer);
     <T extends IElement> T setZIndex(ZIndex.Layer layer, int priority);
@@ -21,6 +24,10 @@ public interface IElement {
     <T extends IElement> T setVisible(boolean visible);
     <T extends IElement> T setEnabled(boolean enabled);
     <T extends IElement> T setFontRenderer(FontRenderer fontRenderer);
+    <T extends IElement> T setTextColor(int argb);
+    <T extends IElement> T clearTextColor();
+    <T extends IElement> T setTextShadow(boolean shadow);
+    <T extends IElement> T clearTextShadow();
 
     default int getChildInteractionOffsetX(UIElement child) {
         return 0;
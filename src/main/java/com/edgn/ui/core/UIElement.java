@@ -4,6 +4,8 @@ import com.edgn.ui.core.container.components.TextComponent;
 import com.edgn.ui.core.renderer.FontRenderer;
 import com.edgn.ui.css.CSSStyleApplier;
 import com.edgn.ui.css.StyleKey;
+import com.edgn.ui.css.StyleSet;
+import com.edgn.ui.css.StyleToken;
 import com.edgn.ui.css.UIStyleSystem;
 import com.edgn.ui.css.values.Shadow;
 import com.edgn.ui.layout.LayoutConstraints;
@@ -12,7 +14,6 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
 
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
 
 @SuppressWarnings({"unused", "UnusedReturnValue"})
@@ -21,7 +22,7 @@ public abstract class UIElement implements IElement {
     protected int y;
     protected int width;
     protected int height;
-    protected final Set<StyleKey> classes = new HashSet<>();
+    protected final StyleSet classes = new StyleSet();
     protected final UIStyleSystem styleSystem;
     protected boolean visible = true;
     protected boolean enabled = true;
@@ -40,9 +41,23 @@ public abstract class UIElement implements IElement {
     protected InteractionBounds interactionBounds;
 
     private boolean stylesComputed = false;
+    private int stylesGeneration = -1;
     private CSSStyleApplier.ComputedStyles cachedStyles;
     private boolean rendered = false;
 
+    private final FontRenderer defaultFontRenderer;
+    private FontRenderer ownFontRenderer;
+    private Integer ownTextColor;
+    private Boolean ownTextShadow;
+    private int inheritedTextColor;
+    private boolean inheritedTextShadow;
+    private boolean inheritedValid = false;
+    private int inheritedGeneration = -1;
+
+    private int paintVersion = 0;
+    private int paintStamp = 0;
+    private boolean paintVolatile = false;
+
     protected Runnable onClickHandler;
     protected Runnable onMouseEnterHandler;
     protected Runnable onMouseLeaveHandler;
@@ -60,10 +75,12 @@ public abstract class UIElement implements IElement {
         this.calculatedX = x; this.calculatedY = y;
         this.calculatedWidth = width; this.calculatedHeight = height;
         this.interactionBounds = new InteractionBounds(x, y, width, height);
+        this.defaultFontRenderer = this.fontRenderer;
         styleSystem.getEventManager().registerElement(this);
     }
 
     public void markConstraintsDirty() {
+        markPaintDirty();
         if (constraintsDirty) return;
         this.constraintsDirty = true;
         this.stylesComputed = false;
@@ -209,7 +226,15 @@ public abstract class UIElement implements IElement {
     @SuppressWarnings("unchecked")
     @Override
     public <T extends IElement> T addClass(StyleKey... keys) {
-        Collections.addAll(classes, keys);
+        for (StyleKey key : keys) classes.add(key);
+        markConstraintsDirty();
+        return (T) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends IElement> T addStyle(StyleToken... tokens) {
+        for (StyleToken token : tokens) classes.add(token);
         markConstraintsDirty();
         return (T) this;
     }
@@ -222,21 +247,29 @@ public abstract class UIElement implements IElement {
         return (T) this;
     }
 
-    public void setX(int x) { this.x = x; markConstraintsDirty(); }
-    public void setY(int y) { this.y = y; markConstraintsDirty(); }
-    public void setWidth(int width) { this.width = width; markConstraintsDirty(); }
-    public void setHeight(int height) { this.height = height; markConstraintsDirty(); }
-    public void setParent(UIElement parent) { this.parent = parent; markConstraintsDirty(); }
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends IElement> T removeStyle(StyleToken.Property property) {
+        classes.remove(property);
+        markConstraintsDirty();
+        return (T) this;
+    }
+
+    public void setX(int x) { if (this.x == x) return; this.x = x; markConstraintsDirty(); }
+    public void setY(int y) { if (this.y == y) return; this.y = y; markConstraintsDirty(); }
+    public void setWidth(int width) { if (this.width == width) return; this.width = width; markConstraintsDirty(); }
+    public void setHeight(int height) { if (this.height == height) return; this.height = height; markConstraintsDirty(); }
+    public void setParent(UIElement parent) { this.parent = parent; markConstraintsDirty(); invalidateInherited(); }
 
     @SuppressWarnings("unchecked")
     @Override
-    public <T extends IElement> T setZIndex(ZIndex zIndex) { this.zIndex = zIndex != null ? zIndex : ZIndex.CONTENT; return (T) this; }
+    public <T extends IElement> T setZIndex(ZIndex zIndex) { this.zIndex = zIndex != null ? zIndex : ZIndex.CONTENT; markPaintDirty(); return (T) this; }
     @SuppressWarnings("unchecked")
     @Override
-    public <T extends IElement> T setZIndex(ZIndex.Layer layer) { this.zIndex = new ZIndex(layer); return (T) this; }
+    public <T extends IElement> T setZIndex(ZIndex.Layer layer) { this.zIndex = new ZIndex(layer); markPaintDirty(); return (T) this; }
     @SuppressWarnings("unchecked")
     @Override
-    public <T extends IElement> T setZIndex(ZIndex.Layer layer, int priority) { this.zIndex = new ZIndex(layer, priority); return (T) this; }
+    public <T extends IElement> T setZIndex(ZIndex.Layer layer, int priority) { this.zIndex = new ZIndex(layer, priority); markPaintDirty(); return (T) this; }
     @SuppressWarnings("unchecked")
     @Override
     public <T extends IElement> T setZIndex(int intZIndex) {
@@ -253,6 +286,7 @@ public abstract class UIElement implements IElement {
         } else {
             this.zIndex = ZIndex.debugIndex(intZIndex - ZIndex.Layer.DEBUG.getBaseValue());
         }
+        markPaintDirty();
         return (T) this;
     }
 
@@ -275,6 +309,7 @@ public abstract class UIElement implements IElement {
 
     public void onMouseEnter() {
         hovered = true;
+        markPaintDirty();
         if (onMouseEnterHandler != null) onMouseEnterHandler.run();
     }
 
@@ -284,17 +319,20 @@ public abstract class UIElement implements IElement {
 
     public void onMouseLeave() {
         hovered = false;
+        markPaintDirty();
         if (onMouseLeaveHandler != null) onMouseLeaveHandler.run();
     }
 
     public void onFocusGained() {
         if (!rendered) return;
         focused = true;
+        markPaintDirty();
         if (onFocusGainedHandler != null) onFocusGainedHandler.run();
     }
 
     public void onFocusLost() {
         focused = false;
+        markPaintDirty();
         if (onFocusLostHandler != null) onFocusLostHandler.run();
     }
 
@@ -324,12 +362,14 @@ public abstract class UIElement implements IElement {
         boolean wasVisible = this.visible;
         this.visible = visible;
         if (wasVisible && !visible) markAsNotRendered();
+        if (wasVisible != visible) markPaintDirty();
         return (T) this;
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T extends IElement> T setEnabled(boolean enabled) {
+        if (this.enabled != enabled) markPaintDirty();
         this.enabled = enabled;
         if (!enabled) {
             if (hovered) onMouseLeave();
@@ -338,17 +378,111 @@ public abstract class UIElement implements IElement {
         return (T) this;
     }
 
+    /**
+     * Sets the font renderer of this element and of every descendant that doesn't set its own,
+     * {@code null} goes back to inheriting it from the parent
+     */
     @SuppressWarnings("unchecked")
     @Override
     public <T extends IElement> T setFontRenderer(FontRenderer fontRenderer) {
-        this.fontRenderer = fontRenderer != null ? fontRenderer : TextComponent.getDefaultFontRenderer();
+        this.ownFontRenderer = fontRenderer;
+        invalidateInherited();
+        resolveInherited();
+        return (T) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends IElement> T setTextColor(int argb) {
+        this.ownTextColor = argb;
+        invalidateInherited();
+        return (T) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends IElement> T clearTextColor() {
+        this.ownTextColor = null;
+        invalidateInherited();
         return (T) this;
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends IElement> T setTextShadow(boolean shadow) {
+        this.ownTextShadow = shadow;
+        invalidateInherited();
+        return (T) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends IElement> T clearTextShadow() {
+        this.ownTextShadow = null;
+        invalidateInherited();
+        return (T) this;
+    }
+
+    /**
+     * Drops the cached inherited properties, containers forward this to their children.
+     * A valid element always has a valid parent, so the walk stops at the first element
+     * that is already invalid.
+     */
+    public void invalidateInherited() {
+        inheritedValid = false;
+        markPaintDirty();
+    }
+
+    protected boolean isInheritedValid() {
+        return inheritedValid;
+    }
+
+    /**
+     * Resolves text color, font renderer and text shadow from the parent chain.
+     * Only invalidated elements walk up, and only until they reach a cached ancestor,
+     * so this is a couple of field reads per frame once everything is resolved.
+     */
+    protected void resolveInherited() {
+        int generation = styleSystem.getThemeGeneration();
+        if (inheritedValid && inheritedGeneration == generation) return;
+
+        FontRenderer parentFont;
+        int parentColor;
+        boolean parentShadow;
+        if (parent != null) {
+            parent.resolveInherited();
+            parentFont = parent.fontRenderer;
+            parentColor = parent.inheritedTextColor;
+            parentShadow = parent.inheritedTextShadow;
+        } else {
+            parentFont = defaultFontRenderer;
+            parentColor = getComputedStyles().getTextColor();
+            parentShadow = false;
+        }
+
+        FontRenderer resolvedFont = ownFontRenderer != null ? ownFontRenderer : parentFont;
+        boolean fontChanged = resolvedFont != fontRenderer;
+        fontRenderer = resolvedFont;
+        inheritedTextColor = ownTextColor != null ? ownTextColor : parentColor;
+        inheritedTextShadow = ownTextShadow != null ? ownTextShadow : parentShadow;
+        inheritedValid = true;
+        inheritedGeneration = generation;
+
+        if (fontChanged) onFontRendererChanged(resolvedFont);
+    }
+
+    /**
+     * Called when the resolved font renderer changes, either set on this element or inherited,
+     * widgets forward it to the text components they own
+     */
+    protected void onFontRendererChanged(FontRenderer fontRenderer) {}
+
     public CSSStyleApplier.ComputedStyles getComputedStyles() {
-        if (!stylesComputed || constraintsDirty) {
-            cachedStyles = CSSStyleApplier.computeStyles(this);
+        int generation = styleSystem.getThemeGeneration();
+        if (!stylesComputed || constraintsDirty || stylesGeneration != generation) {
+            cachedStyles = styleSystem.resolveStyles(classes);
             stylesComputed = true;
+            stylesGeneration = generation;
         }
         return cachedStyles;
     }
@@ -367,7 +501,22 @@ public abstract class UIElement implements IElement {
     public int getMarginLeft() { return getComputedStyles().getMarginLeft(); }
 
     protected int getGap() { return getComputedStyles().getGap(); }
-    protected int getTextColor() { return getComputedStyles().getTextColor(); }
+    protected int getTextColor() {
+        resolveInherited();
+        return inheritedTextColor;
+    }
+
+    /**
+     * @return whether the text color was set on this element rather than inherited
+     */
+    protected boolean hasOwnTextColor() {
+        return ownTextColor != null;
+    }
+
+    public boolean isTextShadow() {
+        resolveInherited();
+        return inheritedTextShadow;
+    }
     protected boolean hasHoverEffect() { return getComputedStyles().isHasHoverEffect(); }
     protected boolean hasFocusRing() { return getComputedStyles().isHasFocusRing(); }
 
@@ -375,6 +524,9 @@ public abstract class UIElement implements IElement {
     protected int getFlexShrink() { return getComputedStyles().getFlexShrink(); }
 
     public boolean hasClass(StyleKey key) { return classes.contains(key); }
+    public boolean hasStyle(StyleToken token) { return classes.contains(token); }
+    public Set<StyleKey> getClasses() { return Collections.unmodifiableSet(classes.keys()); }
+    public StyleSet getStyleSet() { return classes.copy(); }
     public boolean isVisible() { return visible; }
     public boolean isEnabled() { return enabled; }
     public boolean isFocused() { return focused; }
@@ -382,11 +534,15 @@ public abstract class UIElement implements IElement {
     public void setHovered(boolean v) {
         if (hovered == v) return;
         hovered = v;
+        markPaintDirty();
     }
     public boolean isRendered() { return rendered; }
     public UIStyleSystem getStyleSystem() { return styleSystem; }
     public UIElement getParent() { return parent; }
-    public FontRenderer getFontRenderer() { return fontRenderer; }
+    public FontRenderer getFontRenderer() {
+        resolveInherited();
+        return fontRenderer;
+    }
     public LayoutConstraints getConstraints() { return constraints; }
 
     public ZIndex getZIndex() { return zIndex; }
@@ -403,9 +559,53 @@ public abstract class UIElement implements IElement {
             return;
         }
         markAsRendered();
+        resolveInherited();
+        boolean volatileNow = isPaintVolatile();
+        if (volatileNow != paintVolatile) {
+            paintVolatile = volatileNow;
+            markPaintDirty();
+        }
         render(context);
     }
 
+    /**
+     * Bumps the paint version of this element and of every ancestor, retained containers
+     * re-record their display list when their version moved since the last recording
+     */
+    public void markPaintDirty() {
+        for (UIElement e = this; e != null; e = e.parent) e.paintVersion++;
+    }
+
+    public int getPaintVersion() { return paintVersion; }
+
+    /**
+     * Whether this element changes from frame to frame on its own, volatile elements are never
+     * recorded into a display list, they are rendered live at their place on every replay
+     */
+    public boolean isPaintVolatile() {
+        return hovered || focused;
+    }
+
+    /**
+     * A cheap fingerprint of state this element can't observe changing, such as the value of a model
+     * shared with other code. Compared before replaying a display list, a different value marks
+     * the element paint dirty.
+     */
+    protected int paintStamp() {
+        return 0;
+    }
+
+    /**
+     * Compares the paint stamp with the one of the previous check, containers check their children too
+     */
+    public void validatePaint() {
+        int stamp = paintStamp();
+        if (stamp != paintStamp) {
+            paintStamp = stamp;
+            markPaintDirty();
+        }
+    }
+
     public abstract void render(DrawContext context);
 
     public static class InteractionBounds {
@@ -0,0 +1,94 @@
+package com.edgn.ui.core.animation;
+
+import com.edgn.ui.core.renderer.FrameClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Steps every running {@link Tween} of a screen, once per frame, against the {@link FrameClock}.
+ * <p>
+ * {@code BaseTemplate} updates the scheduler when the frame starts, reading a tween before that
+ * updates it too, so every tween of a frame is stepped once and sees the same time whatever the
+ * order widgets are drawn in. Finished tweens are dropped right away, {@link #isIdle()} tells
+ * when nothing animates anymore and retained containers can replay what they recorded.
+ * <p>
+ * Render thread only.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class AnimationScheduler {
+    private final List<Tween> active = new ArrayList<>();
+    private final List<Runnable> finished = new ArrayList<>();
+    private long lastFrame = -1;
+
+    /**
+     * Animates a number
+     * @param durationMs length of the animation in frame time milliseconds
+     * @param easing curve applied to the progress, linear when null
+     */
+    public Tween tween(float from, float to, long durationMs, Easing easing) {
+        return start(new Tween(this, from, to, 0, 0, false, FrameClock.now(), durationMs, easing));
+    }
+
+    /**
+     * Animates an ARGB color, channels are interpolated separately
+     */
+    public Tween tweenColor(int from, int to, long durationMs, Easing easing) {
+        return start(new Tween(this, 0f, 1f, from, to, true, FrameClock.now(), durationMs, easing));
+    }
+
+    /**
+     * Steps every tween to the current frame time, only the first call of a frame does anything
+     */
+    public void update() {
+        long frame = FrameClock.frame();
+        if (frame == lastFrame) return;
+        lastFrame = frame;
+        if (active.isEmpty()) return;
+
+        long now = FrameClock.now();
+        int kept = 0;
+        for (int i = 0; i < active.size(); i++) {
+            Tween tween = active.get(i);
+            if (tween.step(now)) {
+                if (tween.getOnFinish() != null) finished.add(tween.getOnFinish());
+                continue;
+            }
+            active.set(kept++, tween);
+        }
+        active.subList(kept, active.size()).clear();
+
+        if (finished.isEmpty()) return;
+        List<Runnable> callbacks = new ArrayList<>(finished);
+        finished.clear();
+        for (Runnable callback : callbacks) callback.run();
+    }
+
+    /**
+     * @return true when no tween is running
+     */
+    public boolean isIdle() {
+        return active.isEmpty();
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    /**
+     * Cancels every running tween, their values stay where they are
+     */
+    public void cancelAll() {
+        for (Tween tween : new ArrayList<>(active)) tween.cancel();
+    }
+
+    void remove(Tween tween) {
+        active.remove(tween);
+    }
+
+    private Tween start(Tween tween) {
+        active.add(tween);
+        return tween;
+    }
+}
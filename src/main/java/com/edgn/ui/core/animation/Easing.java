@@ -0,0 +1,35 @@
+package com.edgn.ui.core.animation;
+
+/**
+ * Maps the linear progress of a {@link Tween}, from 0 to 1, to the progress applied to its value.
+ * Curves start at 0 and end at 1, some overshoot in between.
+ * @author EDGN
+ */
+@FunctionalInterface
+@SuppressWarnings("unused")
+public interface Easing {
+    Easing LINEAR = t -> t;
+    Easing EASE_IN_QUAD = t -> t * t;
+    Easing EASE_OUT_QUAD = t -> t * (2f - t);
+    Easing EASE_IN_OUT_QUAD = t -> t < 0.5f ? 2f * t * t : 1f - (-2f * t + 2f) * (-2f * t + 2f) / 2f;
+    Easing EASE_IN_CUBIC = t -> t * t * t;
+    Easing EASE_OUT_CUBIC = t -> {
+        float u = 1f - t;
+        return 1f - u * u * u;
+    };
+    Easing EASE_IN_OUT_CUBIC = t -> {
+        if (t < 0.5f) return 4f * t * t * t;
+        float u = -2f * t + 2f;
+        return 1f - u * u * u / 2f;
+    };
+    Easing EASE_OUT_BACK = t -> {
+        float u = t - 1f;
+        return 1f + 2.70158f * u * u * u + 1.70158f * u * u;
+    };
+    Easing SMOOTHSTEP = t -> t * t * (3f - 2f * t);
+
+    /**
+     * @param t linear progress, from 0 to 1
+     */
+    float apply(float t);
+}
@@ -0,0 +1,111 @@
+package com.edgn.ui.core.animation;
+
+import com.edgn.ui.utils.DrawingUtils;
+
+/**
+ * One running animation of a number or a color, created and stepped by an {@link AnimationScheduler}.
+ * <p>
+ * The value is computed once per frame by the scheduler, reading it is a field access. A tween
+ * reaches its end value exactly on its last frame and is then dropped by the scheduler, a
+ * {@link #cancel() cancelled} tween keeps the value it had.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class Tween {
+    private final AnimationScheduler scheduler;
+    private final float from;
+    private final float to;
+    private final int fromColor;
+    private final int toColor;
+    private final boolean color;
+    private final long duration;
+    private final Easing easing;
+    private long start;
+    private float progress = 0f;
+    private boolean finished = false;
+    private Runnable onFinish;
+
+    Tween(AnimationScheduler scheduler, float from, float to, int fromColor, int toColor, boolean color,
+          long start, long duration, Easing easing) {
+        this.scheduler = scheduler;
+        this.from = from;
+        this.to = to;
+        this.fromColor = fromColor;
+        this.toColor = toColor;
+        this.color = color;
+        this.start = start;
+        this.duration = Math.max(0, duration);
+        this.easing = easing != null ? easing : Easing.LINEAR;
+    }
+
+    /**
+     * Runs once the tween reaches its end, not when it is cancelled
+     */
+    public Tween onFinish(Runnable callback) {
+        this.onFinish = callback;
+        return this;
+    }
+
+    /**
+     * @return the eased progress of this frame, 0 at the start and 1 at the end
+     */
+    public float progress() {
+        scheduler.update();
+        return progress;
+    }
+
+    /**
+     * @return the number of this frame, for tweens started with {@link AnimationScheduler#tween}
+     */
+    public float value() {
+        float p = progress();
+        if (finished && p == 1f) return to;
+        return from + (to - from) * p;
+    }
+
+    /**
+     * @return the color of this frame, for tweens started with {@link AnimationScheduler#tweenColor}
+     */
+    public int color() {
+        float p = progress();
+        if (finished && p == 1f) return toColor;
+        return DrawingUtils.lerpColor(fromColor, toColor, p);
+    }
+
+    public boolean isColor() { return color; }
+
+    /**
+     * @return true until the tween reached its end or was cancelled
+     */
+    public boolean isRunning() {
+        scheduler.update();
+        return !finished;
+    }
+
+    /**
+     * Stops the tween where it is, its value no longer changes
+     */
+    public void cancel() {
+        if (finished) return;
+        finished = true;
+        scheduler.remove(this);
+    }
+
+    /**
+     * Steps to the frame time, returns true when the tween just reached its end
+     */
+    boolean step(long now) {
+        if (finished) return false;
+        if (now < start) start = now;
+        float t = duration == 0 ? 1f : Math.min(1f, (now - start) / (float) duration);
+        if (t >= 1f) {
+            progress = 1f;
+            finished = true;
+            return true;
+        }
+        progress = easing.apply(t);
+        return false;
+    }
+
+    Runnable getOnFinish() { return onFinish; }
+}
@@ -2,8 +2,10 @@ package com.edgn.ui.core.container;
 
 import com.edgn.ui.core.IElement;
 import com.edgn.ui.core.UIElement;
+import com.edgn.ui.core.renderer.atlas.NineSlice;
+import com.edgn.ui.core.renderer.batch.DisplayList;
+import com.edgn.ui.core.renderer.batch.RenderPass;
 import com.edgn.ui.css.UIStyleSystem;
-import com.edgn.ui.css.values.Shadow;
 import com.edgn.ui.layout.LayoutEngine;
 import com.edgn.ui.utils.DrawingUtils;
 import net.minecraft.client.gui.DrawContext;
@@ -16,8 +18,11 @@ public abstract class BaseContainer extends UIElement implements IContainer {
     protected final List<UIElement> children = new ArrayList<>();
     protected boolean renderBackgroundEnabled = true;
     protected Integer backgroundColorOverride = null;
+    protected NineSlice backgroundNineSlice = null;
     private UIElement capturedElement = null;
     private int capturedButton = -1;
+    private boolean retained = false;
+    private DisplayList displayList = null;
 
     protected BaseContainer(UIStyleSystem styleSystem, int x, int y, int width, int height) {
         super(styleSystem, x, y, width, height);
@@ -61,9 +66,38 @@ public abstract class BaseContainer extends UIElement implements IContainer {
     @SuppressWarnings("unchecked")
     public <T extends IContainer> T setRenderBackground(boolean enabled) {
         this.renderBackgroundEnabled = enabled;
+        markPaintDirty();
         return (T) this;
     }
 
+    /**
+     * Opt-in retained mode, the draw commands of the whole subtree are recorded once and replayed
+     * every frame until something in the subtree marks itself paint dirty. Hovered, focused and
+     * animated descendants are still rendered live at their place.
+     * <p>
+     * Every draw in the subtree must go through {@code DrawingUtils}, a {@code FontRenderer} or
+     * containers, anything else makes the subtree fall back to live rendering.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends IContainer> T setRetained(boolean retained) {
+        this.retained = retained;
+        if (!retained) displayList = null;
+        markPaintDirty();
+        return (T) this;
+    }
+
+    public boolean isRetained() {
+        return retained;
+    }
+
+    @Override
+    public void validatePaint() {
+        super.validatePaint();
+        for (UIElement child : children) {
+            child.validatePaint();
+        }
+    }
+
     public boolean isRenderBackgroundEnabled() {
         return renderBackgroundEnabled;
     }
@@ -72,15 +106,40 @@ public abstract class BaseContainer extends UIElement implements IContainer {
     public <T extends IContainer> T setBackgroundColor(int argb) {
         this.backgroundColorOverride = argb;
         this.renderBackgroundEnabled = true;
+        markPaintDirty();
         return (T) this;
     }
 
     @SuppressWarnings("unchecked")
     public <T extends IContainer> T clearBackgroundColor() {
         this.backgroundColorOverride = null;
+        markPaintDirty();
+        return (T) this;
+    }
+
+    /**
+     * Draws the background as a textured frame instead of a rounded rect, a background color
+     * override then tints it
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends IContainer> T setBackgroundNineSlice(NineSlice slice) {
+        this.backgroundNineSlice = slice;
+        this.renderBackgroundEnabled = true;
+        markPaintDirty();
+        return (T) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends IContainer> T clearBackgroundNineSlice() {
+        this.backgroundNineSlice = null;
+        markPaintDirty();
         return (T) this;
     }
 
+    public NineSlice getBackgroundNineSlice() {
+        return backgroundNineSlice;
+    }
+
     @Override
     public void markConstraintsDirty() {
         if (constraintsDirty) return;
@@ -90,6 +149,15 @@ public abstract class BaseContainer extends UIElement implements IContainer {
         }
     }
 
+    @Override
+    public void invalidateInherited() {
+        if (!isInheritedValid()) return;
+        super.invalidateInherited();
+        for (UIElement child : children) {
+            child.invalidateInherited();
+        }
+    }
+
     @Override
     public void updateConstraints() {
         if (!constraintsDirty) return;
@@ -233,11 +301,45 @@ public abstract class BaseContainer extends UIElement implements IContainer {
 
         markAsRendered();
         updateConstraints();
+        resolveInherited();
+
+        if (retained && RenderPass.buffer(context) != null) {
+            renderRetained(context);
+        } else {
+            renderLive(context);
+        }
+    }
+
+    private void renderRetained(DrawContext context) {
+        validatePaint();
+        int themeGeneration = styleSystem.getThemeGeneration();
+        var base = context.getMatrices().peek().getPositionMatrix();
+        if (displayList == null) displayList = new DisplayList();
+
+        if (displayList.isValid(getPaintVersion(), themeGeneration, base)) {
+            displayList.replay(context);
+            return;
+        }
+        if (displayList.hasFailed(getPaintVersion(), themeGeneration)) {
+            renderLive(context);
+            return;
+        }
+
+        RenderPass.beginRecording(displayList);
+        try {
+            renderLive(context);
+        } finally {
+            RenderPass.endRecording(displayList);
+        }
+        displayList.seal(getPaintVersion(), themeGeneration, base);
+    }
+
+    private void renderLive(DrawContext context) {
         renderBackground(context);
 
         InteractionBounds bounds = getInteractionBounds();
         if (bounds.isValid()) {
-            context.enableScissor(bounds.minX, bounds.minY, bounds.maxX, bounds.maxY);
+            RenderPass.enableScissor(context, bounds.minX, bounds.minY, bounds.maxX, bounds.maxY);
         }
 
         try {
@@ -248,12 +350,12 @@ public abstract class BaseContainer extends UIElement implements IContainer {
             for (UIElement child : sortedChildren) {
                 if (child != null && child.isVisible()) {
                     LayoutEngine.applyElementStyles(child);
-                    child.renderElement(context);
+                    RenderPass.renderChild(context, child);
                 }
             }
         } finally {
             if (bounds.isValid()) {
-                context.disableScissor();
+                RenderPass.disableScissor(context);
             }
         }
     }
@@ -261,15 +363,20 @@ public abstract class BaseContainer extends UIElement implements IContainer {
     void renderBackground(DrawContext context) {
         if (!renderBackgroundEnabled) return;
 
+        if (backgroundNineSlice != null) {
+            DrawingUtils.drawShadow(context, getCalculatedX(), getCalculatedY(),
+                    getCalculatedWidth(), getCalculatedHeight(), getBorderRadius(), 2, 2, getShadow());
+            int tint = backgroundColorOverride != null ? backgroundColorOverride : 0xFFFFFFFF;
+            DrawingUtils.drawNineSlice(context, backgroundNineSlice, getCalculatedX(), getCalculatedY(),
+                    getCalculatedWidth(), getCalculatedHeight(), tint);
+            return;
+        }
+
         int bgColor = (backgroundColorOverride != null) ? backgroundColorOverride : getBgColor();
         if (bgColor != 0) {
             int borderRadius = getBorderRadius();
-            Shadow shadow = getShadow();
-
-            if (shadow != null) {
-                DrawingUtils.drawShadow(context, getCalculatedX(), getCalculatedY(),
-                        getCalculatedWidth(), getCalculatedHeight(), 2, 2, shadow.color);
-            }
+            DrawingUtils.drawShadow(context, getCalculatedX(), getCalculatedY(),
+                    getCalculatedWidth(), getCalculatedHeight(), borderRadius, 2, 2, getShadow());
 
             DrawingUtils.drawRoundedRect(context, getCalculatedX(), getCalculatedY(),
                     getCalculatedWidth(), getCalculatedHeight(), borderRadius, bgColor);
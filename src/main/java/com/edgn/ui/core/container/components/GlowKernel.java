@@ -0,0 +1,85 @@
+package com.edgn.ui.core.container.components;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The offsets a glowing text is drawn at, with their weights, computed once per radius and quality.
+ * <p>
+ * {@code HIGH} keeps every pixel offset strictly inside the radius, the edge ones weigh nothing and
+ * are dropped. {@code MEDIUM} keeps the eight compass directions of every ring, {@code LOW} only
+ * those of the middle ring. The sparse kernels are rescaled to the total weight of the full one so
+ * the three look equally bright. Stored flat as {@code dx, dy, weight}.
+ * @author EDGN
+ */
+final class GlowKernel {
+    static final int STRIDE = 3;
+    private static final float[] EMPTY = new float[0];
+    private static final int[][] DIRECTIONS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+
+    private static final Map<Long, float[]> KERNELS = new ConcurrentHashMap<>();
+
+    private GlowKernel() { /* utility class */ }
+
+    static float[] get(float radius, TextComponent.GlowQuality quality) {
+        long key = ((long) Float.floatToIntBits(radius) << 2) | quality.ordinal();
+        return KERNELS.computeIfAbsent(key, k -> build(radius, quality));
+    }
+
+    private static float[] build(float radius, TextComponent.GlowQuality quality) {
+        if (!(radius > 0f)) return EMPTY;
+        Map<Long, Float> full = disc(radius);
+        if (quality == TextComponent.GlowQuality.HIGH) return flatten(full, 1f);
+
+        Map<Long, Float> sparse = new LinkedHashMap<>();
+        int outer = (int) Math.ceil(radius) - 1;
+        int from = quality == TextComponent.GlowQuality.LOW ? Math.max(1, Math.round(radius / 2f)) : 1;
+        int to = quality == TextComponent.GlowQuality.LOW ? from : outer;
+        for (int d = from; d <= to; d++) {
+            for (int[] dir : DIRECTIONS) {
+                int dx = Math.round(dir[0] * d * (dir[1] != 0 ? 0.70710677f : 1f));
+                int dy = Math.round(dir[1] * d * (dir[0] != 0 ? 0.70710677f : 1f));
+                Float weight = full.get(pack(dx, dy));
+                if (weight != null) sparse.put(pack(dx, dy), weight);
+            }
+        }
+        float fullTotal = total(full);
+        float sparseTotal = total(sparse);
+        return sparseTotal > 0f ? flatten(sparse, fullTotal / sparseTotal) : EMPTY;
+    }
+
+    private static Map<Long, Float> disc(float radius) {
+        Map<Long, Float> out = new LinkedHashMap<>();
+        int r = (int) radius;
+        for (int dx = -r; dx <= r; dx++) {
+            for (int dy = -r; dy <= r; dy++) {
+                if (dx == 0 && dy == 0) continue;
+                float weight = 1f - (float) Math.sqrt((double) dx * dx + dy * dy) / radius;
+                if (weight > 0f) out.put(pack(dx, dy), weight);
+            }
+        }
+        return out;
+    }
+
+    private static float[] flatten(Map<Long, Float> offsets, float scale) {
+        float[] out = new float[offsets.size() * STRIDE];
+        int n = 0;
+        for (Map.Entry<Long, Float> e : offsets.entrySet()) {
+            out[n++] = (int) (e.getKey() >> 32);
+            out[n++] = (int) (long) e.getKey();
+            out[n++] = e.getValue() * scale;
+        }
+        return out;
+    }
+
+    private static float total(Map<Long, Float> offsets) {
+        float sum = 0f;
+        for (float w : offsets.values()) sum += w;
+        return sum;
+    }
+
+    private static long pack(int dx, int dy) {
+        return ((long) dx << 32) | (dy & 0xFFFFFFFFL);
+    }
+}
@@ -1,14 +1,18 @@
 package com.edgn.ui.core.container.components;
 
 import com.edgn.ui.core.renderer.FontRenderer;
-import com.edgn.ui.core.renderer.font.MinecraftFontRenderer;
+import com.edgn.ui.core.renderer.FrameClock;
+import com.edgn.ui.core.renderer.font.CachingFontRenderer;
+import com.edgn.ui.core.renderer.font.TextMetrics;
+import com.edgn.ui.utils.ColorLut;
+import com.edgn.ui.utils.DrawingUtils;
 import net.minecraft.client.gui.DrawContext;
 
-import java.awt.*;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 public class TextComponent implements Component {
@@ -19,13 +23,29 @@ public class TextComponent implements Component {
     public enum EffectType { NONE, SOLID, GRADIENT, RAINBOW }
     public enum EffectMode { PULSE, HORIZONTAL_LTR, HORIZONTAL_RTL }
     public enum TextOverflowMode { NONE, TRUNCATE, WRAP, SCALE }
+    public enum GlowQuality { LOW, MEDIUM, HIGH }
 
+    private static Supplier<FontRenderer> defaultFontProvider = CachingFontRenderer::getDefault;
+
+    /**
+     * The font of components and elements created without one, by default the game font behind the
+     * shared measurement cache
+     */
     public static FontRenderer getDefaultFontRenderer() {
-        return new MinecraftFontRenderer();
+        return defaultFontProvider.get();
+    }
+
+    /**
+     * Replaces the font given to components and elements created without one, headless rendering
+     * sets a font that doesn't need the game client
+     */
+    public static void setDefaultFontProvider(Supplier<FontRenderer> provider) {
+        defaultFontProvider = provider != null ? provider : CachingFontRenderer::getDefault;
     }
 
     private final String text;
     private FontRenderer font;
+    private TextLayout layout;
 
     private TextOverflowMode overflowMode = TextOverflowMode.NONE;
     private String ellipsis = "...";
@@ -43,13 +63,14 @@ public class TextComponent implements Component {
     private TextAlign textAlign = TextAlign.LEFT;
     private VerticalAlign verticalAlign = VerticalAlign.MIDDLE;
     private boolean hasShadow = false;
+    private boolean inheritedShadow = false;
     private int shadowColor = 0xFF000000;
     private int shadowOffsetX = 1;
     private int shadowOffsetY = 1;
 
     private final Set<AnimationType> activeAnimations = EnumSet.noneOf(AnimationType.class);
     private float animationSpeed = 1.0f;
-    private long animationStartTime = System.currentTimeMillis();
+    private long animationStartTime = FrameClock.now();
     private boolean animationEnabled = true;
 
     private float waveAmplitude = 5.0f;
@@ -61,6 +82,7 @@ public class TextComponent implements Component {
     private int glowColor = 0x80FFFFFF;
     private float glowRadius = 3.0f;
     private float glowIntensity = 1.0f;
+    private GlowQuality glowQuality = GlowQuality.MEDIUM;
     private float pulseMin = 0.8f;
     private float pulseMax = 1.2f;
     private float shakeIntensity = 2.0f;
@@ -82,67 +104,105 @@ public class TextComponent implements Component {
     public void render(DrawContext context, int x, int y, int maxWidth, int maxHeight) {
         if (text == null || text.isEmpty() || !animationEnabled) return;
         this.maxWidth = maxWidth - safetyMargin;
-        String displayText = getProcessedText();
-        if (displayText == null || displayText.isEmpty()) return;
-        switch (overflowMode) {
-            case WRAP -> renderWrapped(context, x, y, this.maxWidth, maxLines);
-            case SCALE -> renderScaled(context, x, y, this.maxWidth, maxHeight, displayText);
-            default -> renderSingle(context, x, y, this.maxWidth, maxHeight, displayText);
-        }
-    }
-
-    private void renderSingle(DrawContext context, int x, int y, int maxWidth, int maxHeight, String displayText) {
-        int renderX = calculateX(x, maxWidth, displayText);
-        int renderY = calculateY(y, maxHeight);
-        renderInternal(context, displayText, renderX, renderY, 0);
-    }
-
-    private void renderScaled(DrawContext context, int x, int y, int maxWidth, int maxHeight, String displayText) {
-        int textWidth = font.width(displayText);
-        if (textWidth <= maxWidth) {
-            renderSingle(context, x, y, maxWidth, maxHeight, displayText);
+        String displayText = getDisplayText();
+        if (displayText.isEmpty()) return;
+        TextLayout l = overflowMode == TextOverflowMode.WRAP
+                ? layout(text, TextOverflowMode.WRAP, this.maxWidth, 0, maxLines)
+                : layout(displayText, overflowMode, this.maxWidth, maxHeight, 1);
+        if (l.scale == 1.0f) {
+            renderLayout(context, l, x, y);
             return;
         }
-        float scale = Math.max(minScale, (float) maxWidth / textWidth);
         context.getMatrices().push();
-        context.getMatrices().scale(scale, scale, 1.0f);
-        int scaledX = (int) (x / scale);
-        int scaledY = (int) (y / scale);
-        int scaledMaxWidth = (int) (maxWidth / scale);
-        int scaledMaxHeight = (int) (maxHeight / scale);
-        renderSingle(context, scaledX, scaledY, scaledMaxWidth, scaledMaxHeight, displayText);
+        context.getMatrices().scale(l.scale, l.scale, 1.0f);
+        renderLayout(context, l, (int) (x / l.scale), (int) (y / l.scale));
         context.getMatrices().pop();
     }
 
     public void renderWrapped(DrawContext context, int x, int y, int maxWidth, int maxLines) {
         if (text == null || text.isEmpty() || context == null) return;
-        List<String> lines = font.wrap(this.text, maxWidth);
-        int yOffset = 0;
-        int charOffset = 0;
+        renderLayout(context, layout(text, TextOverflowMode.WRAP, maxWidth, 0, maxLines), x, y);
+    }
+
+    /**
+     * Draws one line laid out by the caller with the style of this component, at {@code (x, y)} as
+     * is: no overflow handling, no alignment and no typewriter. A multiline owner draws its visible
+     * lines through it instead of a component per line.
+     * @param width the width of the line, for the underline and the strikethrough
+     */
+    public void renderLine(DrawContext context, String line, int x, int y, int width) {
+        if (line == null || line.isEmpty() || context == null || !animationEnabled) return;
+        renderInternal(context, line, x, y, width, 0);
+    }
+
+    private void renderLayout(DrawContext context, TextLayout l, int x, int y) {
+        for (int i = 0; i < l.lines.length; i++) {
+            renderInternal(context, l.lines[i], x + l.xs[i], y + l.ys[i], l.widths[i], l.charOffsets[i]);
+        }
+    }
+
+    /**
+     * The cached layout of {@code source} in this box, measured again only when the text, the box,
+     * the font or a layout setting changed
+     */
+    private TextLayout layout(String source, TextOverflowMode mode, int maxWidth, int maxHeight, int lines) {
+        int generation = CachingFontRenderer.generation();
+        TextLayout l = layout;
+        if (l != null && l.matches(source, maxWidth, maxHeight, lines, mode, font, generation)) return l;
+        l = switch (mode) {
+            case WRAP -> layoutWrapped(source, maxWidth, lines, generation);
+            case SCALE -> layoutScaled(source, maxWidth, maxHeight, generation);
+            default -> layoutSingle(source, mode, maxWidth, maxHeight, generation);
+        };
+        layout = l;
+        return l;
+    }
+
+    private TextLayout layoutSingle(String source, TextOverflowMode mode, int maxWidth, int maxHeight, int generation) {
+        String line = mode == TextOverflowMode.TRUNCATE && maxWidth > 0 ? truncateText(source, maxWidth) : source;
+        int width = font.width(line);
+        TextLayout l = new TextLayout(source, maxWidth, maxHeight, 1, mode, font, generation, 1, 1.0f);
+        l.set(0, line, alignX(maxWidth, width), alignY(maxHeight), width, 0);
+        return l;
+    }
+
+    private TextLayout layoutScaled(String source, int maxWidth, int maxHeight, int generation) {
+        int width = font.width(source);
+        if (width <= maxWidth) return layoutSingle(source, TextOverflowMode.SCALE, maxWidth, maxHeight, generation);
+        float scale = Math.max(minScale, (float) maxWidth / width);
+        TextLayout l = new TextLayout(source, maxWidth, maxHeight, 1, TextOverflowMode.SCALE, font, generation, 1, scale);
+        l.set(0, source, alignX((int) (maxWidth / scale), width), alignY((int) (maxHeight / scale)), width, 0);
+        return l;
+    }
+
+    private TextLayout layoutWrapped(String source, int maxWidth, int lines, int generation) {
+        List<String> wrapped = font.wrap(source, maxWidth);
+        int count = Math.min(wrapped.size(), lines);
         int lineHeight = font.lineHeight() + 2;
-        for (int i = 0; i < Math.min(lines.size(), maxLines); i++) {
-            String line = lines.get(i);
-            if (line == null) continue;
-            if (i == maxLines - 1 && lines.size() > maxLines) line = truncateText(line, maxWidth);
-            int renderX = calculateX(x, maxWidth, line);
-            renderInternal(context, line, renderX, y + yOffset, charOffset);
-            yOffset += lineHeight;
+        TextLayout l = new TextLayout(source, maxWidth, 0, lines, TextOverflowMode.WRAP, font, generation, count, 1.0f);
+        int charOffset = 0;
+        for (int i = 0; i < count; i++) {
+            String line = wrapped.get(i) != null ? wrapped.get(i) : "";
+            if (i == lines - 1 && wrapped.size() > lines) line = truncateText(line, maxWidth);
+            int width = font.width(line);
+            l.set(i, line, alignX(maxWidth, width), i * lineHeight, width, charOffset);
             charOffset += line.length();
         }
+        return l;
     }
 
-    private void renderInternal(DrawContext context, String textToRender, int x, int y, int charOffset) {
+    private void renderInternal(DrawContext context, String textToRender, int x, int y, int width, int charOffset) {
         if (textToRender.isEmpty()) return;
         int renderX = x;
         int renderY = y;
         if (activeAnimations.contains(AnimationType.SHAKE)) {
-            float t = (System.currentTimeMillis() - animationStartTime) / 1000.0f * animationSpeed;
+            float t = animationTime() * animationSpeed;
             renderX += (int) (Math.sin(t * 20) * shakeIntensity);
             renderY += (int) (Math.cos(t * 25) * shakeIntensity);
         }
         for (TextEffect effect : customEffects) effect.apply(this, context, renderX, renderY);
         if (hasGlow && !activeAnimations.contains(AnimationType.TYPEWRITER)) renderGlow(context, textToRender, renderX, renderY);
-        if (hasShadow) renderTextWithFormatting(context, textToRender, renderX + shadowOffsetX, renderY + shadowOffsetY, shadowColor, charOffset);
+        if (hasShadow || inheritedShadow) renderTextWithFormatting(context, textToRender, renderX + shadowOffsetX, renderY + shadowOffsetY, shadowColor, charOffset);
         boolean perChar = activeAnimations.contains(AnimationType.WAVE) || effectMode != EffectMode.PULSE;
         if (perChar) renderPerChar(context, textToRender, renderX, renderY, charOffset);
         else {
@@ -150,25 +210,28 @@ public class TextComponent implements Component {
             if (activeAnimations.contains(AnimationType.PULSE)) textColor = applyPulseEffect(textColor);
             renderTextWithFormatting(context, textToRender, renderX, renderY, textColor, charOffset);
         }
-        if (isUnderlined || isStrikethrough) renderTextDecorations(context, textToRender, renderX, renderY, charOffset);
+        if (isUnderlined || isStrikethrough) renderTextDecorations(context, width, renderX, renderY, charOffset);
     }
 
     private void renderPerChar(DrawContext context, String displayText, int x, int y, int charOffset) {
         int charX = x;
         int i = 0;
         int visIndex = 0;
+        boolean wave = activeAnimations.contains(AnimationType.WAVE);
+        boolean pulse = activeAnimations.contains(AnimationType.PULSE);
+        float waveTime = animationTime() * animationSpeed * waveFrequency;
+        int[] lut = effectLut();
+        float phase = effectPhase();
         while (i < displayText.length()) {
             int cp = displayText.codePointAt(i);
             int len = Character.charCount(cp);
-            String charStr = new String(Character.toChars(cp));
-            int color = getCurrentColor(visIndex + charOffset);
+            int color = colorAt(visIndex + charOffset, lut, phase);
             int cy = y;
-            if (activeAnimations.contains(AnimationType.WAVE)) {
-                float t = (System.currentTimeMillis() - animationStartTime) / 1000.0f;
-                cy += (int) (Math.sin(t * animationSpeed * waveFrequency + (visIndex + charOffset) * 0.5f) * waveAmplitude);
+            if (wave) {
+                cy += (int) (Math.sin(waveTime + (visIndex + charOffset) * 0.5f) * waveAmplitude);
             }
-            if (activeAnimations.contains(AnimationType.PULSE)) color = applyPulseEffect(color);
-            font.draw(context, charStr, charX, cy, color, false);
+            if (pulse) color = applyPulseEffect(color);
+            font.drawGlyph(context, cp, charX, cy, color, false, isBold);
             charX += font.advance(cp);
             i += len;
             visIndex++;
@@ -176,12 +239,45 @@ public class TextComponent implements Component {
     }
 
     private int getCurrentColor(int charIndex) {
-        float time = (System.currentTimeMillis() - animationStartTime) / 1000.0f;
-        float positionFactor = charIndex / 15.0f;
+        return colorAt(charIndex, effectLut(), effectPhase());
+    }
+
+    /**
+     * The shared table of the color effect, null for a solid color
+     */
+    private int[] effectLut() {
+        return switch (effectType) {
+            case GRADIENT -> ColorLut.gradient(startColor, endColor);
+            case RAINBOW -> ColorLut.rainbow(1.0f, 1.0f);
+            default -> null;
+        };
+    }
+
+    /**
+     * Where the color effect is at this frame, computed once for every glyph of a draw
+     */
+    private float effectPhase() {
+        float time = animationTime();
+        if (effectType == EffectType.GRADIENT && effectMode == EffectMode.PULSE) {
+            return (float) (Math.sin(time * effectSpeed) * 0.5 + 0.5);
+        }
+        return time * effectSpeed;
+    }
+
+    private int colorAt(int charIndex, int[] lut, float phase) {
+        float position = charIndex / 15.0f;
         return switch (effectType) {
             case SOLID -> this.startColor;
-            case GRADIENT -> getGradientColorAt(time, positionFactor);
-            case RAINBOW -> getRainbowColorAt(time, positionFactor);
+            case GRADIENT -> ColorLut.sample(lut, switch (effectMode) {
+                case PULSE -> phase;
+                case HORIZONTAL_LTR -> robustModulo(phase - position);
+                case HORIZONTAL_RTL -> robustModulo(phase + position);
+            });
+            case RAINBOW -> ColorLut.sampleCyclic(lut, switch (effectMode) {
+                case PULSE -> phase;
+                case HORIZONTAL_LTR -> phase - position;
+                case HORIZONTAL_RTL -> phase + position;
+            });
             default -> 0xFFFFFFFF;
         };
     }
@@ -205,9 +301,8 @@ public class TextComponent implements Component {
         while (i < text.length()) {
             int cp = text.codePointAt(i);
             int len = Character.charCount(cp);
-            String s = new String(Character.toChars(cp));
             int italicOffset = (int) (Math.sin((vis + charOffset) * 0.3f) * 1.5f);
-            font.draw(context, s, charX + italicOffset, y, color, false);
+            font.drawGlyph(context, cp, charX + italicOffset, y, color, false, false);
             charX += font.advance(cp);
             i += len;
             vis++;
@@ -221,24 +316,22 @@ public class TextComponent implements Component {
         while (i < text.length()) {
             int cp = text.codePointAt(i);
             int len = Character.charCount(cp);
-            String s = new String(Character.toChars(cp));
             int italicOffset = (int) (Math.sin((vis + charOffset) * 0.3f) * 1.5f);
-            renderBoldText(context, s, charX + italicOffset, y, color);
+            font.drawGlyph(context, cp, charX + italicOffset, y, color, false, true);
             charX += font.advance(cp);
             i += len;
             vis++;
         }
     }
 
-    private void renderTextDecorations(DrawContext context, String displayText, int x, int y, int charOffset) {
-        int textWidth = font.width(displayText);
+    private void renderTextDecorations(DrawContext context, int textWidth, int x, int y, int charOffset) {
         if (isUnderlined) {
             int underlineY = y + font.lineHeight();
-            context.fill(x, underlineY, x + textWidth, underlineY + 1, getCurrentColor(charOffset));
+            DrawingUtils.fillRect(context, x, underlineY, textWidth, 1, getCurrentColor(charOffset));
         }
         if (isStrikethrough) {
             int strikeY = y + font.lineHeight() / 2;
-            context.fill(x, strikeY, x + textWidth, strikeY + 1, getCurrentColor(charOffset));
+            DrawingUtils.fillRect(context, x, strikeY, textWidth, 1, getCurrentColor(charOffset));
         }
     }
 
@@ -246,56 +339,23 @@ public class TextComponent implements Component {
         return (value % 1.0f + 1.0f) % 1.0f;
     }
 
-    private int getGradientColorAt(float time, float position) {
-        float factor = switch (effectMode) {
-            case PULSE -> (float) (Math.sin(time * effectSpeed) * 0.5 + 0.5);
-            case HORIZONTAL_LTR -> robustModulo(time * effectSpeed - position);
-            case HORIZONTAL_RTL -> robustModulo(time * effectSpeed + position);
-        };
-        return interpolateColor(startColor, endColor, factor);
-    }
 
-    private int getRainbowColorAt(float time, float position) {
-        float hue = switch (effectMode) {
-            case PULSE -> robustModulo(time * effectSpeed);
-            case HORIZONTAL_LTR -> robustModulo(time * effectSpeed - position);
-            case HORIZONTAL_RTL -> robustModulo(time * effectSpeed + position);
-        };
-        return Color.HSBtoRGB(hue, 1.0f, 1.0f);
-    }
 
+    /**
+     * Bold glyphs placed at the regular advances, so bold text keeps the width it was laid out with
+     */
     private void renderBoldText(DrawContext context, String text, int x, int y, int color) {
-        font.draw(context, text, x, y, color, false);
-        font.draw(context, text, x + 1, y, color, false);
-        font.draw(context, text, x, y + 1, color, false);
-        font.draw(context, text, x + 1, y + 1, color, false);
-    }
-
-    private int interpolateColor(int color1, int color2, float factor) {
-        float f = Math.clamp(factor, 0.0f, 1.0f);
-        int r1 = (color1 >> 16) & 0xFF;
-        int g1 = (color1 >> 8) & 0xFF;
-        int b1 = color1 & 0xFF;
-        int a1 = (color1 >> 24) & 0xFF;
-        int r2 = (color2 >> 16) & 0xFF;
-        int g2 = (color2 >> 8) & 0xFF;
-        int b2 = color2 & 0xFF;
-        int a2 = (color2 >> 24) & 0xFF;
-        int r = (int) (r1 + (r2 - r1) * f);
-        int g = (int) (g1 + (r2 - g1) * f);
-        int b = (int) (b1 + (r2 - b1) * f);
-        int a = (int) (a1 + (r2 - a1) * f);
-        return (a << 24) | (r << 16) | (g << 8) | b;
-    }
-
-    private String getProcessedText() {
-        String displayText = getDisplayText();
-        if (overflowMode == TextOverflowMode.TRUNCATE && maxWidth > 0) {
-            displayText = truncateText(displayText, maxWidth);
+        int charX = x;
+        int i = 0;
+        while (i < text.length()) {
+            int cp = text.codePointAt(i);
+            font.drawGlyph(context, cp, charX, y, color, false, true);
+            charX += font.advance(cp);
+            i += Character.charCount(cp);
         }
-        return displayText;
     }
 
+
     private String getDisplayText() {
         if (activeAnimations.contains(AnimationType.TYPEWRITER)) {
             updateTypewriterAnimation();
@@ -305,7 +365,7 @@ public class TextComponent implements Component {
     }
 
     private void updateTypewriterAnimation() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = FrameClock.now();
         if (currentTime - lastTypewriterUpdate > typewriterDelay && typewriterCharCount < text.length()) {
             typewriterCharCount++;
             lastTypewriterUpdate = currentTime;
@@ -319,20 +379,7 @@ public class TextComponent implements Component {
         int ellipsisWidth = font.width(ellipsis);
         if (ellipsisWidth >= availableWidth) return "";
         int maxTextWidth = availableWidth - ellipsisWidth;
-        int left = 0;
-        int right = text.length();
-        int bestLength = 0;
-        while (left <= right) {
-            int mid = (left + right) / 2;
-            String substring = text.substring(0, mid);
-            int substringWidth = font.width(substring);
-            if (substringWidth <= maxTextWidth) {
-                bestLength = mid;
-                left = mid + 1;
-            } else {
-                right = mid - 1;
-            }
-        }
+        int bestLength = TextMetrics.of(font, text).fit(maxTextWidth);
         String result = text.substring(0, bestLength) + ellipsis;
         while (font.width(result) > availableWidth && bestLength > 0) {
             bestLength--;
@@ -341,42 +388,48 @@ public class TextComponent implements Component {
         return result;
     }
 
-    private int calculateX(int baseX, int maxWidth, String displayText) {
-        int textWidth = font.width(displayText);
+    private int alignX(int maxWidth, int textWidth) {
         return switch (textAlign) {
-            case LEFT -> baseX;
-            case CENTER -> baseX + (maxWidth - textWidth) / 2;
-            case RIGHT -> baseX + maxWidth - textWidth;
+            case LEFT -> 0;
+            case CENTER -> (maxWidth - textWidth) / 2;
+            case RIGHT -> maxWidth - textWidth;
         };
     }
 
-    private int calculateY(int baseY, int maxHeight) {
+    private int alignY(int maxHeight) {
         int textHeight = font.lineHeight();
         return switch (verticalAlign) {
-            case TOP -> baseY;
-            case MIDDLE -> baseY + (maxHeight - textHeight) / 2;
-            case BOTTOM -> baseY + maxHeight - textHeight;
+            case TOP -> 0;
+            case MIDDLE -> (maxHeight - textHeight) / 2;
+            case BOTTOM -> maxHeight - textHeight;
         };
     }
 
+    /**
+     * The plain text drawn at the offsets of the cached kernel, tinted by their weight. Alphas
+     * below 4 are skipped, the game draws those opaque.
+     */
     private void renderGlow(DrawContext context, String displayText, int x, int y) {
-        float time = (System.currentTimeMillis() - animationStartTime) / 1000.0f;
-        float glowAlpha = (float) (Math.sin(time * 3) * 0.3 + 0.7) * glowIntensity;
-        for (int offsetX = -(int) glowRadius; offsetX <= glowRadius; offsetX++) {
-            for (int offsetY = -(int) glowRadius; offsetY <= glowRadius; offsetY++) {
-                if (offsetX == 0 && offsetY == 0) continue;
-                float distance = (float) Math.sqrt((double) offsetX * offsetX + offsetY * offsetY);
-                if (distance <= glowRadius) {
-                    float alpha = (1.0f - distance / glowRadius) * glowAlpha * 0.3f;
-                    int currentGlowColor = (glowColor & 0x00FFFFFF) | ((int) (255 * alpha) << 24);
-                    renderTextWithFormatting(context, displayText, x + offsetX, y + offsetY, currentGlowColor, 0);
-                }
-            }
+        float time = animationTime();
+        float glowAlpha = (float) (Math.sin(time * 3) * 0.3 + 0.7) * glowIntensity * 0.3f;
+        float[] kernel = GlowKernel.get(glowRadius, glowQuality);
+        int rgb = glowColor & 0x00FFFFFF;
+        for (int i = 0; i < kernel.length; i += GlowKernel.STRIDE) {
+            int alpha = Math.min(255, (int) (255 * kernel[i + 2] * glowAlpha));
+            if (alpha < 4) continue;
+            font.draw(context, displayText, x + (int) kernel[i], y + (int) kernel[i + 1], (alpha << 24) | rgb, false);
         }
     }
 
+    /**
+     * Seconds since the animation started, at the time of the current frame
+     */
+    private float animationTime() {
+        return (FrameClock.now() - animationStartTime) / 1000.0f;
+    }
+
     private int applyPulseEffect(int color) {
-        float time = (System.currentTimeMillis() - animationStartTime) / 1000.0f * animationSpeed;
+        float time = animationTime() * animationSpeed;
         float scale = (float) (Math.sin(time * 3) * 0.5 + 0.5);
         float alpha = pulseMin + (pulseMax - pulseMin) * scale;
         int a1 = (color >> 24) & 0xFF;
@@ -401,16 +454,18 @@ public class TextComponent implements Component {
     public String getEllipsis() { return ellipsis; }
     public int getSafetyMargin() { return safetyMargin; }
     public float getMinScale() { return minScale; }
-    public void startAnimation() { this.animationEnabled = true; this.animationStartTime = System.currentTimeMillis(); if (activeAnimations.contains(AnimationType.TYPEWRITER)) { this.typewriterCharCount = 0; this.lastTypewriterUpdate = System.currentTimeMillis(); } }
+    public GlowQuality getGlowQuality() { return glowQuality; }
+    public void startAnimation() { this.animationEnabled = true; this.animationStartTime = FrameClock.now(); if (activeAnimations.contains(AnimationType.TYPEWRITER)) { this.typewriterCharCount = 0; this.lastTypewriterUpdate = FrameClock.now(); } }
     public void stopAnimation() { this.animationEnabled = false; }
     public void resetAnimation() { startAnimation(); }
     public int getColor() {return effectType == EffectType.SOLID ? startColor : getCurrentColor(0);}
-    public TextComponent setOverflowMode(TextOverflowMode mode) { this.overflowMode = mode; return this; }
+    public EffectType getEffectType() { return effectType; }
+    public TextComponent setOverflowMode(TextOverflowMode mode) { this.overflowMode = mode; this.layout = null; return this; }
     public TextComponent setMaxWidth(int maxWidth) { this.maxWidth = maxWidth; return this; }
-    public TextComponent setMaxLines(int maxLines) { this.maxLines = Math.max(1, maxLines); return this; }
-    public TextComponent setEllipsis(String ellipsis) { this.ellipsis = ellipsis != null ? ellipsis : "..."; return this; }
+    public TextComponent setMaxLines(int maxLines) { this.maxLines = Math.max(1, maxLines); this.layout = null; return this; }
+    public TextComponent setEllipsis(String ellipsis) { this.ellipsis = ellipsis != null ? ellipsis : "..."; this.layout = null; return this; }
     public TextComponent setSafetyMargin(int margin) { this.safetyMargin = Math.max(0, margin); return this; }
-    public TextComponent setMinScale(float minScale) { this.minScale = Math.clamp(minScale, 0.1f, 1.0f); return this; }
+    public TextComponent setMinScale(float minScale) { this.minScale = Math.clamp(minScale, 0.1f, 1.0f); this.layout = null; return this; }
     public TextComponent truncate() { return setOverflowMode(TextOverflowMode.TRUNCATE); }
     public TextComponent truncate(int maxWidth) { return setOverflowMode(TextOverflowMode.TRUNCATE).setMaxWidth(maxWidth); }
     public TextComponent wrap(int maxLines) { return setOverflowMode(TextOverflowMode.WRAP).setMaxLines(maxLines); }
@@ -422,10 +477,12 @@ public class TextComponent implements Component {
     public TextComponent rainbow(EffectMode mode, float speed) { this.effectType = EffectType.RAINBOW; this.effectMode = mode; this.effectSpeed = speed; return this; }
     public TextComponent rainbow(EffectMode mode) { return rainbow(mode, 1.0f); }
     public TextComponent rainbow() { return rainbow(EffectMode.HORIZONTAL_LTR, 1.0f); }
-    public TextComponent align(TextAlign align) { this.textAlign = align; return this; }
-    public TextComponent verticalAlign(VerticalAlign align) { this.verticalAlign = align; return this; }
+    public TextComponent align(TextAlign align) { this.textAlign = align; this.layout = null; return this; }
+    public TextComponent verticalAlign(VerticalAlign align) { this.verticalAlign = align; this.layout = null; return this; }
     public TextComponent shadow(int color, int offsetX, int offsetY) { this.hasShadow = true; this.shadowColor = color; this.shadowOffsetX = offsetX; this.shadowOffsetY = offsetY; return this; }
     public TextComponent shadow() { return shadow(0xFF000000, 1, 1); }
+    /** Shadow inherited from the owning element, unlike {@link #shadow()} it doesn't count as custom styling */
+    public TextComponent inheritShadow(boolean shadow) { this.inheritedShadow = shadow; return this; }
     public TextComponent wave(float amplitude, float frequency, float speed) { this.activeAnimations.add(AnimationType.WAVE); this.waveAmplitude = amplitude; this.waveFrequency = frequency; this.animationSpeed = speed; return this; }
     public TextComponent wave() { return wave(5.0f, 2.0f, 1.0f); }
     public TextComponent typewriter(int delayMs) { this.activeAnimations.add(AnimationType.TYPEWRITER); this.typewriterDelay = delayMs; return this; }
@@ -433,6 +490,7 @@ public class TextComponent implements Component {
     public TextComponent glow(int color, float radius, float intensity) { this.hasGlow = true; this.glowColor = color; this.glowRadius = radius; this.glowIntensity = intensity; return this; }
     public TextComponent glow(int color) { return glow(color, 3.0f, 1.0f); }
     public TextComponent glow() { return glow(0x80FFFFFF, 3.0f, 1.0f); }
+    public TextComponent glowQuality(GlowQuality quality) { this.glowQuality = quality != null ? quality : GlowQuality.MEDIUM; return this; }
     public TextComponent pulse(float min, float max, float speed) { this.activeAnimations.add(AnimationType.PULSE); this.pulseMin = min; this.pulseMax = max; this.animationSpeed = speed; return this; }
     public TextComponent pulse() { return pulse(0.8f, 1.2f, 1.0f); }
     public TextComponent shake(float intensity, float speed) { this.activeAnimations.add(AnimationType.SHAKE); this.shakeIntensity = intensity; this.animationSpeed = speed; return this; }
@@ -462,6 +520,39 @@ public class TextComponent implements Component {
                 || !activeAnimations.isEmpty();
     }
 
+    /**
+     * Whether the rendered output changes over time on its own (animations, moving gradients,
+     * custom effects), owners of an animated component are rendered live in retained containers
+     */
+    public boolean isAnimated() {
+        return (animationEnabled && !activeAnimations.isEmpty())
+                || effectType == EffectType.GRADIENT || effectType == EffectType.RAINBOW
+                || hasGlow || !customEffects.isEmpty();
+    }
+
+    /**
+     * A fingerprint of everything that affects the rendered output except time
+     */
+    public int paintHash() {
+        int h = text != null ? text.hashCode() : 0;
+        h = 31 * h + System.identityHashCode(font);
+        h = 31 * h + effectType.ordinal();
+        h = 31 * h + startColor;
+        h = 31 * h + endColor;
+        h = 31 * h + overflowMode.ordinal();
+        h = 31 * h + textAlign.ordinal();
+        h = 31 * h + verticalAlign.ordinal();
+        h = 31 * h + maxLines;
+        h = 31 * h + safetyMargin;
+        h = 31 * h + shadowColor;
+        h = 31 * h + glowColor;
+        h = 31 * h + glowQuality.ordinal();
+        h = 31 * h + activeAnimations.hashCode();
+        int flags = (hasShadow ? 1 : 0) | (inheritedShadow ? 2 : 0) | (hasGlow ? 4 : 0) | (isBold ? 8 : 0)
+                | (isItalic ? 16 : 0) | (isUnderlined ? 32 : 0) | (isStrikethrough ? 64 : 0) | (animationEnabled ? 128 : 0);
+        return 31 * h + flags;
+    }
+
     public TextComponent cloneWithNewText(String newText) {
         TextComponent c = new TextComponent(newText, this.font);
         c.overflowMode = this.overflowMode;
@@ -478,6 +569,7 @@ public class TextComponent implements Component {
         c.textAlign = this.textAlign;
         c.verticalAlign = this.verticalAlign;
         c.hasShadow = this.hasShadow;
+        c.inheritedShadow = this.inheritedShadow;
         c.shadowColor = this.shadowColor;
         c.shadowOffsetX = this.shadowOffsetX;
         c.shadowOffsetY = this.shadowOffsetY;
@@ -489,6 +581,7 @@ public class TextComponent implements Component {
         c.glowColor = this.glowColor;
         c.glowRadius = this.glowRadius;
         c.glowIntensity = this.glowIntensity;
+        c.glowQuality = this.glowQuality;
         c.pulseMin = this.pulseMin;
         c.pulseMax = this.pulseMax;
         c.shakeIntensity = this.shakeIntensity;
@@ -503,6 +596,7 @@ public class TextComponent implements Component {
 
     public TextComponent setFontRenderer(FontRenderer font) {
         this.font = font;
+        this.layout = null;
         return this;
     }
 
@@ -0,0 +1,60 @@
+package com.edgn.ui.core.container.components;
+
+import com.edgn.ui.core.renderer.FontRenderer;
+
+/**
+ * The measured layout of a {@link TextComponent} for one text and one box: the lines to draw with
+ * their offsets and widths, and the scale of the SCALE overflow mode.
+ * <p>
+ * Offsets are relative to the origin the lines are drawn from, the top left of the box, divided by
+ * the scale when there is one, so the same layout is reused wherever the box moves.
+ * @author EDGN
+ */
+final class TextLayout {
+    final String source;
+    final int maxWidth;
+    final int maxHeight;
+    final int maxLines;
+    final TextComponent.TextOverflowMode mode;
+    final FontRenderer font;
+    final int fontGeneration;
+
+    final String[] lines;
+    final int[] xs;
+    final int[] ys;
+    final int[] widths;
+    final int[] charOffsets;
+    final float scale;
+
+    TextLayout(String source, int maxWidth, int maxHeight, int maxLines, TextComponent.TextOverflowMode mode,
+               FontRenderer font, int fontGeneration, int count, float scale) {
+        this.source = source;
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        this.maxLines = maxLines;
+        this.mode = mode;
+        this.font = font;
+        this.fontGeneration = fontGeneration;
+        this.lines = new String[count];
+        this.xs = new int[count];
+        this.ys = new int[count];
+        this.widths = new int[count];
+        this.charOffsets = new int[count];
+        this.scale = scale;
+    }
+
+    boolean matches(String text, int maxWidth, int maxHeight, int maxLines, TextComponent.TextOverflowMode mode,
+                    FontRenderer font, int fontGeneration) {
+        return this.maxWidth == maxWidth && this.maxHeight == maxHeight && this.maxLines == maxLines
+                && this.mode == mode && this.font == font && this.fontGeneration == fontGeneration
+                && (source == text || source.equals(text));
+    }
+
+    void set(int index, String line, int x, int y, int width, int charOffset) {
+        lines[index] = line;
+        xs[index] = x;
+        ys[index] = y;
+        widths[index] = width;
+        charOffsets[index] = charOffset;
+    }
+}
@@ -3,6 +3,7 @@ package com.edgn.ui.core.container.containers;
 import com.edgn.ui.core.UIElement;
 import com.edgn.ui.core.container.BaseContainer;
 import com.edgn.ui.core.item.items.ScrollbarItem;
+import com.edgn.ui.core.renderer.batch.RenderPass;
 import com.edgn.ui.core.models.scroll.ContainerScrollbarModel;
 import com.edgn.ui.css.UIStyleSystem;
 import com.edgn.ui.layout.ZIndex;
@@ -17,6 +18,9 @@ public class ScrollContainer extends BaseContainer {
 
     protected int scrollX = 0;
     protected int scrollY = 0;
+    /** The offsets the content was last painted at, a retained parent re-records when they move. */
+    private int paintedScrollX = 0;
+    private int paintedScrollY = 0;
     protected int contentWidth = 0;
     protected int contentHeight = 0;
 
@@ -133,6 +137,11 @@ public class ScrollContainer extends BaseContainer {
         if (scrollY < 0) scrollY = 0;
         if (scrollX > maxX) scrollX = maxX;
         if (scrollY > maxY) scrollY = maxY;
+        if (scrollX != paintedScrollX || scrollY != paintedScrollY) {
+            paintedScrollX = scrollX;
+            paintedScrollY = scrollY;
+            markPaintDirty();
+        }
     }
 
     private int gutterV() { return scrollbarThickness + 2 * scrollbarPadding; }
@@ -242,12 +251,12 @@ public class ScrollContainer extends BaseContainer {
         withScissor(context, vpMinX, vpMinY, vpMaxX, vpMaxY, () -> {
             context.getMatrices().push();
             context.getMatrices().translate(-scrollX, -scrollY, 0.0f);
-            renderChildren(context, false);
+            renderChildren(context, false, vpMinX + scrollX, vpMinY + scrollY, vpMaxX + scrollX, vpMaxY + scrollY);
             context.getMatrices().pop();
         });
 
         withScissor(context, inMinX, inMinY, inMaxX, inMaxY,
-                () -> renderChildren(context, true));
+                () -> renderChildren(context, true, inMinX, inMinY, inMaxX, inMaxY));
     }
 
 
@@ -276,25 +285,39 @@ public class ScrollContainer extends BaseContainer {
         clampScroll();
     }
 
-    private void renderChildren(DrawContext context, boolean includeScrollbars) {
+    /**
+     * Children entirely outside of the visible rect (in content space) are skipped on the CPU and
+     * can't be hit until they scroll back in
+     */
+    private void renderChildren(DrawContext context, boolean includeScrollbars, int minX, int minY, int maxX, int maxY) {
         for (UIElement child : getChildren()) {
             if (!isRenderable(child)) continue;
             boolean isScrollbar = child instanceof ScrollbarItem;
             if (includeScrollbars != isScrollbar) continue;
-            child.renderElement(context);
+            if (isOutside(child, minX, minY, maxX, maxY)) {
+                child.markAsNotRendered();
+                continue;
+            }
+            RenderPass.renderChild(context, child);
         }
     }
 
+    private static boolean isOutside(UIElement child, int minX, int minY, int maxX, int maxY) {
+        int x = child.getCalculatedX();
+        int y = child.getCalculatedY();
+        return x >= maxX || y >= maxY || x + child.getCalculatedWidth() <= minX || y + child.getCalculatedHeight() <= minY;
+    }
+
     private boolean isRenderable(UIElement child) {
         return child != null && child.isVisible();
     }
 
     private void withScissor(DrawContext ctx, int x1, int y1, int x2, int y2, Runnable draw) {
-        ctx.enableScissor(x1, y1, x2, y2);
+        RenderPass.enableScissor(ctx, x1, y1, x2, y2);
         try {
             draw.run();
         } finally {
-            ctx.disableScissor();
+            RenderPass.disableScissor(ctx);
         }
     }
 
@@ -2,8 +2,11 @@ package com.edgn.ui.core.item;
 
 import com.edgn.ui.core.container.components.TextComponent;
 import com.edgn.ui.core.renderer.FontRenderer;
+import com.edgn.ui.core.renderer.FrameClock;
 import com.edgn.ui.core.models.text.DefaultTextInputModel;
 import com.edgn.ui.core.models.text.TextInputModel;
+import com.edgn.ui.css.CSSStyleApplier;
+import com.edgn.ui.css.StateStyles;
 import com.edgn.ui.css.StyleKey;
 import com.edgn.ui.css.UIStyleSystem;
 import com.edgn.ui.css.values.Shadow;
@@ -17,14 +20,16 @@ import org.lwjgl.glfw.GLFW;
 
 @SuppressWarnings({"unused","unchecked","UnusedReturnValue"})
 public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends BaseItem {
-    protected final TextInputModel model = new DefaultTextInputModel();
+    protected final TextInputModel model = createModel();
     protected TextComponent textComponent;
     protected TextComponent placeholderComponent;
     protected int textSafetyMargin = 8;
-    protected long lastBlink = System.currentTimeMillis();
+    protected long lastBlink = FrameClock.now();
     protected boolean caretVisible = true;
     protected int selectionColor = 0x803A86FF;
     protected long lastClickTime = 0;
+    private int textRevision = 0;
+    private final boolean modelReportsChanges;
     protected static final long DOUBLE_CLICK_TIME = 500;
 
     protected static final int PLACEHOLDER_COLOR_DEFAULT = 0x7FFFFFFF;
@@ -32,6 +37,7 @@ public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends Ba
     protected AbstractTextItem(UIStyleSystem styleSystem, int x, int y, int w, int h) {
         super(styleSystem, x, y, w, h);
         addClass(StyleKey.ROUNDED_MD, StyleKey.P_2);
+        modelReportsChanges = model.addChangeListener((offset, removed, inserted) -> textRevision++);
     }
 
     protected AbstractTextItem(UIStyleSystem styleSystem, int x, int y, int w, int h, String placeholder) {
@@ -48,6 +54,14 @@ public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends Ba
     @SuppressWarnings("unchecked")
     protected T self() { return (T) this; }
 
+    /**
+     * The document this item edits, called once while the item is constructed, before the
+     * subclass fields are set
+     */
+    protected TextInputModel createModel() {
+        return new DefaultTextInputModel();
+    }
+
     public T withText(String text) {
         model.setText(text);
         ensureTextComponent();
@@ -94,7 +108,7 @@ public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends Ba
     public int getSelectionStart() { return model.getSelectionStart(); }
     public int getSelectionEnd() { return model.getSelectionEnd(); }
 
-    public T textColor(int color) { ensureTextComponent().color(color); return self(); }
+    public T textColor(int color) { setTextColor(color); ensureTextComponent().color(color); return self(); }
     public T textBold() { ensureTextComponent().bold(); return self(); }
     public T textItalic() { ensureTextComponent().italic(); return self(); }
     public T textShadow() { ensureTextComponent().shadow(); return self(); }
@@ -166,7 +180,7 @@ public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends Ba
                     case "a" -> {
                         model.setSelection(0, model.length());
                         model.setCaret(model.length());
-                        caretVisible = true; lastBlink = System.currentTimeMillis();
+                        caretVisible = true; lastBlink = FrameClock.now();
                         return true;
                     }
                     case "c" -> { copySelection(); return true; }
@@ -204,19 +218,20 @@ public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends Ba
         int ch = getCalculatedHeight();
 
         renderBackground(context, cx, cy, cw, ch);
+        applyInheritedText();
         renderContent(context, cx, cy, cw, ch);
         blinkCaret();
     }
 
     private void renderBackground(DrawContext context, int cx, int cy, int cw, int ch) {
-        int baseBg = getBgColor();
-        if (baseBg == 0) baseBg = ColorUtils.NamedColor.GRAY.toInt();
-        int bg = backgroundForState(baseBg);
-        int radius = getBorderRadius();
-        Shadow shadow = getShadow();
-
-        if (shadow != null)
-            DrawingUtils.drawShadow(context, cx, cy, cw, ch, 2, 2, shadow.color);
+        StateStyles styles = getStateStyles();
+        ItemState visualState = getVisualState();
+        CSSStyleApplier.ComputedStyles computed = styles.get(visualState);
+        int bg = styles.background(visualState);
+        int radius = computed.getBorderRadius();
+        Shadow shadow = computed.getShadow();
+
+        DrawingUtils.drawShadow(context, cx, cy, cw, ch, radius, 2, 2, shadow);
         DrawingUtils.drawRoundedRect(context, cx, cy, cw, ch, radius, bg);
 
         if (isFocused() && hasClass(StyleKey.FOCUS_RING)) {
@@ -226,7 +241,7 @@ public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends Ba
     }
 
     protected void blinkCaret() {
-        long now = System.currentTimeMillis();
+        long now = FrameClock.now();
         if (now - lastBlink >= 500) {
             caretVisible = !caretVisible;
             lastBlink = now;
@@ -246,26 +261,28 @@ public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends Ba
             model.setCaret(newIndex);
         }
         caretVisible = true;
-        lastBlink = System.currentTimeMillis();
+        lastBlink = FrameClock.now();
     }
 
-    @SuppressWarnings("SwitchStatementWithTooFewBranches")
-    private int backgroundForState(int base) {
-        return switch (getState()) {
-            case HOVERED -> brighten(base, hasClass(StyleKey.HOVER_BRIGHTEN) ? 0.20f : 0.08f);
-            default -> base;
-        };
+    @Override
+    protected int getFallbackBackground() {
+        return ColorUtils.NamedColor.GRAY.toInt();
     }
 
-    private int brighten(int color, float ratio) {
-        int a = (color >>> 24) & 0xFF;
-        int r = (color >>> 16) & 0xFF;
-        int g = (color >>> 8) & 0xFF;
-        int b = color & 0xFF;
-        r = Math.min(255, Math.round(r + (255 - r) * ratio));
-        g = Math.min(255, Math.round(g + (255 - g) * ratio));
-        b = Math.min(255, Math.round(b + (255 - b) * ratio));
-        return (a << 24) | (r << 16) | (g << 8) | b;
+    /**
+     * Pushes the resolved text color into the component. A color set on this element always wins
+     * over bold, italic or shadow, only a gradient or a rainbow owns the color of the component;
+     * an inherited color does not override a component with custom styling.
+     */
+    private void applyInheritedText() {
+        if (textComponent == null) return;
+        boolean solid = textComponent.getEffectType() == TextComponent.EffectType.SOLID;
+        if (solid && (hasOwnTextColor() || !textComponent.hasCustomStyling())) textComponent.color(getTextColor());
+        textComponent.inheritShadow(isTextShadow());
+    }
+
+    protected int caretColor() {
+        return (textComponent != null ? textComponent.getColor() : getTextColor()) | 0xFF000000;
     }
 
     protected TextComponent ensureTextComponent() {
@@ -273,7 +290,7 @@ public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends Ba
             textComponent = new TextComponent("", fontRenderer);
             configureTextComponent(textComponent);
             textComponent.setSafetyMargin(textSafetyMargin)
-                    .color(getComputedStyles().getTextColor());
+                    .color(getTextColor());
         }
         return textComponent;
     }
@@ -281,14 +298,14 @@ public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends Ba
     private void copySelection() {
         if (!model.hasSelection()) return;
         MinecraftClient.getInstance().keyboard.setClipboard(
-                model.getText().substring(model.getSelectionStart(), model.getSelectionEnd())
+                model.getText(model.getSelectionStart(), model.getSelectionEnd())
         );
     }
 
     private void cutSelection() {
         if (!model.hasSelection()) return;
         MinecraftClient.getInstance().keyboard.setClipboard(
-                model.getText().substring(model.getSelectionStart(), model.getSelectionEnd())
+                model.getText(model.getSelectionStart(), model.getSelectionEnd())
         );
         model.delete(false); // Utilise la méthode delete qui gère l'historique
         onTextModified();
@@ -303,9 +320,13 @@ public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends Ba
     @Override
     public T setFontRenderer(FontRenderer fr) {
         super.setFontRenderer(fr);
+        return self();
+    }
+
+    @Override
+    protected void onFontRendererChanged(FontRenderer fr) {
         if (textComponent != null) textComponent.setFontRenderer(fr);
         if (placeholderComponent != null) placeholderComponent.setFontRenderer(fr);
-        return self();
     }
 
     @Override public T addClass(StyleKey... keys) { super.addClass(keys); return self(); }
@@ -334,4 +355,14 @@ public abstract class AbstractTextItem<T extends AbstractTextItem<T>> extends Ba
     protected abstract void onCharInserted();
     protected abstract void onPasteComplete();
     protected abstract void onTextModified();
-}
\ No newline at end of file
+
+    @Override
+    protected int paintStamp() {
+        int h = modelReportsChanges ? textRevision : model.getText().hashCode();
+        h = 31 * h + model.getCaret();
+        h = 31 * h + model.getSelectionStart();
+        h = 31 * h + model.getSelectionEnd();
+        h = 31 * h + (textComponent != null ? textComponent.paintHash() : 0);
+        return 31 * h + (placeholderComponent != null ? placeholderComponent.paintHash() : 0);
+    }
+}
@@ -1,16 +1,34 @@
 package com.edgn.ui.core.item;
 
 import com.edgn.ui.core.UIElement;
+import com.edgn.ui.core.IElement;
+import com.edgn.ui.core.animation.Easing;
+import com.edgn.ui.core.animation.Tween;
+import com.edgn.ui.core.renderer.FrameClock;
 import com.edgn.ui.css.CSSStyleApplier;
+import com.edgn.ui.css.StateStyles;
 import com.edgn.ui.css.StyleKey;
+import com.edgn.ui.css.StyleSet;
+import com.edgn.ui.css.StyleToken;
 import com.edgn.ui.css.UIStyleSystem;
 import com.edgn.ui.utils.ColorUtils;
+import com.edgn.ui.utils.DrawingUtils;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @SuppressWarnings("unused")
 public abstract class BaseItem extends UIElement implements IItem {
     protected ItemState state = ItemState.NORMAL;
+    protected ItemState previousState = ItemState.NORMAL;
     protected long lastStateChange = 0;
     protected static final long ANIMATION_DURATION = 150;
+    private Tween stateTransition;
+
+    private final List<StyleSet> stateClasses = new ArrayList<>();
+    private StateStyles stateStyles;
+    private CSSStyleApplier.ComputedStyles stateStylesBase;
+    private boolean stateStylesDirty = true;
 
     public enum ItemState {
         NORMAL, HOVERED, PRESSED, FOCUSED, DISABLED, ACTIVE
@@ -18,6 +36,75 @@ public abstract class BaseItem extends UIElement implements IItem {
 
     protected BaseItem(UIStyleSystem styleSystem, int x, int y, int width, int height) {
         super(styleSystem, x, y, width, height);
+        for (int i = 0; i < ItemState.values().length; i++) {
+            stateClasses.add(new StyleSet());
+        }
+    }
+
+    /**
+     * Adds classes that only apply while the item is in the given state,
+     * the equivalent of a {@code :hover} or {@code :active} rule
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends IElement> T addStateClass(ItemState state, StyleKey... keys) {
+        StyleSet set = stateClasses.get(state.ordinal());
+        for (StyleKey key : keys) set.add(key);
+        stateStylesDirty = true;
+        return (T) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends IElement> T addStateStyle(ItemState state, StyleToken... tokens) {
+        StyleSet set = stateClasses.get(state.ordinal());
+        for (StyleToken token : tokens) set.add(token);
+        stateStylesDirty = true;
+        return (T) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends IElement> T removeStateClass(ItemState state, StyleKey key) {
+        stateClasses.get(state.ordinal()).remove(key);
+        stateStylesDirty = true;
+        return (T) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends IElement> T removeStateStyle(ItemState state, StyleToken.Property property) {
+        stateClasses.get(state.ordinal()).remove(property);
+        stateStylesDirty = true;
+        return (T) this;
+    }
+
+    /**
+     * The background used when neither the classes nor the theme define one
+     */
+    protected int getFallbackBackground() {
+        return ColorUtils.NamedColor.AQUAMARINE.toInt();
+    }
+
+    /**
+     * The precomputed styles of every state, refreshed only when the classes,
+     * the state classes or the theme change
+     */
+    protected StateStyles getStateStyles() {
+        CSSStyleApplier.ComputedStyles base = getComputedStyles();
+        if (stateStylesDirty || stateStyles == null || stateStylesBase != base) {
+            stateStyles = styleSystem.getTheme().resolveStates(classes, stateClasses, getFallbackBackground());
+            stateStylesBase = base;
+            stateStylesDirty = false;
+        }
+        return stateStyles;
+    }
+
+    /**
+     * The state used for visuals, a hovered item keeps its hover look while focused
+     * and a disabled item always looks disabled
+     */
+    protected ItemState getVisualState() {
+        if (!enabled) return ItemState.DISABLED;
+        if (state == ItemState.PRESSED || state == ItemState.ACTIVE) return state;
+        if (hovered) return ItemState.HOVERED;
+        return state;
     }
 
     public ItemState getState() {
@@ -26,14 +113,26 @@ public abstract class BaseItem extends UIElement implements IItem {
 
     protected void setState(ItemState newState) {
         if (state != newState) {
+            previousState = state;
             state = newState;
-            lastStateChange = System.currentTimeMillis();
+            lastStateChange = FrameClock.now();
+            if (stateTransition != null) stateTransition.cancel();
+            stateTransition = styleSystem.getAnimations().tween(0f, 1f, ANIMATION_DURATION, Easing.EASE_OUT_QUAD);
+            markPaintDirty();
             onStateChanged(state);
         }
     }
 
     protected void onStateChanged(ItemState newState) {}
 
+    /**
+     * Items are volatile while their state transition animates
+     */
+    @Override
+    public boolean isPaintVolatile() {
+        return super.isPaintVolatile() || (stateTransition != null && stateTransition.isRunning());
+    }
+
     @Override
     public void onMouseEnter() {
         super.onMouseEnter();
@@ -67,63 +166,71 @@ public abstract class BaseItem extends UIElement implements IItem {
     }
 
     protected float getAnimationProgress() {
-        return Math.min(1.0f, (System.currentTimeMillis() - lastStateChange) / (float) ANIMATION_DURATION);
+        if (stateTransition == null) return 1.0f;
+        return stateTransition.isRunning() ? stateTransition.progress() : 1.0f;
     }
 
     protected int getStateColor() {
-        CSSStyleApplier.ComputedStyles styles = getComputedStyles();
-        int baseColor = styles.getBackgroundColor();
-        if (baseColor == 0) baseColor = ColorUtils.NamedColor.AQUAMARINE.toInt();
-
-        return switch (state) {
-            case HOVERED -> styles.isHasHoverEffect() ? brightenColor(baseColor, 20) : baseColor;
-            case PRESSED -> darkenColor(baseColor);
-            case FOCUSED -> styles.isHasFocusRing() ? ColorUtils.NamedColor.ALICEBLUE.toInt() : baseColor;
-            case DISABLED -> fadeColor(baseColor);
-            case ACTIVE -> brightenColor(baseColor, 30);
-            default -> baseColor;
-        };
+        return stateBackground(getStateStyles(), getVisualState());
     }
 
-    protected int getAnimatedColor(int baseColor) {
+    protected int getAnimatedColor() {
+        StateStyles styles = getStateStyles();
         float progress = getAnimationProgress();
-
-        if (hasHoverEffect() && state == ItemState.HOVERED) {
-            int brightenAmount = (int) (20 * progress);
-            return brightenColor(baseColor, brightenAmount);
-        }
-
-        return getStateColor();
+        int target = stateBackground(styles, getVisualState());
+        if (progress >= 1.0f) return target;
+        return DrawingUtils.lerpColor(stateBackground(styles, previousState), target, progress);
     }
 
-    protected float getAnimatedScale() {
-        if (hasClass(StyleKey.HOVER_SCALE) && state == ItemState.HOVERED) {
-            float progress = getAnimationProgress();
-            float scaleValue = styleSystem.getValue(StyleKey.HOVER_SCALE) / 100.0f;
-            return 1.0f + (scaleValue - 1.0f) * progress;
-        }
-        return 1.0f;
+    /**
+     * @deprecated the base color comes from the classes and the theme, use {@link #getAnimatedColor()}
+     */
+    @Deprecated
+    protected int getAnimatedColor(int baseColor) {
+        return getAnimatedColor();
     }
 
+    /**
+     * @param amount how much to lighten, out of 255
+     * @deprecated state colors come from {@link StateStyles}, use {@link DrawingUtils#lighten}
+     */
+    @Deprecated
     protected int brightenColor(int color, int amount) {
-        int r = Math.min(255, ((color >> 16) & 0xFF) + amount);
-        int g = Math.min(255, ((color >> 8) & 0xFF) + amount);
-        int b = Math.min(255, (color & 0xFF) + amount);
-        int a = (color >> 24) & 0xFF;
-        return (a << 24) | (r << 16) | (g << 8) | b;
+        return DrawingUtils.lighten(color, amount / 255f);
     }
 
+    /**
+     * @deprecated state colors come from {@link StateStyles}, use {@link DrawingUtils#darken}
+     */
+    @Deprecated
     protected int darkenColor(int color) {
-        int r = Math.max(0, ((color >> 16) & 0xFF) - 20);
-        int g = Math.max(0, ((color >> 8) & 0xFF) - 20);
-        int b = Math.max(0, (color & 0xFF) - 20);
-        int a = (color >> 24) & 0xFF;
-        return (a << 24) | (r << 16) | (g << 8) | b;
+        return DrawingUtils.darken(color, 20 / 255f);
     }
 
+    /**
+     * @deprecated state colors come from {@link StateStyles}, use {@link DrawingUtils#multiplyAlpha}
+     */
+    @Deprecated
     protected int fadeColor(int color) {
-        int a = (int) (((color >> 24) & 0xFF) * (float) 0.5);
-        return (a << 24) | (color & 0x00FFFFFF);
+        return DrawingUtils.multiplyAlpha(color, 0.5f);
+    }
+
+    /**
+     * The background of a state, an item without a hover effect class keeps its normal
+     * background while hovered
+     */
+    private int stateBackground(StateStyles styles, ItemState visualState) {
+        if (visualState == ItemState.HOVERED && !hasHoverEffect()) return styles.background(ItemState.NORMAL);
+        return styles.background(visualState);
+    }
+
+    protected float getAnimatedScale() {
+        StateStyles styles = getStateStyles();
+        float target = styles.scale(getVisualState());
+        float progress = getAnimationProgress();
+        if (progress >= 1.0f) return target;
+        float from = styles.scale(previousState);
+        return from + (target - from) * progress;
     }
 
     @Override
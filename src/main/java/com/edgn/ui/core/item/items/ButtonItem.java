@@ -3,6 +3,8 @@ package com.edgn.ui.core.item.items;
 import com.edgn.ui.core.container.components.TextComponent;
 import com.edgn.ui.core.renderer.FontRenderer;
 import com.edgn.ui.core.item.BaseItem;
+import com.edgn.ui.css.CSSStyleApplier;
+import com.edgn.ui.css.StateStyles;
 import com.edgn.ui.css.StyleKey;
 import com.edgn.ui.css.UIStyleSystem;
 import com.edgn.ui.css.values.Shadow;
@@ -119,6 +121,11 @@ public class ButtonItem extends BaseItem {
     public String getText() { return textComponent != null ? textComponent.getText() : ""; }
     public boolean hasText() { return textComponent != null && !textComponent.getText().isEmpty(); }
 
+    @Override
+    protected int getFallbackBackground() {
+        return ColorUtils.NamedColor.BLUEVIOLET.toInt();
+    }
+
     @Override
     public boolean onMouseClick(double mouseX, double mouseY, int button) {
         if (!enabled || !canInteract(mouseX, mouseY)) return false;
@@ -149,65 +156,31 @@ public class ButtonItem extends BaseItem {
         int cw = getCalculatedWidth();
         int ch = getCalculatedHeight();
 
-        int baseBg = getBgColor();
-        if (baseBg == 0) baseBg = ColorUtils.NamedColor.BLUEVIOLET.toInt();
+        StateStyles styles = getStateStyles();
+        ItemState visualState = getVisualState();
+        CSSStyleApplier.ComputedStyles computed = styles.get(visualState);
 
-        int bg = backgroundForState(baseBg);
-        int radius = getBorderRadius();
-        Shadow shadow = getShadow();
+        int bg = styles.background(visualState);
+        int radius = computed.getBorderRadius();
+        Shadow shadow = computed.getShadow();
 
-        float scale = (hasClass(StyleKey.HOVER_SCALE) && isHovered())
-                ? getAnimatedScale()
-                : 1.0f;
+        float scale = getAnimatedScale();
 
         if (scale != 1.0f) {
             int sw = Math.max(0, Math.round(cw * scale));
             int sh = Math.max(0, Math.round(ch * scale));
             int ox = (sw - cw) / 2;
             int oy = (sh - ch) / 2;
-            if (shadow != null) DrawingUtils.drawShadow(context, cx - ox, cy - oy, sw, sh, 3, 3, shadow.color);
+            DrawingUtils.drawShadow(context, cx - ox, cy - oy, sw, sh, radius, 3, 3, shadow);
             DrawingUtils.drawRoundedRect(context, cx - ox, cy - oy, sw, sh, radius, bg);
         } else {
-            if (shadow != null) DrawingUtils.drawShadow(context, cx, cy, cw, ch, 2, 2, shadow.color);
+            DrawingUtils.drawShadow(context, cx, cy, cw, ch, radius, 2, 2, shadow);
             DrawingUtils.drawRoundedRect(context, cx, cy, cw, ch, radius, bg);
         }
 
         renderText(context, cx, cy, cw, ch);
     }
 
-    private int backgroundForState(int base) {
-        if (getState() == ItemState.PRESSED) {
-            return darken(base);
-        }
-        if (this.isHovered()) {
-            float f = hasClass(StyleKey.HOVER_BRIGHTEN) ? 0.20f : 0.08f;
-            return brighten(base, f);
-        }
-        return base;
-    }
-
-    private int brighten(int color, float ratio) {
-        int a = (color >>> 24) & 0xFF;
-        int r = (color >>> 16) & 0xFF;
-        int g = (color >>> 8) & 0xFF;
-        int b = color & 0xFF;
-        r = Math.min(255, Math.round(r + (255 - r) * ratio));
-        g = Math.min(255, Math.round(g + (255 - g) * ratio));
-        b = Math.min(255, Math.round(b + (255 - b) * ratio));
-        return (a << 24) | (r << 16) | (g << 8) | b;
-    }
-
-    private int darken(int color) {
-        int a = (color >>> 24) & 0xFF;
-        int r = (color >>> 16) & 0xFF;
-        int g = (color >>> 8) & 0xFF;
-        int b = color & 0xFF;
-        r = Math.max(0, Math.round(r * (1.0f - 0.16f)));
-        g = Math.max(0, Math.round(g * (1.0f - 0.16f)));
-        b = Math.max(0, Math.round(b * (1.0f - 0.16f)));
-        return (a << 24) | (r << 16) | (g << 8) | b;
-    }
-
     private void renderText(DrawContext context, int cx, int cy, int cw, int ch) {
         if (textComponent == null) return;
 
@@ -217,8 +190,9 @@ public class ButtonItem extends BaseItem {
         int contentH = Math.max(0, ch - getPaddingTop() - getPaddingBottom());
 
         if (!textComponent.hasCustomStyling()) {
-            textComponent.color(getComputedStyles().getTextColor());
+            textComponent.color(getTextColor());
         }
+        textComponent.inheritShadow(isTextShadow());
 
         textComponent.render(context, contentX, contentY, contentW, contentH);
     }
@@ -241,10 +215,14 @@ public class ButtonItem extends BaseItem {
     @Override
     public ButtonItem setFontRenderer(FontRenderer fontRenderer) {
         super.setFontRenderer(fontRenderer);
+        return this;
+    }
+
+    @Override
+    protected void onFontRendererChanged(FontRenderer fontRenderer) {
         if (this.textComponent != null) {
             this.textComponent.setFontRenderer(fontRenderer);
         }
-        return this;
     }
 
     @Override
@@ -261,4 +239,14 @@ public class ButtonItem extends BaseItem {
                 hasText()
         );
     }
+
+    @Override
+    public boolean isPaintVolatile() {
+        return super.isPaintVolatile() || (textComponent != null && textComponent.isAnimated());
+    }
+
+    @Override
+    protected int paintStamp() {
+        return textComponent != null ? textComponent.paintHash() : 0;
+    }
 }
@@ -6,7 +6,6 @@ import com.edgn.ui.core.models.values.BooleanModel;
 import com.edgn.ui.core.renderer.FontRenderer;
 import com.edgn.ui.css.StyleKey;
 import com.edgn.ui.css.UIStyleSystem;
-import com.edgn.ui.css.values.Shadow;
 import com.edgn.ui.layout.LayoutConstraints;
 import com.edgn.ui.layout.ZIndex;
 import com.edgn.ui.utils.ColorUtils;
@@ -192,10 +191,7 @@ public class CheckboxItem extends BaseItem {
     private void renderBox(DrawContext ctx, Layout l) {
         int fill = model.get() ? onColor : offColor;
 
-        Shadow shadow = getShadow();
-        if (shadow != null) {
-            DrawingUtils.drawShadow(ctx, l.bx, l.by, l.s, l.s, 2, 2, shadow.color);
-        }
+        DrawingUtils.drawShadow(ctx, l.bx, l.by, l.s, l.s, boxRadius, 2, 2, getShadow());
         DrawingUtils.drawRoundedRect(ctx, l.bx, l.by, l.s, l.s, boxRadius, fill);
         DrawingUtils.drawRoundedRectBorder(ctx, l.bx, l.by, l.s, l.s, boxRadius, borderColor, 1);
     }
@@ -214,8 +210,9 @@ public class CheckboxItem extends BaseItem {
         if (label == null) return;
 
         if (!label.hasCustomStyling()) {
-            label.color(labelColor != null ? labelColor : getComputedStyles().getTextColor());
+            label.color(labelColor != null ? labelColor : getTextColor());
         }
+        label.inheritShadow(isTextShadow());
         switch (labelPosition) {
             case RIGHT:
                 label.align(TextComponent.TextAlign.LEFT)
@@ -374,10 +371,14 @@ public class CheckboxItem extends BaseItem {
     @Override
     public CheckboxItem setFontRenderer(FontRenderer fontRenderer) {
         super.setFontRenderer(fontRenderer);
-        if (this.label != null) this.label.setFontRenderer(fontRenderer);
         return this;
     }
 
+    @Override
+    protected void onFontRendererChanged(FontRenderer fontRenderer) {
+        if (this.label != null) this.label.setFontRenderer(fontRenderer);
+    }
+
     private static final class Layout {
         int bx;
         int by;
@@ -402,4 +403,14 @@ public class CheckboxItem extends BaseItem {
                 getCalculatedHeight()
         );
     }
+
+    @Override
+    public boolean isPaintVolatile() {
+        return super.isPaintVolatile() || (label != null && label.isAnimated());
+    }
+
+    @Override
+    protected int paintStamp() {
+        return 31 * (label != null ? label.paintHash() : 0) + (model.get() ? 1 : 0);
+    }
 }
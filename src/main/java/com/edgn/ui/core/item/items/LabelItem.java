@@ -46,6 +46,7 @@ public class LabelItem extends BaseItem {
         if (!textComponent.hasCustomStyling()) {
             textComponent.color(getTextColor());
         }
+        textComponent.inheritShadow(isTextShadow());
 
         textComponent.render(context, cx + getPaddingLeft(), cy + getPaddingTop(),
                 cw - getPaddingLeft() - getPaddingRight(),
@@ -89,10 +90,14 @@ public class LabelItem extends BaseItem {
     @Override
     public LabelItem setFontRenderer(FontRenderer fontRenderer) {
         super.setFontRenderer(fontRenderer);
+        return this;
+    }
+
+    @Override
+    protected void onFontRendererChanged(FontRenderer fontRenderer) {
         if (this.textComponent != null) {
             this.textComponent.setFontRenderer(fontRenderer);
         }
-        return this;
     }
 
     @Override
@@ -107,4 +112,14 @@ public class LabelItem extends BaseItem {
                 textComponent != null && textComponent.hasCustomStyling()
         );
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean isPaintVolatile() {
+        return super.isPaintVolatile() || (textComponent != null && textComponent.isAnimated());
+    }
+
+    @Override
+    protected int paintStamp() {
+        return textComponent != null ? textComponent.paintHash() : 0;
+    }
+}
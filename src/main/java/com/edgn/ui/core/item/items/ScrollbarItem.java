@@ -3,6 +3,7 @@ package com.edgn.ui.core.item.items;
 import com.edgn.ui.core.item.BaseItem;
 import com.edgn.ui.core.models.scroll.ScrollbarModel;
 import com.edgn.ui.css.UIStyleSystem;
+import com.edgn.ui.utils.DrawingUtils;
 import net.minecraft.client.gui.DrawContext;
 
 @SuppressWarnings("unused")
@@ -79,7 +80,7 @@ public class ScrollbarItem extends BaseItem {
         int trackY1 = y;
         int trackX2 = x + w;
         int trackY2 = y + h;
-        context.fill(trackX1, trackY1, trackX2, trackY2, trackColor);
+        DrawingUtils.fillRect(context, trackX1, trackY1, trackX2 - trackX1, trackY2 - trackY1, trackColor);
 
         double frac = Math.min(1.0, (double) view / (double) content);
         int span = orientation == Orientation.VERTICAL ? h : w;
@@ -102,7 +103,7 @@ public class ScrollbarItem extends BaseItem {
         }
 
         int color = isHovered() ? thumbHoverColor : thumbColor;
-        context.fill(thumbX1, thumbY1, thumbX2, thumbY2, color);
+        DrawingUtils.fillRect(context, thumbX1, thumbY1, thumbX2 - thumbX1, thumbY2 - thumbY1, color);
     }
 
     @Override
@@ -184,4 +185,14 @@ public class ScrollbarItem extends BaseItem {
                 orientation == Orientation.VERTICAL ? model.getScrollY() : model.getScrollX()
         );
     }
+
+    @Override
+    protected int paintStamp() {
+        int h = model.getScrollX();
+        h = 31 * h + model.getScrollY();
+        h = 31 * h + model.getContentWidth();
+        h = 31 * h + model.getContentHeight();
+        h = 31 * h + model.getViewportWidth();
+        return 31 * h + model.getViewportHeight();
+    }
 }
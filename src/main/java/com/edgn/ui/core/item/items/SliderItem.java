@@ -203,4 +203,9 @@ public class SliderItem<N extends Number> extends BaseItem {
                 isEnabled()
         );
     }
+
+    @Override
+    protected int paintStamp() {
+        return model.get().hashCode();
+    }
 }
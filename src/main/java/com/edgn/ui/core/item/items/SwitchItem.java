@@ -4,7 +4,6 @@ import com.edgn.ui.core.item.BaseItem;
 import com.edgn.ui.core.models.values.BooleanModel;
 import com.edgn.ui.css.StyleKey;
 import com.edgn.ui.css.UIStyleSystem;
-import com.edgn.ui.css.values.Shadow;
 import com.edgn.ui.layout.LayoutConstraints;
 import com.edgn.ui.layout.ZIndex;
 import com.edgn.ui.core.renderer.FontRenderer;
@@ -78,10 +77,7 @@ public class SwitchItem extends BaseItem {
 
         int trackColor = model.get() ? onTrack : offTrack;
 
-        Shadow shadow = getShadow();
-        if (shadow != null) {
-            DrawingUtils.drawShadow(context, x, y, w, h, 2, 2, shadow.color);
-        }
+        DrawingUtils.drawShadow(context, x, y, w, h, Math.max(trackRadius, h / 2), 2, 2, getShadow());
         DrawingUtils.drawRoundedRect(context, x, y, w, h, Math.max(trackRadius, h / 2), trackColor);
 
         if (isHovered()) {
@@ -150,4 +146,9 @@ public class SwitchItem extends BaseItem {
                 getCalculatedHeight()
         );
     }
+
+    @Override
+    protected int paintStamp() {
+        return model.get() ? 1 : 0;
+    }
 }
@@ -2,16 +2,15 @@ package com.edgn.ui.core.item.items;
 
 import com.edgn.ui.core.container.components.TextComponent;
 import com.edgn.ui.core.item.AbstractTextItem;
+import com.edgn.ui.core.models.text.PieceTableTextModel;
+import com.edgn.ui.core.models.text.TextInputModel;
+import com.edgn.ui.core.renderer.font.TextMetrics;
 import com.edgn.ui.css.StyleKey;
 import com.edgn.ui.css.UIStyleSystem;
 import com.edgn.ui.utils.DrawingUtils;
 import net.minecraft.client.gui.DrawContext;
 import org.lwjgl.glfw.GLFW;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 public class TextAreaItem extends AbstractTextItem<TextAreaItem> {
 
@@ -19,6 +18,8 @@ public class TextAreaItem extends AbstractTextItem<TextAreaItem> {
     private int scrollY = 0;
     private boolean wrap = false;
     private int preferredCaretX = -1;
+    private final VisualLines visualLines = new VisualLines(model);
+    private final Viewport viewport = new Viewport();
 
     private static final class Metrics {
         int x;
@@ -28,6 +29,19 @@ public class TextAreaItem extends AbstractTextItem<TextAreaItem> {
         int lh;
     }
 
+    /**
+     * The text and the metrics of the visible lines, kept while the lines and the scroll don't
+     * change so that drawing a still area allocates nothing
+     */
+    private static final class Viewport {
+        int revision = -1;
+        int first = -1;
+        int count;
+        String[] texts = new String[0];
+        int[] starts = new int[0];
+        TextMetrics[] metrics = new TextMetrics[0];
+    }
+
     public TextAreaItem(UIStyleSystem styleSystem, int x, int y, int w, int h) {
         super(styleSystem, x, y, w, h);
         addClass(StyleKey.ROUNDED_MD, StyleKey.P_2);
@@ -41,6 +55,10 @@ public class TextAreaItem extends AbstractTextItem<TextAreaItem> {
     public TextAreaItem setWrap(boolean enabled) { this.wrap = enabled; return this; }
     public TextAreaItem setLineSpacing(int px) { this.lineSpacing = Math.max(0, px); return this; }
 
+    @Override
+    protected TextInputModel createModel() {
+        return new PieceTableTextModel();
+    }
 
     @Override
     protected TextComponent configureTextComponent(TextComponent comp) {
@@ -63,7 +81,7 @@ public class TextAreaItem extends AbstractTextItem<TextAreaItem> {
         Metrics m = computeMetrics(cx, cy, cw, ch);
         ensurePlaceholderStyled();
 
-        List<String> lines = computeLines(model.getText(), m.w);
+        VisualLines lines = visualLines(m.w);
         int contentHeight = Math.max(m.lh, lines.size() * m.lh);
         scrollY = Math.clamp(scrollY, 0, Math.max(0, contentHeight - m.h));
 
@@ -76,7 +94,8 @@ public class TextAreaItem extends AbstractTextItem<TextAreaItem> {
             if (model.length() == 0) {
                 renderEmptyState(ctx, m);
             } else {
-                renderLinesBlock(ctx, lines, firstLine, yOffset, m);
+                int visible = Math.min(lines.size() - firstLine, (m.h - yOffset) / Math.max(1, m.lh) + 1);
+                renderLinesBlock(ctx, viewport(lines, firstLine, visible), yOffset, m);
             }
         } finally {
             DrawingUtils.popClip(ctx);
@@ -181,105 +200,89 @@ public class TextAreaItem extends AbstractTextItem<TextAreaItem> {
         }
         if (!caretVisible) return;
 
-        int caretColor = (textComponent != null && textComponent.hasCustomStyling())
-                ? (textComponent.getColor() | 0xFF000000)
-                : (getComputedStyles().getTextColor() | 0xFF000000);
+        int caretColor = caretColor();
 
         DrawingUtils.drawVLine(ctx, m.x, m.y - 1, m.y + fontRenderer.lineHeight() + 1, caretColor);
     }
 
-    private void renderLinesBlock(DrawContext ctx, List<String> lines, int firstLine, int yOffset, Metrics m) {
-        int globalIndex = indexAtLineStart(lines, firstLine);
-
-        for (int i = firstLine; i < lines.size(); i++) {
-            int lineY = m.y + yOffset + (i - firstLine) * m.lh;
-            if (lineY > m.y + m.h) break;
+    private void renderLinesBlock(DrawContext ctx, Viewport view, int yOffset, Metrics m) {
+        int caretLine = isFocused() && caretVisible ? visualLines.lineOfOffset(model.getCaret()) - view.first : -1;
+        boolean selection = model.hasSelection();
+        int lh = fontRenderer.lineHeight();
 
-            String line = lines.get(i);
+        for (int i = 0; i < view.count; i++) {
+            int lineY = m.y + yOffset + i * m.lh;
+            TextMetrics metrics = view.metrics[i];
 
-            if (model.hasSelection()) {
-                renderSelectionLine(ctx, m.x, lineY, line, globalIndex);
+            if (selection) {
+                renderSelectionLine(ctx, m.x, lineY, lh, metrics, view.starts[i]);
             }
 
-            textComponent.cloneWithNewText(line)
-                    .verticalAlign(TextComponent.VerticalAlign.TOP)
-                    .render(ctx, m.x, lineY, m.w, fontRenderer.lineHeight());
+            textComponent.renderLine(ctx, view.texts[i], m.x, lineY, metrics.width());
 
-            if (isFocused() && caretVisible) {
-                renderCaretIfOnLine(ctx, m.x, lineY, line, globalIndex);
+            if (i == caretLine) {
+                int cx = m.x + metrics.x(model.getCaret() - view.starts[i]);
+                DrawingUtils.drawVLine(ctx, cx, lineY - 1, lineY + lh + 1, caretColor());
             }
-
-            globalIndex += line.length() + 1;
         }
     }
 
-    private void renderSelectionLine(DrawContext ctx, int x, int lineY, String line, int globalStart) {
-        int lh = fontRenderer.lineHeight();
-        int s = model.getSelectionStart();
-        int e = model.getSelectionEnd();
-        int lineEnd = globalStart + line.length();
-        int rs = Math.clamp(s, globalStart, lineEnd);
-        int re = Math.clamp(e, globalStart, lineEnd);
+    private void renderSelectionLine(DrawContext ctx, int x, int lineY, int lh, TextMetrics metrics, int globalStart) {
+        int lineEnd = globalStart + metrics.length();
+        int rs = Math.clamp(model.getSelectionStart(), globalStart, lineEnd);
+        int re = Math.clamp(model.getSelectionEnd(), globalStart, lineEnd);
         if (re <= rs) return;
 
-        int sx = x + fontRenderer.width(line.substring(0, rs - globalStart));
-        int ex = x + fontRenderer.width(line.substring(0, re - globalStart));
+        int sx = x + metrics.x(rs - globalStart);
+        int ex = x + metrics.x(re - globalStart);
         DrawingUtils.fillRect(ctx, sx, lineY, Math.max(0, ex - sx), lh, selectionColor);
     }
 
-    private void renderCaretIfOnLine(DrawContext ctx, int x, int lineY, String line, int globalStart) {
-        int lh = fontRenderer.lineHeight();
-        int c = model.getCaret();
-        int lineEnd = globalStart + line.length();
-        if (c < globalStart || c > lineEnd) return;
-
-        int col = c - globalStart;
-        int cx = x + fontRenderer.width(line.substring(0, Math.clamp(col, 0, line.length())));
-        int caretColor = (textComponent != null && textComponent.hasCustomStyling())
-                ? (textComponent.getColor() | 0xFF000000)
-                : (getComputedStyles().getTextColor() | 0xFF000000);
-
-        DrawingUtils.drawVLine(ctx, cx, lineY - 1, lineY + lh + 1, caretColor);
+    /**
+     * The visible lines, read from the model and measured again only after an edit, a rewrap or a
+     * scroll to other lines
+     */
+    private Viewport viewport(VisualLines lines, int first, int count) {
+        Viewport view = viewport;
+        count = Math.max(0, count);
+        if (view.revision == lines.revision() && view.first == first && view.count == count) return view;
+        if (view.texts.length < count) {
+            view.texts = new String[count];
+            view.starts = new int[count];
+            view.metrics = new TextMetrics[count];
+        }
+        for (int i = 0; i < count; i++) {
+            int start = lines.startOf(first + i);
+            view.starts[i] = start;
+            view.texts[i] = model.getText(start, lines.endOf(first + i));
+            view.metrics[i] = TextMetrics.of(fontRenderer, view.texts[i]);
+        }
+        view.revision = lines.revision();
+        view.first = first;
+        view.count = count;
+        return view;
     }
 
-    private List<String> computeLines(String text, int maxWidth) {
-        if (!wrap) {
-            List<String> out = new ArrayList<>();
-            String[] raw = text.split("\n", -1);
-            Collections.addAll(out, raw);
-            return out;
-        }
-        List<String> out = new ArrayList<>();
-        String[] paras = text.split("\n", -1);
-        for (String p : paras) out.addAll(fontRenderer.wrap(p, Math.max(1, maxWidth)));
-        return out;
+    private VisualLines visualLines(int contentWidth) {
+        visualLines.sync(fontRenderer, wrap ? Math.max(1, contentWidth) : Integer.MAX_VALUE);
+        return visualLines;
     }
 
-    private int indexAtLineStart(List<String> lines, int line) {
-        int idx = 0;
-        for (int i = 0; i < Math.min(line, lines.size()); i++) idx += lines.get(i).length() + 1;
-        return idx;
+    private int contentWidth() {
+        return Math.max(0, getCalculatedWidth() - getPaddingLeft() - getPaddingRight());
     }
 
     private int lineStart(int caret) {
-        String t = model.getText();
-        int i = Math.clamp(caret, 0, t.length());
-        while (i > 0 && t.charAt(i - 1) != '\n') i--;
-        return i;
+        return model.getLineStart(model.getLineOfOffset(caret));
     }
 
     private int lineEnd(int caret) {
-        String t = model.getText();
-        int i = Math.clamp(caret, 0, t.length());
-        int n = t.length();
-        while (i < n && t.charAt(i) != '\n') i++;
-        return i;
+        return model.getLineEnd(model.getLineOfOffset(caret));
     }
 
     private int caretPixelXInLine(int caret) {
         int ls = lineStart(caret);
-        String line = model.getText().substring(ls, Math.max(ls, caret));
-        return fontRenderer.width(line);
+        return fontRenderer.width(model.getText(ls, Math.max(ls, caret)));
     }
 
     private void moveLeftRight(int dir, boolean shift) {
@@ -300,7 +303,7 @@ public class TextAreaItem extends AbstractTextItem<TextAreaItem> {
             } else {
                 int pls = lineStart(ls - 1);
                 int ple = ls - 1;
-                String prev = model.getText().substring(pls, ple);
+                String prev = model.getText(pls, ple);
                 targetPos = pls + columnAtPixel(prev, x);
             }
         } else {
@@ -310,7 +313,7 @@ public class TextAreaItem extends AbstractTextItem<TextAreaItem> {
             } else {
                 int nls = le + 1;
                 int nle = lineEnd(le + 1);
-                String next = model.getText().substring(nls, nle);
+                String next = model.getText(nls, nle);
                 targetPos = nls + columnAtPixel(next, x);
             }
         }
@@ -320,12 +323,7 @@ public class TextAreaItem extends AbstractTextItem<TextAreaItem> {
     }
 
     private int columnAtPixel(String line, int px) {
-        int col = 0;
-        for (int i = 0; i <= line.length(); i++) {
-            int w = fontRenderer.width(line.substring(0, i));
-            if (w <= px) col = i; else break;
-        }
-        return col;
+        return TextMetrics.of(fontRenderer, line).columnAt(px);
     }
 
     private void ensureCaretVisible() {
@@ -339,35 +337,30 @@ public class TextAreaItem extends AbstractTextItem<TextAreaItem> {
     }
 
     private int caretLineIndex() {
-        String t = model.getText();
-        int idx = model.getCaret();
-        int line = 0;
-        for (int i = 0; i < Math.min(idx, t.length()); i++) if (t.charAt(i) == '\n') line++;
-        return line;
+        return visualLines(contentWidth()).lineOfOffset(model.getCaret());
     }
 
     private void moveCaretToMouse(double mouseX, double mouseY) {
         int x = getCalculatedX() + getPaddingLeft();
         int y = getCalculatedY() + getPaddingTop();
-        int w = Math.max(1, getCalculatedWidth() - getPaddingLeft() - getPaddingRight());
-        int h = Math.max(1, getCalculatedHeight() - getPaddingTop() - getPaddingBottom());
-
-        List<String> lines = computeLines(model.getText(), w);
+        VisualLines lines = visualLines(contentWidth());
         int lh = fontRenderer.lineHeight() + lineSpacing;
 
         int my = (int) Math.max(0, mouseY - y) + scrollY;
         int maxIndex = Math.max(0, lines.size() - 1);
         int lineIdx  = Math.clamp(my / lh, 0, maxIndex);
 
-        String line = lines.isEmpty() ? "" : lines.get(lineIdx);
-        int idxInLine = 0;
+        int lineStart = lines.startOf(lineIdx);
+        int lineEnd = lines.endOf(lineIdx);
+        String line = model.getText(lineStart, lineEnd);
         int relX = (int) Math.max(0, mouseX - x);
-        for (int i = 0; i <= line.length(); i++) {
-            int width = fontRenderer.width(line.substring(0, i));
-            if (width <= relX) idxInLine = i; else break;
+        int idxInLine = columnAtPixel(line, relX);
+        if (lineEnd > lineStart && idxInLine == line.length() && lineIdx + 1 < lines.size()
+                && lines.startOf(lineIdx + 1) == lineEnd) {
+            idxInLine--;
         }
 
-        int global = indexAtLineStart(lines, lineIdx) + idxInLine;
+        int global = lineStart + idxInLine;
         model.setCaret(Math.clamp(global, 0, model.length()));
         ensureCaretVisible();
     }
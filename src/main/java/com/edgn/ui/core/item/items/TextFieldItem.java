@@ -2,6 +2,7 @@ package com.edgn.ui.core.item.items;
 
 import com.edgn.ui.core.container.components.TextComponent;
 import com.edgn.ui.core.item.AbstractTextItem;
+import com.edgn.ui.core.renderer.font.TextMetrics;
 import com.edgn.ui.css.UIStyleSystem;
 import com.edgn.ui.utils.DrawingUtils;
 import net.minecraft.client.gui.DrawContext;
@@ -9,6 +10,7 @@ import org.lwjgl.glfw.GLFW;
 
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 public class TextFieldItem extends AbstractTextItem<TextFieldItem> {
+    private TextMetrics displayMetrics;
 
     public TextFieldItem(UIStyleSystem styleSystem, int x, int y, int w, int h) {
         super(styleSystem, x, y, w, h);
@@ -34,7 +36,7 @@ public class TextFieldItem extends AbstractTextItem<TextFieldItem> {
     }
 
     public TextFieldItem textColorIfUnset(int color) {
-        if (!ensureTextComponent().hasCustomStyling()) textComponent.color(color);
+        if (!ensureTextComponent().hasCustomStyling()) setTextColor(color);
         return this;
     }
 
@@ -153,16 +155,25 @@ public class TextFieldItem extends AbstractTextItem<TextFieldItem> {
     private void renderCaret(DrawContext ctx, int x, int y, int h, String display) {
         int baseY = y + (h - fontRenderer.lineHeight()) / 2;
         int cx = textXFor(display, x, model.getCaret());
-        int caretColor = (textComponent != null && textComponent.hasCustomStyling())
-                ? (textComponent.getColor() | 0xFF000000)
-                : (getComputedStyles().getTextColor() | 0xFF000000);
+        int caretColor = caretColor();
 
         DrawingUtils.drawVLine(ctx, cx, baseY - 1, baseY + fontRenderer.lineHeight() + 1, caretColor);
     }
 
     private int textXFor(String display, int x, int index) {
-        String sub = display.substring(0, Math.clamp(index, 0, display.length()));
-        return x + fontRenderer.width(sub);
+        return x + metrics(display).x(index);
+    }
+
+    /**
+     * The column offsets of the displayed text, measured again only when it or the font changed
+     */
+    private TextMetrics metrics(String display) {
+        TextMetrics m = displayMetrics;
+        if (m == null || m.getFont() != fontRenderer || !m.text().equals(display)) {
+            m = TextMetrics.of(fontRenderer, display);
+            displayMetrics = m;
+        }
+        return m;
     }
 
     private String currentDisplay() {
@@ -178,13 +189,7 @@ public class TextFieldItem extends AbstractTextItem<TextFieldItem> {
         int x = getCalculatedX() + getPaddingLeft();
         String display = currentDisplay();
         int rel = (int) Math.max(0, mouseX - x);
-        int best = 0;
-        for (int i = 0; i <= display.length(); i++) {
-            int width = fontRenderer.width(display.substring(0, i));
-            if (width <= rel) best = i;
-            else break;
-        }
-        model.setCaret(best);
+        model.setCaret(metrics(display).columnAt(rel));
     }
 
     @Override
@@ -0,0 +1,271 @@
+package com.edgn.ui.core.item.items;
+
+import com.edgn.ui.core.models.text.TextInputModel;
+import com.edgn.ui.core.renderer.FontRenderer;
+import com.edgn.ui.core.renderer.font.CachingFontRenderer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The visual lines of a {@link TextAreaItem}: every paragraph of the model, a run of text between
+ * two {@code '\n'}, wrapped to the width of the area.
+ * <p>
+ * The wrap of a paragraph is kept until an edit touches it, the model reports its edits and only
+ * those paragraphs are wrapped again on the next {@link #sync}, all of them when the width or the
+ * font changes. A Fenwick tree over the visual line counts of the paragraphs maps a visual line to
+ * its paragraph and back in O(log n), the char offsets come from the line index of the model, so
+ * drawing a window of lines or placing the caret never walks the whole text.
+ * <p>
+ * Without wrapping, pass {@link Integer#MAX_VALUE} as the width, every paragraph is one line and is
+ * not measured.
+ * <p>
+ * A model that doesn't report its changes is compared with the text of the last {@link #sync} and
+ * wrapped again as a whole when it differs.
+ * @author EDGN
+ */
+final class VisualLines implements TextInputModel.ChangeListener {
+    private static final int[] SINGLE = {0};
+
+    private final TextInputModel model;
+    private final boolean listening;
+    private String lastText;
+    /** Per paragraph, the columns its visual lines start at, {@code null} while it has to be wrapped. */
+    private final List<int[]> starts = new ArrayList<>();
+    /** Per paragraph, its length without the {@code '\n'}. */
+    private int[] lengths = new int[16];
+    private int[] tree = new int[17];
+    private boolean treeValid = false;
+    private int dirtyFrom = Integer.MAX_VALUE;
+    private int dirtyTo = -1;
+
+    private FontRenderer font;
+    private int fontGeneration;
+    private int maxWidth = -1;
+    private int revision = 0;
+
+    VisualLines(TextInputModel model) {
+        this.model = model;
+        this.listening = model.addChangeListener(this);
+        rebuild();
+    }
+
+    /**
+     * Wraps what the edits since the last call left dirty, everything when the width or the font
+     * is not the one of the last call
+     */
+    void sync(FontRenderer font, int maxWidth) {
+        if (!listening && !model.getText().equals(lastText)) {
+            revision++;
+            rebuild();
+        }
+        int generation = CachingFontRenderer.generation();
+        if (font != this.font || maxWidth != this.maxWidth || generation != fontGeneration) {
+            this.font = font;
+            this.maxWidth = maxWidth;
+            this.fontGeneration = generation;
+            revision++;
+            markDirty(0, starts.size() - 1);
+        }
+        if (dirtyTo >= dirtyFrom) {
+            int to = Math.min(dirtyTo, starts.size() - 1);
+            for (int p = dirtyFrom; p <= to; p++) {
+                if (starts.get(p) != null) continue;
+                int[] wrapped = wrap(p);
+                starts.set(p, wrapped);
+                if (treeValid) add(p, wrapped.length - 1);
+            }
+            dirtyFrom = Integer.MAX_VALUE;
+            dirtyTo = -1;
+        }
+        if (!treeValid) buildTree();
+    }
+
+    /**
+     * @return a counter bumped whenever the lines or their text may have changed
+     */
+    int revision() {
+        return revision;
+    }
+
+    /**
+     * @return the number of visual lines
+     */
+    int size() {
+        return prefix(starts.size());
+    }
+
+    /**
+     * @return the paragraph a visual line belongs to, the line is clamped
+     */
+    int paragraphOf(int line) {
+        int n = starts.size();
+        int p = 0;
+        int remaining = Math.clamp(line, 0, size() - 1);
+        for (int step = Integer.highestOneBit(n); step > 0; step >>= 1) {
+            int next = p + step;
+            if (next <= n && tree[next] <= remaining) {
+                p = next;
+                remaining -= tree[next];
+            }
+        }
+        return Math.min(p, n - 1);
+    }
+
+    /**
+     * @return the first visual line of a paragraph
+     */
+    int firstLineOf(int paragraph) {
+        return prefix(Math.clamp(paragraph, 0, starts.size()));
+    }
+
+    /**
+     * @return the offset in the model of the first char of a visual line
+     */
+    int startOf(int line) {
+        int p = paragraphOf(line);
+        int[] s = starts.get(p);
+        int k = Math.clamp(line - firstLineOf(p), 0, s.length - 1);
+        return model.getLineStart(p) + s[k];
+    }
+
+    /**
+     * @return the offset in the model right after the last char of a visual line, a wrapped line
+     * keeps the spaces it was broken at
+     */
+    int endOf(int line) {
+        int p = paragraphOf(line);
+        int[] s = starts.get(p);
+        int k = Math.clamp(line - firstLineOf(p), 0, s.length - 1);
+        int paragraphStart = model.getLineStart(p);
+        return k + 1 < s.length ? paragraphStart + s[k + 1] : paragraphStart + lengths[p];
+    }
+
+    /**
+     * @return the visual line an offset is drawn on, an offset where a paragraph wraps is on the
+     * line that starts there
+     */
+    int lineOfOffset(int offset) {
+        int p = Math.min(model.getLineOfOffset(offset), starts.size() - 1);
+        int column = offset - model.getLineStart(p);
+        int[] s = starts.get(p);
+        int k = Arrays.binarySearch(s, column);
+        if (k < 0) k = -k - 2;
+        return firstLineOf(p) + Math.clamp(k, 0, s.length - 1);
+    }
+
+    @Override
+    public void textChanged(int offset, int removed, int inserted) {
+        revision++;
+        int first = model.getLineOfOffset(offset);
+        int position = model.getLineStart(first);
+        int last = first;
+        int removedEnd = offset + removed;
+        while (last + 1 < starts.size() && position + lengths[last] < removedEnd) {
+            position += lengths[last] + 1;
+            last++;
+        }
+        int newLast = model.getLineOfOffset(offset + inserted);
+        int delta = (newLast - first) - (last - first);
+
+        if (delta != 0) {
+            int oldCount = starts.size();
+            int newCount = oldCount + delta;
+            if (delta > 0) {
+                for (int i = 0; i < delta; i++) starts.add(last + 1, null);
+            } else {
+                starts.subList(last + 1 + delta, last + 1).clear();
+            }
+            int[] shifted = new int[Math.max(16, newCount)];
+            System.arraycopy(lengths, 0, shifted, 0, last + 1 + Math.min(0, delta));
+            System.arraycopy(lengths, last + 1, shifted, last + 1 + delta, oldCount - last - 1);
+            lengths = shifted;
+            treeValid = false;
+            if (dirtyTo > last) dirtyTo += delta;
+            if (dirtyFrom > last && dirtyFrom != Integer.MAX_VALUE) dirtyFrom += delta;
+        }
+
+        for (int p = first; p <= newLast; p++) lengths[p] = model.getLineEnd(p) - model.getLineStart(p);
+        markDirty(first, newLast);
+    }
+
+    private void rebuild() {
+        String text = model.getText();
+        if (!listening) lastText = text;
+        int count = model.getLineCount();
+        starts.clear();
+        lengths = new int[Math.max(16, count)];
+        int from = 0;
+        for (int p = 0; p < count; p++) {
+            int end = text.indexOf('\n', from);
+            if (end < 0) end = text.length();
+            starts.add(null);
+            lengths[p] = end - from;
+            from = end + 1;
+        }
+        treeValid = false;
+        markDirty(0, count - 1);
+    }
+
+    private void markDirty(int from, int to) {
+        if (to < from) return;
+        for (int p = from; p <= to; p++) {
+            int[] old = starts.get(p);
+            if (old == null) continue;
+            if (treeValid) add(p, -(old.length - 1));
+            starts.set(p, null);
+        }
+        dirtyFrom = Math.min(dirtyFrom, from);
+        dirtyTo = Math.max(dirtyTo, to);
+    }
+
+    private int[] wrap(int paragraph) {
+        int length = lengths[paragraph];
+        if (maxWidth == Integer.MAX_VALUE || length == 0 || font == null) return SINGLE;
+        String text = model.getLine(paragraph);
+        if (font.width(text) <= maxWidth) return SINGLE;
+
+        List<String> parts = font.wrap(text, Math.max(1, maxWidth));
+        if (parts.size() <= 1) return SINGLE;
+        int[] out = new int[parts.size()];
+        int count = 0;
+        int cursor = 0;
+        for (String part : parts) {
+            int at = text.indexOf(part, cursor);
+            if (at < 0) at = cursor;
+            if (count == 0) at = 0;
+            if (count > 0 && at <= out[count - 1]) continue;
+            out[count++] = at;
+            cursor = at + part.length();
+        }
+        return count == out.length ? out : Arrays.copyOf(out, count);
+    }
+
+    // --- Fenwick tree over the visual line count of every paragraph ---
+
+    private void buildTree() {
+        int n = starts.size();
+        if (tree.length < n + 1) tree = new int[Math.max(n + 1, tree.length * 2)];
+        Arrays.fill(tree, 0, n + 1, 0);
+        for (int i = 1; i <= n; i++) {
+            int[] s = starts.get(i - 1);
+            tree[i] += s == null ? 1 : s.length;
+            int parent = i + (i & -i);
+            if (parent <= n) tree[parent] += tree[i];
+        }
+        treeValid = true;
+    }
+
+    private void add(int paragraph, int delta) {
+        for (int i = paragraph + 1; i < tree.length && i <= starts.size(); i += i & -i) tree[i] += delta;
+    }
+
+    /** The visual lines of the first {@code count} paragraphs. */
+    private int prefix(int count) {
+        if (!treeValid) buildTree();
+        int sum = 0;
+        for (int i = count; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+}
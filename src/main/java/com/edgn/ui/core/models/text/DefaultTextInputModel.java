@@ -1,7 +1,7 @@
 package com.edgn.ui.core.models.text;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.List;
 
 public class DefaultTextInputModel implements TextInputModel {
     private final StringBuilder value = new StringBuilder();
@@ -10,11 +10,8 @@ public class DefaultTextInputModel implements TextInputModel {
     private int maxLength = Integer.MAX_VALUE;
     private boolean password = false;
     private char passwordChar = '•';
-    private record HistoryEntry(String text, int caret, int selAnchor) {}
-    private final Deque<HistoryEntry> undoStack = new ArrayDeque<>();
-    private final Deque<HistoryEntry> redoStack = new ArrayDeque<>();
-    private static final int MAX_HISTORY_SIZE = 100;
-    private boolean isUndoingOrRedoing = false;
+    private final UndoHistory history = new UndoHistory();
+    private final List<ChangeListener> listeners = new ArrayList<>();
 
     @Override public String getText() { return value.toString(); }
 
@@ -22,11 +19,12 @@ public class DefaultTextInputModel implements TextInputModel {
         if (text == null) text = "";
         if (value.toString().equals(text)) return;
 
-        pushUndoState();
-        value.setLength(0);
-        value.append(text);
+        int caretBefore = caret;
+        int anchorBefore = selAnchor;
+        String removed = replace(0, value.length(), text);
         caret = Math.clamp(caret, 0, value.length());
         selAnchor = -1;
+        history.record(0, removed, text, caretBefore, anchorBefore, caret);
     }
 
     @Override public int length() { return value.length(); }
@@ -50,7 +48,8 @@ public class DefaultTextInputModel implements TextInputModel {
     @Override public void setMaxLength(int max) {
         maxLength = Math.clamp(max, 0, Integer.MAX_VALUE);
         if (value.length() > maxLength) {
-            value.setLength(maxLength);
+            replace(maxLength, value.length() - maxLength, "");
+            history.clear();
             caret = Math.clamp(caret, 0, maxLength);
             selAnchor = -1;
         }
@@ -64,43 +63,48 @@ public class DefaultTextInputModel implements TextInputModel {
     @Override
     public void insert(String s) {
         if (s == null || s.isEmpty()) return;
-        pushUndoState();
-
-        if (hasSelection()) {
+        boolean replacing = hasSelection();
+        if (replacing) {
+            history.begin();
             deleteSelection();
         }
 
         int can = Math.clamp((long) maxLength - value.length(), 0, Integer.MAX_VALUE);
-        if (can <= 0) return;
-        String ins = s.length() > can ? s.substring(0, can) : s;
-        value.insert(caret, ins);
-        caret += ins.length();
+        if (can > 0) {
+            String ins = s.length() > can ? s.substring(0, can) : s;
+            int at = caret;
+            replace(at, 0, ins);
+            caret += ins.length();
+            history.record(at, "", ins, at, selAnchor, caret);
+        }
+        if (replacing) history.end();
     }
 
     @Override
     public void backspace(boolean byWord) {
         if (!hasSelection() && caret <= 0) return;
-        pushUndoState();
 
         if (hasSelection()) {
             deleteSelection();
         } else {
+            int caretBefore = caret;
             int start = byWord ? wordLeft() : caret - 1;
-            value.delete(start, caret);
+            String removed = replace(start, caret - start, "");
             caret = start;
+            history.record(start, removed, "", caretBefore, selAnchor, caret);
         }
     }
 
     @Override
     public void delete(boolean byWord) {
         if (!hasSelection() && caret >= value.length()) return;
-        pushUndoState();
 
         if (hasSelection()) {
             deleteSelection();
         } else {
-            int end = byWord ? wordRight() : caret + 1;
-            value.delete(caret, end);
+            int end = Math.min(byWord ? wordRight() : caret + 1, value.length());
+            String removed = replace(caret, end - caret, "");
+            history.record(caret, removed, "", caret, selAnchor, caret);
         }
     }
 
@@ -122,54 +126,59 @@ public class DefaultTextInputModel implements TextInputModel {
     }
 
     private void deleteSelection() {
+        int caretBefore = caret;
+        int anchorBefore = selAnchor;
         int s = getSelectionStart();
-        int e = getSelectionEnd();
-        value.delete(s, e);
+        int e = Math.min(getSelectionEnd(), value.length());
+        String removed = replace(s, e - s, "");
         caret = s;
         selAnchor = -1;
+        history.record(s, removed, "", caretBefore, anchorBefore, caret);
     }
 
     private boolean isWord(char c) { return Character.isLetterOrDigit(c) || c == '_' || c == '-'; }
     private boolean isSep(char c) { return !isWord(c) && !Character.isWhitespace(c); }
 
-    // --- Implémentation de l'historique ---
-
-    private void pushUndoState() {
-        if (isUndoingOrRedoing) return;
-
-        redoStack.clear();
-        if (undoStack.size() >= MAX_HISTORY_SIZE) {
-            undoStack.removeFirst();
-        }
-        undoStack.addLast(new HistoryEntry(value.toString(), caret, selAnchor));
+    @Override
+    public void undo() {
+        UndoHistory.Step step = history.undo(this::replace);
+        if (step == null) return;
+        caret = Math.clamp(step.getCaretBefore(), 0, value.length());
+        selAnchor = step.getAnchorBefore() <= value.length() ? step.getAnchorBefore() : -1;
     }
 
-    private void applyState(HistoryEntry entry) {
-        value.setLength(0);
-        value.append(entry.text());
-        caret = entry.caret();
-        selAnchor = entry.selAnchor();
+    @Override
+    public void redo() {
+        UndoHistory.Step step = history.redo(this::replace);
+        if (step == null) return;
+        caret = Math.clamp(step.getCaretAfter(), 0, value.length());
+        selAnchor = -1;
     }
 
-    @Override
-    public void undo() {
-        if (undoStack.isEmpty()) return;
+    @Override public void beginEdit() { history.begin(); }
+    @Override public void endEdit() { history.end(); }
 
-        isUndoingOrRedoing = true;
-        redoStack.addLast(new HistoryEntry(value.toString(), caret, selAnchor));
-        HistoryEntry lastState = undoStack.removeLast();
-        applyState(lastState);
-        isUndoingOrRedoing = false;
+    /**
+     * @return the undo stacks of this model, to tune their budget
+     */
+    public UndoHistory getUndoHistory() { return history; }
+
+    @Override
+    public boolean addChangeListener(ChangeListener listener) {
+        if (listener != null) listeners.add(listener);
+        return true;
     }
 
     @Override
-    public void redo() {
-        if (redoStack.isEmpty()) return;
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
 
-        isUndoingOrRedoing = true;
-        undoStack.addLast(new HistoryEntry(value.toString(), caret, selAnchor));
-        HistoryEntry nextState = redoStack.removeLast();
-        applyState(nextState);
-        isUndoingOrRedoing = false;
+    /** Replaces chars of the text and tells the listeners, returns the removed chars. */
+    private String replace(int offset, int length, String text) {
+        String removed = value.substring(offset, offset + length);
+        value.replace(offset, offset + length, text);
+        for (int i = 0; i < listeners.size(); i++) listeners.get(i).textChanged(offset, length, text.length());
+        return removed;
     }
 }
\ No newline at end of file
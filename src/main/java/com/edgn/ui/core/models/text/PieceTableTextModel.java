@@ -0,0 +1,528 @@
+package com.edgn.ui.core.models.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A text model for large documents, the text is a piece table: the original text and an append-only
+ * buffer of everything typed since, and a sequence of pieces pointing into them.
+ * <p>
+ * The pieces are the nodes of a treap ordered by position, every node also knows the length and the
+ * line breaks of its subtree, so inserting, deleting, reading a char and mapping offsets to lines are
+ * all O(log n). Both buffers keep the sorted offsets of their {@code '\n'}, a piece counts its breaks
+ * with two binary searches, whatever its size.
+ * <p>
+ * Nodes are immutable, an edit copies the path it changes. {@link #getText()} is materialized once
+ * per change and cached. Undo goes through an {@link UndoHistory} like the default model, undone and
+ * redone text is appended to the add buffer again.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public class PieceTableTextModel implements TextInputModel {
+    private String original = "";
+    private int[] originalBreaks = new int[0];
+    private final StringBuilder added = new StringBuilder();
+    private int[] addedBreaks = new int[16];
+    private int addedBreakCount = 0;
+
+    private Node root = null;
+    private String cachedText = "";
+    private int caret = 0;
+    private int selAnchor = -1;
+    private int maxLength = Integer.MAX_VALUE;
+    private boolean password = false;
+    private char passwordChar = '•';
+    private long seed = 0x2545F4914F6CDD1DL;
+
+    private final UndoHistory history = new UndoHistory();
+    private final List<ChangeListener> listeners = new ArrayList<>();
+
+    public PieceTableTextModel() {
+        /* empty document */
+    }
+
+    public PieceTableTextModel(String text) {
+        load(text);
+    }
+
+    @Override
+    public String getText() {
+        if (cachedText == null) {
+            char[] out = new char[size(root)];
+            copy(root, out, 0);
+            cachedText = new String(out);
+        }
+        return cachedText;
+    }
+
+    @Override
+    public String getText(int start, int end) {
+        int n = size(root);
+        start = Math.clamp(start, 0, n);
+        end = Math.clamp(end, start, n);
+        if (cachedText != null) return cachedText.substring(start, end);
+        char[] out = new char[end - start];
+        copyRange(root, start, end, out, 0);
+        return new String(out);
+    }
+
+    /**
+     * Replaces the document with a single piece of the add buffer, the previous one stays undoable
+     */
+    @Override
+    public void setText(String text) {
+        if (text == null) text = "";
+        if (text.equals(getText())) return;
+        int caretBefore = caret;
+        int anchorBefore = selAnchor;
+        String removed = replace(0, length(), text);
+        cachedText = text;
+        caret = Math.clamp(caret, 0, text.length());
+        selAnchor = -1;
+        history.record(0, removed, text, caretBefore, anchorBefore, caret);
+    }
+
+    @Override public int length() { return size(root); }
+    @Override public int getCaret() { return caret; }
+    @Override public void setCaret(int index) { caret = Math.clamp(index, 0, length()); }
+    @Override public int getSelectionStart() { return hasSelection() ? Math.min(selAnchor, caret) : caret; }
+    @Override public int getSelectionEnd() { return hasSelection() ? Math.max(selAnchor, caret) : caret; }
+    @Override public int getSelectionAnchor() { return selAnchor; }
+    @Override public boolean hasSelection() { return selAnchor >= 0 && selAnchor != caret; }
+
+    @Override
+    public void setSelection(int start, int end) {
+        selAnchor = Math.clamp(start, 0, length());
+        caret = Math.clamp(end, 0, length());
+    }
+
+    @Override public void clearSelection() { selAnchor = -1; }
+    @Override public int getMaxLength() { return maxLength; }
+
+    @Override
+    public void setMaxLength(int max) {
+        maxLength = Math.clamp(max, 0, Integer.MAX_VALUE);
+        if (length() > maxLength) {
+            replace(maxLength, length() - maxLength, "");
+            history.clear();
+            caret = Math.clamp(caret, 0, maxLength);
+            selAnchor = -1;
+        }
+    }
+
+    @Override public boolean isPassword() { return password; }
+    @Override public void setPassword(boolean enabled) { password = enabled; }
+    @Override public char getPasswordChar() { return passwordChar; }
+    @Override public void setPasswordChar(char c) { passwordChar = c; }
+
+    @Override
+    public void insert(String s) {
+        if (s == null || s.isEmpty()) return;
+        boolean replacing = hasSelection();
+        if (replacing) {
+            history.begin();
+            deleteSelection();
+        }
+
+        int can = Math.clamp((long) maxLength - length(), 0, Integer.MAX_VALUE);
+        if (can > 0) {
+            String ins = s.length() > can ? s.substring(0, can) : s;
+            int at = caret;
+            replace(at, 0, ins);
+            caret += ins.length();
+            history.record(at, "", ins, at, selAnchor, caret);
+        }
+        if (replacing) history.end();
+    }
+
+    @Override
+    public void backspace(boolean byWord) {
+        if (!hasSelection() && caret <= 0) return;
+        if (hasSelection()) {
+            deleteSelection();
+        } else {
+            int caretBefore = caret;
+            int start = byWord ? wordLeft() : caret - 1;
+            String removed = replace(start, caret - start, "");
+            caret = start;
+            history.record(start, removed, "", caretBefore, selAnchor, caret);
+        }
+    }
+
+    @Override
+    public void delete(boolean byWord) {
+        if (!hasSelection() && caret >= length()) return;
+        if (hasSelection()) {
+            deleteSelection();
+        } else {
+            int end = Math.min(byWord ? wordRight() : caret + 1, length());
+            String removed = replace(caret, end - caret, "");
+            history.record(caret, removed, "", caret, selAnchor, caret);
+        }
+    }
+
+    @Override
+    public int wordLeft() {
+        int n = length();
+        int i = Math.clamp((long) caret - 1, 0, n);
+        while (i > 0 && isSep(charAt(i))) i--;
+        while (i > 0 && !Character.isWhitespace(charAt(i - 1))) i--;
+        return i;
+    }
+
+    @Override
+    public int wordRight() {
+        int n = length();
+        int i = Math.clamp(caret, 0, n);
+        while (i < n && !Character.isWhitespace(charAt(i))) i++;
+        while (i < n && isSep(charAt(i))) i++;
+        return i;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (cachedText != null) return cachedText.charAt(index);
+        if (index < 0 || index >= size(root)) throw new StringIndexOutOfBoundsException(index);
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index < leftSize + node.length) {
+                return bufferChar(node.added, node.start + index - leftSize);
+            } else {
+                index -= leftSize + node.length;
+                node = node.right;
+            }
+        }
+    }
+
+    @Override
+    public int getLineCount() {
+        return breaks(root) + 1;
+    }
+
+    @Override
+    public int getLineOfOffset(int offset) {
+        int remaining = Math.clamp(offset, 0, length());
+        int line = 0;
+        Node node = root;
+        while (node != null && remaining > 0) {
+            int leftSize = size(node.left);
+            if (remaining <= leftSize) {
+                node = node.left;
+                continue;
+            }
+            line += breaks(node.left);
+            remaining -= leftSize;
+            if (remaining <= node.length) {
+                return line + countBreaks(node.added, node.start, node.start + remaining);
+            }
+            line += node.breaks;
+            remaining -= node.length;
+            node = node.right;
+        }
+        return line;
+    }
+
+    @Override
+    public int getLineStart(int line) {
+        if (line <= 0) return 0;
+        line = Math.min(line, breaks(root));
+        if (line == 0) return 0;
+        int target = line;
+        int offset = 0;
+        Node node = root;
+        while (node != null) {
+            int leftBreaks = breaks(node.left);
+            if (target <= leftBreaks) {
+                node = node.left;
+                continue;
+            }
+            target -= leftBreaks;
+            offset += size(node.left);
+            if (target <= node.breaks) {
+                int at = nthBreak(node.added, node.start, target);
+                return offset + at - node.start + 1;
+            }
+            target -= node.breaks;
+            offset += node.length;
+            node = node.right;
+        }
+        return offset;
+    }
+
+    @Override
+    public int getLineEnd(int line) {
+        line = Math.max(0, line);
+        if (line >= breaks(root)) return length();
+        return getLineStart(line + 1) - 1;
+    }
+
+    @Override
+    public void undo() {
+        UndoHistory.Step step = history.undo(this::replace);
+        if (step == null) return;
+        caret = Math.clamp(step.getCaretBefore(), 0, length());
+        selAnchor = step.getAnchorBefore() <= length() ? step.getAnchorBefore() : -1;
+    }
+
+    @Override
+    public void redo() {
+        UndoHistory.Step step = history.redo(this::replace);
+        if (step == null) return;
+        caret = Math.clamp(step.getCaretAfter(), 0, length());
+        selAnchor = -1;
+    }
+
+    @Override public void beginEdit() { history.begin(); }
+    @Override public void endEdit() { history.end(); }
+
+    /**
+     * @return the undo stacks of this model, to tune their budget
+     */
+    public UndoHistory getUndoHistory() { return history; }
+
+    @Override
+    public boolean addChangeListener(ChangeListener listener) {
+        if (listener != null) listeners.add(listener);
+        return true;
+    }
+
+    @Override
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return how many pieces the document is made of, grows with scattered edits
+     */
+    public int getPieceCount() {
+        return count(root);
+    }
+
+    private void load(String text) {
+        if (text == null) text = "";
+        original = text;
+        int count = 0;
+        int[] found = new int[16];
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != '\n') continue;
+            if (count == found.length) found = Arrays.copyOf(found, count * 2);
+            found[count++] = i;
+        }
+        originalBreaks = Arrays.copyOf(found, count);
+        root = text.isEmpty() ? null : piece(false, 0, text.length());
+        cachedText = text;
+    }
+
+    private void deleteSelection() {
+        int caretBefore = caret;
+        int anchorBefore = selAnchor;
+        int s = getSelectionStart();
+        int e = Math.min(getSelectionEnd(), length());
+        String removed = replace(s, e - s, "");
+        caret = s;
+        selAnchor = -1;
+        history.record(s, removed, "", caretBefore, anchorBefore, caret);
+    }
+
+    /** Replaces chars of the document and tells the listeners, returns the removed chars. */
+    private String replace(int offset, int length, String text) {
+        String removed = getText(offset, offset + length);
+        if (length > 0) deleteRange(offset, offset + length);
+        if (!text.isEmpty()) insertAt(offset, text);
+        cachedText = null;
+        for (int i = 0; i < listeners.size(); i++) listeners.get(i).textChanged(offset, length, text.length());
+        return removed;
+    }
+
+    private void insertAt(int pos, String text) {
+        int start = appendAdded(text);
+        Node[] parts = split(root, pos);
+        Node left = parts[0];
+        Node last = rightmost(left);
+        if (last != null && last.added && last.start + last.length == start) {
+            left = extendRightmost(left, text.length());
+        } else {
+            left = merge(left, piece(true, start, text.length()));
+        }
+        root = merge(left, parts[1]);
+    }
+
+    private void deleteRange(int start, int end) {
+        Node[] right = split(root, end);
+        Node[] left = split(right[0], start);
+        root = merge(left[0], right[1]);
+    }
+
+    private boolean isWord(char c) { return Character.isLetterOrDigit(c) || c == '_' || c == '-'; }
+    private boolean isSep(char c) { return !isWord(c) && !Character.isWhitespace(c); }
+
+    // --- Buffers ---
+
+    /** Appends to the add buffer, returns where the text starts in it. */
+    private int appendAdded(String text) {
+        int start = added.length();
+        added.append(text);
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != '\n') continue;
+            if (addedBreakCount == addedBreaks.length) addedBreaks = Arrays.copyOf(addedBreaks, addedBreakCount * 2);
+            addedBreaks[addedBreakCount++] = start + i;
+        }
+        return start;
+    }
+
+    private char bufferChar(boolean fromAdded, int index) {
+        return fromAdded ? added.charAt(index) : original.charAt(index);
+    }
+
+    /** The line breaks of a buffer in {@code [from, to)}. */
+    private int countBreaks(boolean fromAdded, int from, int to) {
+        int[] breaks = fromAdded ? addedBreaks : originalBreaks;
+        int n = fromAdded ? addedBreakCount : breaks.length;
+        return lowerBound(breaks, n, to) - lowerBound(breaks, n, from);
+    }
+
+    /** The buffer offset of the {@code n}-th line break at or after {@code from}, 1-based. */
+    private int nthBreak(boolean fromAdded, int from, int n) {
+        int[] breaks = fromAdded ? addedBreaks : originalBreaks;
+        int count = fromAdded ? addedBreakCount : breaks.length;
+        return breaks[lowerBound(breaks, count, from) + n - 1];
+    }
+
+    private static int lowerBound(int[] array, int n, int value) {
+        int lo = 0;
+        int hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (array[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // --- Treap ---
+
+    private static final class Node {
+        final boolean added;
+        final int start;
+        final int length;
+        final int breaks;
+        final int priority;
+        final Node left;
+        final Node right;
+        final int size;
+        final int totalBreaks;
+
+        Node(boolean added, int start, int length, int breaks, int priority, Node left, Node right) {
+            this.added = added;
+            this.start = start;
+            this.length = length;
+            this.breaks = breaks;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = length + PieceTableTextModel.size(left) + PieceTableTextModel.size(right);
+            this.totalBreaks = breaks + PieceTableTextModel.breaks(left) + PieceTableTextModel.breaks(right);
+        }
+
+        Node with(Node left, Node right) {
+            return left == this.left && right == this.right ? this : new Node(added, start, length, breaks, priority, left, right);
+        }
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int breaks(Node node) {
+        return node == null ? 0 : node.totalBreaks;
+    }
+
+    private Node piece(boolean fromAdded, int start, int length) {
+        return piece(fromAdded, start, length, nextPriority(), null, null);
+    }
+
+    private Node piece(boolean fromAdded, int start, int length, int priority, Node left, Node right) {
+        return new Node(fromAdded, start, length, countBreaks(fromAdded, start, start + length), priority, left, right);
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) (seed >>> 33);
+    }
+
+    /** Splits into the first {@code pos} chars and the rest, a piece across the cut is cut in two. */
+    private Node[] split(Node node, int pos) {
+        if (node == null) return new Node[2];
+        int leftSize = size(node.left);
+        if (pos <= leftSize) {
+            Node[] parts = split(node.left, pos);
+            return new Node[]{parts[0], node.with(parts[1], node.right)};
+        }
+        if (pos >= leftSize + node.length) {
+            Node[] parts = split(node.right, pos - leftSize - node.length);
+            return new Node[]{node.with(node.left, parts[0]), parts[1]};
+        }
+        int k = pos - leftSize;
+        Node head = piece(node.added, node.start, k, node.priority, node.left, null);
+        Node tail = piece(node.added, node.start + k, node.length - k, node.priority, null, node.right);
+        return new Node[]{head, tail};
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority >= b.priority) return a.with(a.left, merge(a.right, b));
+        return b.with(merge(a, b.left), b.right);
+    }
+
+    private static Node rightmost(Node node) {
+        if (node == null) return null;
+        while (node.right != null) node = node.right;
+        return node;
+    }
+
+    /** Grows the last piece over chars just appended right after it in the add buffer. */
+    private Node extendRightmost(Node node, int extra) {
+        if (node.right != null) return node.with(node.left, extendRightmost(node.right, extra));
+        return piece(node.added, node.start, node.length + extra, node.priority, node.left, null);
+    }
+
+    private static int count(Node node) {
+        return node == null ? 0 : 1 + count(node.left) + count(node.right);
+    }
+
+    private int copy(Node node, char[] out, int at) {
+        if (node == null) return at;
+        at = copy(node.left, out, at);
+        if (node.added) added.getChars(node.start, node.start + node.length, out, at);
+        else original.getChars(node.start, node.start + node.length, out, at);
+        at += node.length;
+        return copy(node.right, out, at);
+    }
+
+    /** Copies the chars of {@code [from, to)} of the subtree, offsets relative to the subtree. */
+    private void copyRange(Node node, int from, int to, char[] out, int at) {
+        if (node == null || from >= to) return;
+        int leftSize = size(node.left);
+        if (from < leftSize) copyRange(node.left, from, Math.min(to, leftSize), out, at);
+        int pieceFrom = Math.max(from, leftSize);
+        int pieceTo = Math.min(to, leftSize + node.length);
+        if (pieceFrom < pieceTo) {
+            int src = node.start + pieceFrom - leftSize;
+            int dst = at + pieceFrom - from;
+            if (node.added) added.getChars(src, src + pieceTo - pieceFrom, out, dst);
+            else original.getChars(src, src + pieceTo - pieceFrom, out, dst);
+        }
+        int rightStart = leftSize + node.length;
+        if (to > rightStart) {
+            int rf = Math.max(from, rightStart);
+            copyRange(node.right, rf - rightStart, to - rightStart, out, at + rf - from);
+        }
+    }
+}
@@ -27,4 +27,98 @@ public interface TextInputModel extends Model {
     int wordRight();
     void undo();
     void redo();
+
+    /**
+     * Makes the edits until the matching {@link #endEdit()} one undo step, calls nest. Models
+     * without grouped undo keep the defaults, which do nothing.
+     */
+    default void beginEdit() {
+        // no undo steps to group
+    }
+
+    default void endEdit() {
+        // no undo steps to group
+    }
+
+    /**
+     * Registers a listener told about every change of the text. Models that can't report their
+     * changes keep this default, views then compare the text on every frame instead.
+     * @return true when the listener will be told, false when it was ignored
+     */
+    default boolean addChangeListener(ChangeListener listener) {
+        return false;
+    }
+
+    default void removeChangeListener(ChangeListener listener) {
+        // nothing was registered
+    }
+
+    /**
+     * Told about every change of the text once it is applied: the {@code removed} chars from
+     * {@code offset} were replaced by {@code inserted} chars. A model may report a wider span than
+     * what really changed, up to the whole text.
+     */
+    @FunctionalInterface
+    interface ChangeListener {
+        void textChanged(int offset, int removed, int inserted);
+    }
+
+    default char charAt(int index) {
+        return getText().charAt(index);
+    }
+
+    /**
+     * @return the text between two offsets, without building the whole text when the model allows it
+     */
+    default String getText(int start, int end) {
+        return getText().substring(start, end);
+    }
+
+    /**
+     * @return the number of lines, one more than the number of {@code '\n'}
+     */
+    default int getLineCount() {
+        String text = getText();
+        int count = 1;
+        for (int i = 0; i < text.length(); i++) if (text.charAt(i) == '\n') count++;
+        return count;
+    }
+
+    /**
+     * @return the line the offset is on, an offset right after a {@code '\n'} starts the next line
+     */
+    default int getLineOfOffset(int offset) {
+        String text = getText();
+        int end = Math.clamp(offset, 0, text.length());
+        int line = 0;
+        for (int i = 0; i < end; i++) if (text.charAt(i) == '\n') line++;
+        return line;
+    }
+
+    /**
+     * @return the offset of the first char of a line, the line is clamped
+     */
+    default int getLineStart(int line) {
+        if (line <= 0) return 0;
+        String text = getText();
+        int seen = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n' && ++seen == line) return i + 1;
+        }
+        return getLineStart(seen);
+    }
+
+    /**
+     * @return the offset right after the last char of a line, its {@code '\n'} excluded
+     */
+    default int getLineEnd(int line) {
+        String text = getText();
+        int i = getLineStart(line);
+        while (i < text.length() && text.charAt(i) != '\n') i++;
+        return i;
+    }
+
+    default String getLine(int line) {
+        return getText(getLineStart(line), getLineEnd(line));
+    }
 }
\ No newline at end of file
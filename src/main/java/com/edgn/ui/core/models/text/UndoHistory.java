@@ -0,0 +1,300 @@
+package com.edgn.ui.core.models.text;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The undo and redo stacks of a text model, as edits instead of copies of the text.
+ * <p>
+ * An edit is an offset with the text it removed and the text it inserted, undoing it is the
+ * reverse replacement. Edits are grouped in steps: typed chars extend the current step until a
+ * word starts after a space, the caret jumps or an edit of another kind comes, so one undo takes
+ * back a word; single char backspaces and deletes around the same point merge the same way.
+ * Everything recorded between {@link #begin()} and {@link #end()} is one step, whatever it is made
+ * of.
+ * <p>
+ * Memory is bounded by a budget in bytes, the text of the edits plus a fixed cost each, the oldest
+ * steps are dropped first. A step larger than the whole budget is not kept.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class UndoHistory {
+    public static final long DEFAULT_BUDGET = 4L * 1024 * 1024;
+    private static final int EDIT_OVERHEAD = 48;
+    private static final int STEP_OVERHEAD = 64;
+
+    /**
+     * Replaces {@code removed} chars at {@code offset} with {@code inserted}, how a model applies
+     * an undo or a redo
+     */
+    @FunctionalInterface
+    public interface Editor {
+        void replace(int offset, int removed, String inserted);
+    }
+
+    public record Edit(int offset, String removed, String inserted) {
+        long bytes() {
+            return EDIT_OVERHEAD + 2L * (removed.length() + inserted.length());
+        }
+    }
+
+    /**
+     * One undo step, with the selection to restore on each side of it
+     */
+    public static final class Step {
+        private final List<Edit> edits = new ArrayList<>(1);
+        private final int caretBefore;
+        private final int anchorBefore;
+        private int caretAfter;
+        private final Kind kind;
+        private boolean sealed;
+        private long bytes = STEP_OVERHEAD;
+
+        /*
+         * The open run of a typing or removing step, so that a keystroke appends one char instead
+         * of copying the whole run. It is frozen back into the single edit when the step is sealed
+         * or its edits are read.
+         */
+        private StringBuilder head = null; // chars removed by backspace, last removed first
+        private StringBuilder tail = null; // chars typed, or removed by delete
+        private int runOffset;
+
+        private Step(int caretBefore, int anchorBefore, Kind kind) {
+            this.caretBefore = caretBefore;
+            this.anchorBefore = anchorBefore;
+            this.kind = kind;
+        }
+
+        public int getCaretBefore() { return caretBefore; }
+        public int getAnchorBefore() { return anchorBefore; }
+        public int getCaretAfter() { return caretAfter; }
+        public List<Edit> getEdits() {
+            freeze();
+            return edits;
+        }
+
+        private void seal() {
+            sealed = true;
+            freeze();
+        }
+
+        private void openRun() {
+            if (tail != null) return;
+            Edit edit = edits.get(0);
+            head = new StringBuilder();
+            tail = new StringBuilder(kind == Kind.TYPING ? edit.inserted() : edit.removed());
+            runOffset = edit.offset();
+        }
+
+        private void freeze() {
+            if (tail == null) return;
+            String run = head.reverse().append(tail).toString();
+            edits.set(0, kind == Kind.TYPING ? new Edit(runOffset, "", run) : new Edit(runOffset, run, ""));
+            head = null;
+            tail = null;
+        }
+
+        private char firstChar() {
+            return head.isEmpty() ? tail.charAt(0) : head.charAt(head.length() - 1);
+        }
+
+        private char lastChar() {
+            return tail.isEmpty() ? head.charAt(0) : tail.charAt(tail.length() - 1);
+        }
+
+        private int runLength() {
+            return head.length() + tail.length();
+        }
+    }
+
+    private enum Kind { TYPING, REMOVING, OTHER }
+
+    private final Deque<Step> undoStack = new ArrayDeque<>();
+    private final Deque<Step> redoStack = new ArrayDeque<>();
+    private long budget = DEFAULT_BUDGET;
+    private long bytes = 0;
+    private int depth = 0;
+    private Step open = null;
+
+    public UndoHistory setBudget(long bytes) {
+        budget = Math.max(0, bytes);
+        trim();
+        return this;
+    }
+
+    public long getBudget() { return budget; }
+
+    /**
+     * @return the bytes the kept steps are estimated to hold
+     */
+    public long getBytes() { return bytes; }
+
+    public int getUndoCount() { return undoStack.size(); }
+    public int getRedoCount() { return redoStack.size(); }
+    public boolean canUndo() { return !undoStack.isEmpty(); }
+    public boolean canRedo() { return !redoStack.isEmpty(); }
+
+    /**
+     * Opens a step that every edit goes into until the matching {@link #end()}, calls nest
+     */
+    public void begin() {
+        if (depth++ == 0) {
+            sealLast();
+            open = null;
+        }
+    }
+
+    public void end() {
+        if (depth == 0) return;
+        if (--depth == 0) {
+            if (open != null) open.seal();
+            open = null;
+            trim();
+        }
+    }
+
+    public boolean isInTransaction() { return depth > 0; }
+
+    /**
+     * Records an edit made to the text, with the selection before and the caret after it
+     */
+    public void record(int offset, String removed, String inserted, int caretBefore, int anchorBefore, int caretAfter) {
+        if (removed.isEmpty() && inserted.isEmpty()) return;
+        clearRedo();
+        Edit edit = new Edit(offset, removed, inserted);
+        if (depth > 0) {
+            if (open == null) open = push(caretBefore, anchorBefore, Kind.OTHER);
+            add(open, edit);
+            open.caretAfter = caretAfter;
+            return;
+        }
+
+        Kind kind = kindOf(edit);
+        Step last = undoStack.peekLast();
+        if (last != null && !last.sealed && last.kind == kind && kind != Kind.OTHER && merge(last, edit)) {
+            last.caretAfter = caretAfter;
+        } else {
+            sealLast();
+            Step step = push(caretBefore, anchorBefore, kind);
+            add(step, edit);
+            step.caretAfter = caretAfter;
+            if (kind == Kind.OTHER) step.seal();
+        }
+        trim();
+    }
+
+    /**
+     * Ends the current step, the next edit starts another one even if it could extend it
+     */
+    public void seal() {
+        if (depth == 0) sealLast();
+    }
+
+    /**
+     * Takes back the last step through the editor
+     * @return the step, for its selection, or {@code null} when there was none
+     */
+    public Step undo(Editor editor) {
+        if (depth > 0 || undoStack.isEmpty()) return null;
+        Step step = undoStack.removeLast();
+        step.seal();
+        for (int i = step.edits.size() - 1; i >= 0; i--) {
+            Edit e = step.edits.get(i);
+            editor.replace(e.offset(), e.inserted().length(), e.removed());
+        }
+        redoStack.addLast(step);
+        return step;
+    }
+
+    /**
+     * Applies the last undone step again through the editor
+     * @return the step, for its selection, or {@code null} when there was none
+     */
+    public Step redo(Editor editor) {
+        if (depth > 0 || redoStack.isEmpty()) return null;
+        Step step = redoStack.removeLast();
+        for (Edit e : step.edits) editor.replace(e.offset(), e.removed().length(), e.inserted());
+        undoStack.addLast(step);
+        return step;
+    }
+
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        bytes = 0;
+        open = null;
+    }
+
+    private Step push(int caret, int anchor, Kind kind) {
+        Step step = new Step(caret, anchor, kind);
+        undoStack.addLast(step);
+        bytes += step.bytes;
+        return step;
+    }
+
+    private void add(Step step, Edit edit) {
+        step.edits.add(edit);
+        step.bytes += edit.bytes();
+        bytes += edit.bytes();
+    }
+
+    private void sealLast() {
+        Step last = undoStack.peekLast();
+        if (last != null) last.seal();
+    }
+
+    private void clearRedo() {
+        for (Step step : redoStack) bytes -= step.bytes;
+        redoStack.clear();
+    }
+
+    private void trim() {
+        while (bytes > budget && !undoStack.isEmpty() && undoStack.peekFirst() != open) {
+            bytes -= undoStack.removeFirst().bytes;
+        }
+        while (bytes > budget && !redoStack.isEmpty()) {
+            bytes -= redoStack.removeFirst().bytes;
+        }
+    }
+
+    private static Kind kindOf(Edit edit) {
+        if (edit.removed().isEmpty() && edit.inserted().length() == 1 && edit.inserted().charAt(0) != '\n') return Kind.TYPING;
+        if (edit.inserted().isEmpty() && edit.removed().length() == 1) return Kind.REMOVING;
+        return Kind.OTHER;
+    }
+
+    /**
+     * Extends the single edit of an open step: typing continues where it stopped, a backspace ends
+     * where the removed text starts, a delete starts where it started. None crosses into the next
+     * word, a word starts where a non-space follows a space in the direction of the edits.
+     */
+    private boolean merge(Step step, Edit edit) {
+        if (step.edits.size() != 1) return false;
+        step.openRun();
+        if (step.kind == Kind.TYPING) {
+            char c = edit.inserted().charAt(0);
+            if (edit.offset() != step.runOffset + step.runLength() || wordStarts(step.lastChar(), c)) return false;
+            step.tail.append(c);
+        } else {
+            char c = edit.removed().charAt(0);
+            if (edit.offset() + 1 == step.runOffset && !wordStarts(step.firstChar(), c)) {
+                step.head.append(c);
+                step.runOffset = edit.offset();
+            } else if (edit.offset() == step.runOffset && !wordStarts(step.lastChar(), c)) {
+                step.tail.append(c);
+            } else {
+                return false;
+            }
+        }
+        // one more char in the edit, two bytes as counted by Edit#bytes
+        bytes += 2;
+        step.bytes += 2;
+        return true;
+    }
+
+    private static boolean wordStarts(char previous, char next) {
+        return Character.isWhitespace(previous) && !Character.isWhitespace(next);
+    }
+}
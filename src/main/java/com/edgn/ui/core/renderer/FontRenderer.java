@@ -9,4 +9,14 @@ public interface FontRenderer {
     void draw(DrawContext ctx, String text, int x, int y, int argb, boolean shadow);
     List<String> wrap(String text, int maxWidth);
     int advance(int codePoint);
+
+    /**
+     * Draws a single code point, fonts override it to draw without building a String.
+     * A bold glyph keeps the regular advance, the font thickens it in place.
+     */
+    default void drawGlyph(DrawContext ctx, int codePoint, int x, int y, int argb, boolean shadow, boolean bold) {
+        String glyph = Character.toString(codePoint);
+        draw(ctx, glyph, x, y, argb, shadow);
+        if (bold) draw(ctx, glyph, x + 1, y, argb, shadow);
+    }
 }
@@ -0,0 +1,89 @@
+package com.edgn.ui.core.renderer;
+
+/**
+ * The time every animation of a frame is computed from.
+ * <p>
+ * The clock is sampled once when the outermost {@code RenderPass} opens, so every widget, every
+ * character of an animated text and every replayed display list of a frame sees the same instant
+ * and nothing reads the wall clock while drawing. It can be paused and scaled, a paused clock only
+ * moves through {@link #advance(long)}, which makes screens rendered by tests and benchmarks
+ * reproducible frame by frame.
+ * <p>
+ * Times are in milliseconds and start at the wall clock, they can be stored and compared like
+ * {@code System.currentTimeMillis()} values. Render thread only.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class FrameClock {
+    private static long lastWall = System.nanoTime();
+    private static double time = System.currentTimeMillis();
+    private static long now = (long) time;
+    private static float delta = 0f;
+    private static long frame = 0;
+    private static boolean paused = false;
+    private static float scale = 1.0f;
+
+    private FrameClock() { /* utility class */ }
+
+    /**
+     * Samples the wall clock and moves the frame time forward by the scaled elapsed time
+     */
+    public static void tick() {
+        long wall = System.nanoTime();
+        double elapsed = (wall - lastWall) / 1_000_000.0;
+        lastWall = wall;
+        step(paused ? 0.0 : elapsed * scale);
+        frame++;
+    }
+
+    /**
+     * Moves the frame time forward by a fixed amount whatever the pause and scale, for tests
+     */
+    public static void advance(long millis) {
+        if (millis < 0) throw new IllegalArgumentException("Can't move the frame clock backwards");
+        step(millis);
+    }
+
+    /**
+     * @return the time of the current frame in milliseconds
+     */
+    public static long now() {
+        return now;
+    }
+
+    /**
+     * @return the milliseconds elapsed between the previous frame and this one, after scaling
+     */
+    public static float delta() {
+        return delta;
+    }
+
+    /**
+     * @return how many frames were ticked so far
+     */
+    public static long frame() {
+        return frame;
+    }
+
+    public static void setPaused(boolean value) {
+        paused = value;
+    }
+
+    public static boolean isPaused() { return paused; }
+
+    /**
+     * Speed of the frame time relative to the wall clock, 0.5 plays every animation at half speed
+     */
+    public static void setScale(float value) {
+        if (value < 0f || Float.isNaN(value)) throw new IllegalArgumentException("Invalid frame clock scale " + value);
+        scale = value;
+    }
+
+    public static float getScale() { return scale; }
+
+    private static void step(double millis) {
+        time += millis;
+        now = (long) time;
+        delta = (float) millis;
+    }
+}
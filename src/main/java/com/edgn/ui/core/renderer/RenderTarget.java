@@ -0,0 +1,51 @@
+package com.edgn.ui.core.renderer;
+
+import org.joml.Matrix4f;
+
+/**
+ * Where the primitives of a {@code RenderPass} end up.
+ * <p>
+ * {@code DrawingUtils}, {@code TextComponent} and the containers only ever emit solid rects,
+ * gradients, quads and scissor changes, a target turns those into pixels: batched GL vertices
+ * for the game, or an {@code int[]} framebuffer for headless rendering. Coordinates are given in
+ * GUI space together with the matrix of the {@code DrawContext} they were issued under.
+ * @author EDGN
+ */
+public interface RenderTarget {
+    int width();
+    int height();
+
+    void fill(Matrix4f matrix, float x0, float y0, float x1, float y1, int color);
+
+    /**
+     * A vertical gradient, {@code top} at {@code y0} and {@code bottom} at {@code y1}
+     */
+    void fillGradient(Matrix4f matrix, float x0, float y0, float x1, float y1, int top, int bottom);
+
+    /**
+     * An arbitrary quad, vertices in counter-clockwise order starting at the top left.
+     * A triangle is a quad whose last vertex repeats the third one.
+     */
+    void quad(Matrix4f matrix,
+              float ax, float ay, float bx, float by, float cx, float cy, float dx, float dy,
+              int colorA, int colorB, int colorC, int colorD);
+
+    /**
+     * Restricts drawing to a rect intersected with the current one until the matching {@link #popScissor()}
+     */
+    void pushScissor(Matrix4f matrix, int x1, int y1, int x2, int y2);
+
+    void popScissor();
+
+    /**
+     * Makes everything recorded so far visible, called before anything drawn behind the target's back
+     */
+    void flush();
+
+    /**
+     * @return false when the target can't sample game textures, image helpers skip their draw
+     */
+    default boolean supportsTextures() {
+        return true;
+    }
+}
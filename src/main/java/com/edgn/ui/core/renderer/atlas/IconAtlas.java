@@ -0,0 +1,194 @@
+package com.edgn.ui.core.renderer.atlas;
+
+import com.edgn.EdgnScreenLib;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.client.texture.NativeImageBackedTexture;
+import net.minecraft.resource.Resource;
+import net.minecraft.util.Identifier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Packs icon regions of any texture into shared atlas pages, so a grid of icons binds one texture
+ * and draws in a single batch.
+ * <p>
+ * Registering only runs the {@link SkylinePacker} and returns a {@link SpriteHandle} right away,
+ * from any thread and before resources are loaded. Pixels are copied into the page textures lazily
+ * on the render thread, the first time a page is drawn after new registrations or after
+ * {@link #invalidate()}.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class IconAtlas {
+    public static final int PAGE_SIZE = 1024;
+    private static final int PADDING = 1;
+
+    private static final List<Page> PAGES = new ArrayList<>();
+    private static final Map<Region, SpriteHandle> HANDLES = new HashMap<>();
+    private static volatile boolean dirty = false;
+
+    private IconAtlas() { /* utility class */ }
+
+    /**
+     * Registers a region of a texture, registering the same region twice returns the same handle
+     * @param source the texture the icon is read from
+     * @param u left of the region in pixels
+     * @param v top of the region in pixels
+     * @param width region width in pixels
+     * @param height region height in pixels
+     */
+    public static synchronized SpriteHandle register(Identifier source, int u, int v, int width, int height) {
+        Region region = new Region(source, u, v, width, height);
+        SpriteHandle existing = HANDLES.get(region);
+        if (existing != null) return existing;
+        if (width <= 0 || height <= 0 || width + PADDING * 2 > PAGE_SIZE || height + PADDING * 2 > PAGE_SIZE) {
+            throw new IllegalArgumentException("Sprite " + width + "x" + height + " doesn't fit in a " + PAGE_SIZE + " atlas page");
+        }
+
+        Page page = null;
+        long position = -1;
+        for (Page candidate : PAGES) {
+            position = candidate.packer.insert(width + PADDING * 2, height + PADDING * 2);
+            if (position >= 0) {
+                page = candidate;
+                break;
+            }
+        }
+        if (page == null) {
+            page = new Page(PAGES.size());
+            PAGES.add(page);
+            position = page.packer.insert(width + PADDING * 2, height + PADDING * 2);
+        }
+
+        int x = SkylinePacker.x(position) + PADDING;
+        int y = SkylinePacker.y(position) + PADDING;
+        page.entries.add(new Entry(region, x, y));
+        page.dirty = true;
+        dirty = true;
+
+        float size = PAGE_SIZE;
+        SpriteHandle handle = new SpriteHandle(page.id, x / size, y / size, (x + width) / size, (y + height) / size, width, height);
+        HANDLES.put(region, handle);
+        return handle;
+    }
+
+    /**
+     * Registers a whole texture of a known size
+     */
+    public static SpriteHandle register(Identifier source, int width, int height) {
+        return register(source, 0, 0, width, height);
+    }
+
+    /**
+     * Uploads the pages changed since the last call, render thread only, cheap when nothing changed
+     */
+    public static void upload() {
+        if (!dirty) return;
+        synchronized (IconAtlas.class) {
+            for (Page page : PAGES) {
+                if (page.dirty) page.upload();
+            }
+            dirty = false;
+        }
+    }
+
+    /**
+     * Copies every page again on next use, for when the source textures were reloaded
+     */
+    public static synchronized void invalidate() {
+        for (Page page : PAGES) page.dirty = true;
+        dirty = !PAGES.isEmpty();
+    }
+
+    public static synchronized int getPageCount() {
+        return PAGES.size();
+    }
+
+    public static synchronized float getPageOccupancy(int page) {
+        return PAGES.get(page).packer.occupancy();
+    }
+
+    /**
+     * @return true when the page will be copied again on the next {@link #upload()}
+     */
+    static synchronized boolean needsUpload(int page) {
+        return PAGES.get(page).dirty;
+    }
+
+    /**
+     * Forgets every page and handle, handles given out before no longer point anywhere. Tests only,
+     * the page textures stay registered.
+     */
+    static synchronized void clear() {
+        PAGES.clear();
+        HANDLES.clear();
+        dirty = false;
+    }
+
+    private record Region(Identifier source, int u, int v, int width, int height) {}
+
+    private record Entry(Region region, int x, int y) {}
+
+    private static final class Page {
+        private final Identifier id;
+        private final SkylinePacker packer = new SkylinePacker(PAGE_SIZE, PAGE_SIZE);
+        private final List<Entry> entries = new ArrayList<>();
+        private NativeImageBackedTexture texture;
+        private boolean dirty = false;
+
+        private Page(int index) {
+            this.id = Identifier.of(EdgnScreenLib.MOD_ID, "atlas/icons_" + index);
+        }
+
+        private void upload() {
+            MinecraftClient client = MinecraftClient.getInstance();
+            if (texture == null) {
+                texture = new NativeImageBackedTexture(new NativeImage(PAGE_SIZE, PAGE_SIZE, true));
+                client.getTextureManager().registerTexture(id, texture);
+            }
+            NativeImage target = texture.getImage();
+            if (target == null) return;
+            target.fillRect(0, 0, PAGE_SIZE, PAGE_SIZE, 0);
+
+            Map<Identifier, NativeImage> sources = new HashMap<>();
+            try {
+                for (Entry entry : entries) {
+                    NativeImage source = sources.computeIfAbsent(entry.region.source, IconAtlas::read);
+                    if (source == null) continue;
+                    Region r = entry.region;
+                    int w = Math.min(r.width, source.getWidth() - r.u);
+                    int h = Math.min(r.height, source.getHeight() - r.v);
+                    if (w <= 0 || h <= 0) continue;
+                    source.copyRect(target, r.u, r.v, entry.x - r.u, entry.y - r.v, w, h, false, false);
+                }
+            } finally {
+                for (NativeImage source : sources.values()) {
+                    if (source != null) source.close();
+                }
+            }
+            texture.upload();
+            dirty = false;
+        }
+    }
+
+    private static NativeImage read(Identifier source) {
+        Optional<Resource> resource = MinecraftClient.getInstance().getResourceManager().getResource(source);
+        if (resource.isEmpty()) {
+            EdgnScreenLib.LOGGER.warn("Atlas source texture {} not found", source);
+            return null;
+        }
+        try (InputStream in = resource.get().getInputStream()) {
+            return NativeImage.read(in);
+        } catch (IOException e) {
+            EdgnScreenLib.LOGGER.warn("Failed to read atlas source texture {}", source, e);
+            return null;
+        }
+    }
+}
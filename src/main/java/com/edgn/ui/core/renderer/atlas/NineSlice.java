@@ -0,0 +1,109 @@
+package com.edgn.ui.core.renderer.atlas;
+
+import net.minecraft.util.Identifier;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A textured frame stretched to any size: the four corners keep their pixel size, edges stretch
+ * along one axis and the center along both.
+ * <p>
+ * The slice quads of a size are computed once and cached, drawing is nine sprites of the same
+ * atlas page, a single batch entry with whatever else uses that page.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class NineSlice {
+    private static final int MAX_CACHED_SIZES = 32;
+    /** Floats per slice: {@code x0, y0, x1, y1} relative to the frame, then {@code u0, v0, u1, v1}. */
+    public static final int STRIDE = 8;
+
+    private final SpriteHandle sprite;
+    private final int left;
+    private final int top;
+    private final int right;
+    private final int bottom;
+    private final Map<Long, float[]> geometry = new HashMap<>();
+
+    /**
+     * @param sprite the whole frame texture
+     * @param left left border in source pixels
+     * @param top top border in source pixels
+     * @param right right border in source pixels
+     * @param bottom bottom border in source pixels
+     */
+    public NineSlice(SpriteHandle sprite, int left, int top, int right, int bottom) {
+        if (left < 0 || top < 0 || right < 0 || bottom < 0
+                || left + right > sprite.width() || top + bottom > sprite.height()) {
+            throw new IllegalArgumentException("Invalid nine-slice insets for a " + sprite.width() + "x" + sprite.height() + " sprite");
+        }
+        this.sprite = sprite;
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    /**
+     * Registers the frame region in the {@link IconAtlas} and slices it
+     */
+    public static NineSlice of(Identifier texture, int u, int v, int width, int height, int left, int top, int right, int bottom) {
+        return new NineSlice(IconAtlas.register(texture, u, v, width, height), left, top, right, bottom);
+    }
+
+    /**
+     * Same border on every side
+     */
+    public static NineSlice of(Identifier texture, int u, int v, int width, int height, int border) {
+        return of(texture, u, v, width, height, border, border, border, border);
+    }
+
+    public SpriteHandle getSprite() { return sprite; }
+
+    /**
+     * The non-empty slices for a frame of this size, {@link #STRIDE} floats each. Borders shrink
+     * proportionally when the frame is smaller than both of them together. Render thread only.
+     */
+    public float[] geometry(int width, int height) {
+        long key = ((long) width << 32) | (height & 0xFFFFFFFFL);
+        float[] cached = geometry.get(key);
+        if (cached != null) return cached;
+        if (geometry.size() >= MAX_CACHED_SIZES) geometry.clear();
+        float[] built = build(width, height);
+        geometry.put(key, built);
+        return built;
+    }
+
+    private float[] build(int width, int height) {
+        float scaleX = left + right > width ? width / (float) (left + right) : 1f;
+        float scaleY = top + bottom > height ? height / (float) (top + bottom) : 1f;
+        float[] xs = {0, left * scaleX, width - right * scaleX, width};
+        float[] ys = {0, top * scaleY, height - bottom * scaleY, height};
+
+        float du = (sprite.u1() - sprite.u0()) / sprite.width();
+        float dv = (sprite.v1() - sprite.v0()) / sprite.height();
+        float[] us = {sprite.u0(), sprite.u0() + left * du, sprite.u1() - right * du, sprite.u1()};
+        float[] vs = {sprite.v0(), sprite.v0() + top * dv, sprite.v1() - bottom * dv, sprite.v1()};
+
+        float[] out = new float[9 * STRIDE];
+        int n = 0;
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                if (xs[col + 1] <= xs[col] || ys[row + 1] <= ys[row]) continue;
+                out[n++] = xs[col];
+                out[n++] = ys[row];
+                out[n++] = xs[col + 1];
+                out[n++] = ys[row + 1];
+                out[n++] = us[col];
+                out[n++] = vs[row];
+                out[n++] = us[col + 1];
+                out[n++] = vs[row + 1];
+            }
+        }
+        if (n == out.length) return out;
+        float[] trimmed = new float[n];
+        System.arraycopy(out, 0, trimmed, 0, n);
+        return trimmed;
+    }
+}
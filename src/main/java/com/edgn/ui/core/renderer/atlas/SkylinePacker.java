@@ -0,0 +1,162 @@
+package com.edgn.ui.core.renderer.atlas;
+
+/**
+ * Packs rectangles into a fixed size page with the skyline bottom-left heuristic.
+ * <p>
+ * The skyline is the upper outline of everything placed so far, stored as segments
+ * {@code (x, y, width)} in flat arrays. A rect goes where its top would be lowest, ties broken by
+ * the narrowest waste. Pure Java and deterministic, the same insertion order always gives the same
+ * layout.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class SkylinePacker {
+    private final int width;
+    private final int height;
+
+    private int[] xs = new int[32];
+    private int[] ys = new int[32];
+    private int[] ws = new int[32];
+    private int segments;
+    private long usedArea = 0;
+
+    public SkylinePacker(int width, int height) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Invalid page size " + width + "x" + height);
+        this.width = width;
+        this.height = height;
+        reset();
+    }
+
+    public void reset() {
+        segments = 1;
+        xs[0] = 0;
+        ys[0] = 0;
+        ws[0] = width;
+        usedArea = 0;
+    }
+
+    /**
+     * Places a rect
+     * @return its top left corner packed as {@code (x << 32) | y}, or -1 when it doesn't fit
+     */
+    public long insert(int w, int h) {
+        if (w <= 0 || h <= 0 || w > width || h > height) return -1;
+
+        int bestIndex = -1;
+        int bestY = Integer.MAX_VALUE;
+        int bestWaste = Integer.MAX_VALUE;
+        for (int i = 0; i < segments; i++) {
+            int y = fitY(i, w, h);
+            if (y < 0) continue;
+            int waste = waste(i, w, y);
+            if (y < bestY || (y == bestY && waste < bestWaste)) {
+                bestIndex = i;
+                bestY = y;
+                bestWaste = waste;
+            }
+        }
+        if (bestIndex < 0) return -1;
+
+        int x = xs[bestIndex];
+        addLevel(bestIndex, x, bestY + h, w);
+        usedArea += (long) w * h;
+        return ((long) x << 32) | bestY;
+    }
+
+    public static int x(long position) {
+        return (int) (position >>> 32);
+    }
+
+    public static int y(long position) {
+        return (int) position;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    /**
+     * @return the share of the page covered by placed rects, from 0 to 1
+     */
+    public float occupancy() {
+        return usedArea / (float) ((long) width * height);
+    }
+
+    /** The lowest top a rect starting at segment {@code i} can have, -1 when it overflows the page. */
+    private int fitY(int i, int w, int h) {
+        int x = xs[i];
+        if (x + w > width) return -1;
+        int remaining = w;
+        int y = 0;
+        for (int j = i; remaining > 0; j++) {
+            if (j == segments) return -1;
+            y = Math.max(y, ys[j]);
+            if (y + h > height) return -1;
+            remaining -= ws[j];
+        }
+        return y;
+    }
+
+    /** The area left unusable under a rect placed at segment {@code i}. */
+    private int waste(int i, int w, int y) {
+        int waste = 0;
+        int right = xs[i] + w;
+        for (int j = i; j < segments && xs[j] < right; j++) {
+            int segRight = Math.min(right, xs[j] + ws[j]);
+            waste += (segRight - xs[j]) * (y - ys[j]);
+        }
+        return waste;
+    }
+
+    private void addLevel(int index, int x, int y, int w) {
+        insertSegment(index, x, y, w);
+
+        for (int i = index + 1; i < segments; i++) {
+            int prevRight = xs[i - 1] + ws[i - 1];
+            if (xs[i] >= prevRight) break;
+            int shrink = prevRight - xs[i];
+            if (ws[i] > shrink) {
+                xs[i] += shrink;
+                ws[i] -= shrink;
+                break;
+            }
+            removeSegment(i);
+            i--;
+        }
+
+        for (int i = 0; i < segments - 1; i++) {
+            if (ys[i] == ys[i + 1]) {
+                ws[i] += ws[i + 1];
+                removeSegment(i + 1);
+                i--;
+            }
+        }
+    }
+
+    private void insertSegment(int index, int x, int y, int w) {
+        if (segments == xs.length) {
+            xs = grow(xs);
+            ys = grow(ys);
+            ws = grow(ws);
+        }
+        System.arraycopy(xs, index, xs, index + 1, segments - index);
+        System.arraycopy(ys, index, ys, index + 1, segments - index);
+        System.arraycopy(ws, index, ws, index + 1, segments - index);
+        xs[index] = x;
+        ys[index] = y;
+        ws[index] = w;
+        segments++;
+    }
+
+    private void removeSegment(int index) {
+        System.arraycopy(xs, index + 1, xs, index, segments - index - 1);
+        System.arraycopy(ys, index + 1, ys, index, segments - index - 1);
+        System.arraycopy(ws, index + 1, ws, index, segments - index - 1);
+        segments--;
+    }
+
+    private static int[] grow(int[] array) {
+        int[] grown = new int[array.length * 2];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+}
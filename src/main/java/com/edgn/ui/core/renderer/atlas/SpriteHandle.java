@@ -0,0 +1,18 @@
+package com.edgn.ui.core.renderer.atlas;
+
+import net.minecraft.util.Identifier;
+
+/**
+ * A sprite packed into an {@link IconAtlas} page. The page texture and UVs never change once the
+ * handle is handed out, so it can be kept in a field and drawn every frame.
+ * @param texture the page texture to bind
+ * @param u0 left UV
+ * @param v0 top UV
+ * @param u1 right UV
+ * @param v1 bottom UV
+ * @param width the source width in pixels
+ * @param height the source height in pixels
+ * @author EDGN
+ */
+public record SpriteHandle(Identifier texture, float u0, float v0, float u1, float v1, int width, int height) {
+}
@@ -0,0 +1,99 @@
+package com.edgn.ui.core.renderer.batch;
+
+import org.joml.Matrix4f;
+
+/**
+ * The scissor rects of a render pass in screen space, each one already intersected with its parent.
+ * Stored flat in an {@code int[]}, pushing and testing never allocates.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class ClipStack {
+    private int[] rects = new int[4 * 16];
+    private int depth = 0;
+
+    public void reset() {
+        depth = 0;
+    }
+
+    public boolean isEmpty() {
+        return depth == 0;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Pushes a rect given in GUI space under {@code matrix}, intersected with the current one
+     */
+    public void push(Matrix4f matrix, int x1, int y1, int x2, int y2) {
+        int minX = (int) Math.floor(minX(matrix, x1, y1, x2, y2));
+        int minY = (int) Math.floor(minY(matrix, x1, y1, x2, y2));
+        int maxX = (int) Math.ceil(maxX(matrix, x1, y1, x2, y2));
+        int maxY = (int) Math.ceil(maxY(matrix, x1, y1, x2, y2));
+        if (depth > 0) {
+            int p = (depth - 1) * 4;
+            minX = Math.max(minX, rects[p]);
+            minY = Math.max(minY, rects[p + 1]);
+            maxX = Math.min(maxX, rects[p + 2]);
+            maxY = Math.min(maxY, rects[p + 3]);
+        }
+        if (depth * 4 == rects.length) {
+            int[] grown = new int[rects.length * 2];
+            System.arraycopy(rects, 0, grown, 0, rects.length);
+            rects = grown;
+        }
+        int p = depth * 4;
+        rects[p] = minX;
+        rects[p + 1] = minY;
+        rects[p + 2] = Math.max(minX, maxX);
+        rects[p + 3] = Math.max(minY, maxY);
+        depth++;
+    }
+
+    public void pop() {
+        if (depth > 0) depth--;
+    }
+
+    /**
+     * @return true when the rect, given in GUI space under {@code matrix}, can't produce a single
+     * visible pixel through the current clip
+     */
+    public boolean rejects(Matrix4f matrix, float x1, float y1, float x2, float y2) {
+        if (depth == 0) return false;
+        int p = (depth - 1) * 4;
+        return maxX(matrix, x1, y1, x2, y2) <= rects[p]
+                || maxY(matrix, x1, y1, x2, y2) <= rects[p + 1]
+                || minX(matrix, x1, y1, x2, y2) >= rects[p + 2]
+                || minY(matrix, x1, y1, x2, y2) >= rects[p + 3];
+    }
+
+    /**
+     * @return true when the current clip is empty, nothing drawn can be visible
+     */
+    public boolean isEmptyClip() {
+        if (depth == 0) return false;
+        int p = (depth - 1) * 4;
+        return rects[p] >= rects[p + 2] || rects[p + 1] >= rects[p + 3];
+    }
+
+    private static float minX(Matrix4f m, float x1, float y1, float x2, float y2) {
+        return Math.min(Math.min(tx(m, x1, y1), tx(m, x2, y1)), Math.min(tx(m, x1, y2), tx(m, x2, y2)));
+    }
+
+    private static float maxX(Matrix4f m, float x1, float y1, float x2, float y2) {
+        return Math.max(Math.max(tx(m, x1, y1), tx(m, x2, y1)), Math.max(tx(m, x1, y2), tx(m, x2, y2)));
+    }
+
+    private static float minY(Matrix4f m, float x1, float y1, float x2, float y2) {
+        return Math.min(Math.min(ty(m, x1, y1), ty(m, x2, y1)), Math.min(ty(m, x1, y2), ty(m, x2, y2)));
+    }
+
+    private static float maxY(Matrix4f m, float x1, float y1, float x2, float y2) {
+        return Math.max(Math.max(ty(m, x1, y1), ty(m, x2, y1)), Math.max(ty(m, x1, y2), ty(m, x2, y2)));
+    }
+
+    private static float tx(Matrix4f m, float x, float y) { return m.m00() * x + m.m10() * y + m.m30(); }
+    private static float ty(Matrix4f m, float x, float y) { return m.m01() * x + m.m11() * y + m.m31(); }
+}
@@ -0,0 +1,282 @@
+package com.edgn.ui.core.renderer.batch;
+
+import com.edgn.ui.core.UIElement;
+import com.edgn.ui.core.renderer.FontRenderer;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.util.Identifier;
+import org.joml.Matrix4f;
+
+/**
+ * The recorded draw commands of a retained subtree, replayed verbatim while the subtree's paint
+ * version doesn't change.
+ * <p>
+ * Quads and sprites are stored already transformed, text, scissor and live children keep the
+ * matrix they were issued with. A live child is an element that was volatile (hovered, focused, animated) when the
+ * list was recorded, replay renders it for real at the same place in the paint order.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class DisplayList {
+    private static final byte QUAD = 0;
+    private static final byte TEXT = 1;
+    private static final byte SCISSOR_PUSH = 2;
+    private static final byte SCISSOR_POP = 3;
+    private static final byte CHILD = 4;
+    private static final byte SPRITE = 5;
+    private static final byte GLYPH = 6;
+
+    private byte[] ops = new byte[64];
+    private int opCount = 0;
+    private float[] floats = new float[256];
+    private int floatCount = 0;
+    private int[] ints = new int[128];
+    private int intCount = 0;
+    private Object[] refs = new Object[32];
+    private int refCount = 0;
+
+    private boolean sealed = false;
+    private boolean failed = false;
+    private int version;
+    private int themeGeneration;
+    private final float[] baseMatrix = new float[16];
+
+    private final Matrix4f scratch = new Matrix4f();
+
+    /**
+     * @return true when the list can be replayed in place of rendering the subtree
+     */
+    public boolean isValid(int version, int themeGeneration, Matrix4f base) {
+        return sealed && !failed && this.version == version && this.themeGeneration == themeGeneration && sameBase(base);
+    }
+
+    /**
+     * @return true when recording this exact paint version already hit something that can't be replayed
+     */
+    public boolean hasFailed(int version, int themeGeneration) {
+        return failed && this.version == version && this.themeGeneration == themeGeneration;
+    }
+
+    public void invalidate() {
+        sealed = false;
+    }
+
+    public int size() {
+        return opCount;
+    }
+
+    void reset() {
+        clearCommands();
+        sealed = false;
+        failed = false;
+    }
+
+    private void clearCommands() {
+        opCount = 0;
+        floatCount = 0;
+        intCount = 0;
+        for (int i = 0; i < refCount; i++) refs[i] = null;
+        refCount = 0;
+    }
+
+    void markFailed() {
+        failed = true;
+    }
+
+    void seal(int version, int themeGeneration, Matrix4f base) {
+        this.version = version;
+        this.themeGeneration = themeGeneration;
+        base.get(baseMatrix);
+        if (failed) clearCommands();
+        this.sealed = !failed;
+    }
+
+    void quad(float[] positions, int p, int[] colors, int c) {
+        op(QUAD);
+        ensureFloats(12);
+        System.arraycopy(positions, p, floats, floatCount, 12);
+        floatCount += 12;
+        ensureInts(4);
+        System.arraycopy(colors, c, ints, intCount, 4);
+        intCount += 4;
+    }
+
+    void sprite(float[] positions, int p, float[] uvs, int u, int color, Identifier texture) {
+        op(SPRITE);
+        ensureFloats(20);
+        System.arraycopy(positions, p, floats, floatCount, 12);
+        System.arraycopy(uvs, u, floats, floatCount + 12, 8);
+        floatCount += 20;
+        ensureInts(1);
+        ints[intCount++] = color;
+        ref(texture);
+    }
+
+    void text(Matrix4f matrix, FontRenderer font, String text, int x, int y, int argb, boolean shadow) {
+        op(TEXT);
+        matrix(matrix);
+        ensureInts(4);
+        ints[intCount++] = x;
+        ints[intCount++] = y;
+        ints[intCount++] = argb;
+        ints[intCount++] = shadow ? 1 : 0;
+        ref(font);
+        ref(text);
+    }
+
+    void glyph(Matrix4f matrix, FontRenderer font, int codePoint, int x, int y, int argb, boolean shadow, boolean bold) {
+        op(GLYPH);
+        matrix(matrix);
+        ensureInts(5);
+        ints[intCount++] = codePoint;
+        ints[intCount++] = x;
+        ints[intCount++] = y;
+        ints[intCount++] = argb;
+        ints[intCount++] = (shadow ? 1 : 0) | (bold ? 2 : 0);
+        ref(font);
+    }
+
+    void pushScissor(Matrix4f matrix, int x1, int y1, int x2, int y2) {
+        op(SCISSOR_PUSH);
+        matrix(matrix);
+        ensureInts(4);
+        ints[intCount++] = x1;
+        ints[intCount++] = y1;
+        ints[intCount++] = x2;
+        ints[intCount++] = y2;
+    }
+
+    void popScissor() {
+        op(SCISSOR_POP);
+    }
+
+    void child(Matrix4f matrix, UIElement child) {
+        op(CHILD);
+        matrix(matrix);
+        ref(child);
+    }
+
+    /**
+     * Issues every recorded command again through {@link RenderPass}, so an enclosing list being
+     * recorded captures them as well
+     */
+    public void replay(DrawContext context) {
+        DrawCommandBuffer buffer = RenderPass.buffer(context);
+        if (buffer == null) return;
+
+        int f = 0;
+        int n = 0;
+        int r = 0;
+        for (int i = 0; i < opCount; i++) {
+            switch (ops[i]) {
+                case QUAD -> {
+                    buffer.replay(floats, f, ints, n);
+                    f += 12;
+                    n += 4;
+                }
+                case SPRITE -> {
+                    buffer.replaySprite(floats, f, floats, f + 12, ints[n], (Identifier) refs[r++]);
+                    f += 20;
+                    n += 1;
+                }
+                case TEXT -> {
+                    FontRenderer font = (FontRenderer) refs[r++];
+                    String text = (String) refs[r++];
+                    pushMatrix(context, f);
+                    try {
+                        font.draw(context, text, ints[n], ints[n + 1], ints[n + 2], ints[n + 3] != 0);
+                    } finally {
+                        context.getMatrices().pop();
+                    }
+                    f += 16;
+                    n += 4;
+                }
+                case GLYPH -> {
+                    FontRenderer font = (FontRenderer) refs[r++];
+                    pushMatrix(context, f);
+                    try {
+                        int flags = ints[n + 4];
+                        font.drawGlyph(context, ints[n], ints[n + 1], ints[n + 2], ints[n + 3], (flags & 1) != 0, (flags & 2) != 0);
+                    } finally {
+                        context.getMatrices().pop();
+                    }
+                    f += 16;
+                    n += 5;
+                }
+                case SCISSOR_PUSH -> {
+                    pushMatrix(context, f);
+                    try {
+                        RenderPass.enableScissor(context, ints[n], ints[n + 1], ints[n + 2], ints[n + 3]);
+                    } finally {
+                        context.getMatrices().pop();
+                    }
+                    f += 16;
+                    n += 4;
+                }
+                case SCISSOR_POP -> RenderPass.disableScissor(context);
+                case CHILD -> {
+                    UIElement child = (UIElement) refs[r++];
+                    pushMatrix(context, f);
+                    try {
+                        RenderPass.renderChild(context, child);
+                    } finally {
+                        context.getMatrices().pop();
+                    }
+                    f += 16;
+                }
+                default -> throw new IllegalStateException("Unknown display list op " + ops[i]);
+            }
+        }
+    }
+
+    private void pushMatrix(DrawContext context, int offset) {
+        context.getMatrices().push();
+        context.getMatrices().peek().getPositionMatrix().set(scratch.set(floats, offset));
+    }
+
+    private boolean sameBase(Matrix4f base) {
+        return base.m00() == baseMatrix[0] && base.m01() == baseMatrix[1] && base.m02() == baseMatrix[2] && base.m03() == baseMatrix[3]
+                && base.m10() == baseMatrix[4] && base.m11() == baseMatrix[5] && base.m12() == baseMatrix[6] && base.m13() == baseMatrix[7]
+                && base.m20() == baseMatrix[8] && base.m21() == baseMatrix[9] && base.m22() == baseMatrix[10] && base.m23() == baseMatrix[11]
+                && base.m30() == baseMatrix[12] && base.m31() == baseMatrix[13] && base.m32() == baseMatrix[14] && base.m33() == baseMatrix[15];
+    }
+
+    private void op(byte op) {
+        if (opCount == ops.length) {
+            byte[] grown = new byte[ops.length * 2];
+            System.arraycopy(ops, 0, grown, 0, opCount);
+            ops = grown;
+        }
+        ops[opCount++] = op;
+    }
+
+    private void matrix(Matrix4f matrix) {
+        ensureFloats(16);
+        matrix.get(floats, floatCount);
+        floatCount += 16;
+    }
+
+    private void ref(Object ref) {
+        if (refCount == refs.length) {
+            Object[] grown = new Object[refs.length * 2];
+            System.arraycopy(refs, 0, grown, 0, refCount);
+            refs = grown;
+        }
+        refs[refCount++] = ref;
+    }
+
+    private void ensureFloats(int extra) {
+        if (floatCount + extra > floats.length) {
+            float[] grown = new float[Math.max(floats.length * 2, floatCount + extra)];
+            System.arraycopy(floats, 0, grown, 0, floatCount);
+            floats = grown;
+        }
+    }
+
+    private void ensureInts(int extra) {
+        if (intCount + extra > ints.length) {
+            int[] grown = new int[Math.max(ints.length * 2, intCount + extra)];
+            System.arraycopy(ints, 0, grown, 0, intCount);
+            ints = grown;
+        }
+    }
+}
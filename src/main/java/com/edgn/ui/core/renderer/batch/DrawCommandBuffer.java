@@ -0,0 +1,483 @@
+package com.edgn.ui.core.renderer.batch;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.gl.ShaderProgramKeys;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.BuiltBuffer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.util.Identifier;
+import org.joml.Matrix4f;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records colored quads into flat primitive arrays and uploads them as a single vertex batch.
+ * <p>
+ * Positions are transformed by the matrix given at record time, so pushing and popping the
+ * {@code DrawContext} matrices between two records is safe. A solid axis-aligned rect sharing an
+ * edge and the color of the previously recorded one is merged into it instead of adding a quad,
+ * which turns scanlines, borders and Bresenham runs into a handful of quads.
+ * <p>
+ * Textured quads ({@link #sprite}) are collected in a second batch, one per texture. Switching
+ * between colored quads and sprites, or between two textures, uploads the pending batch first so
+ * the paint order is kept, consecutive icons of one atlas page cost a single draw call.
+ * <p>
+ * Every recorded quad is also forwarded, before merging, to the {@link DisplayList}s currently
+ * recording (see {@link RenderPass#beginRecording}).
+ * <p>
+ * Batches go to an {@link Uploader}, the GL one by default. Another uploader lets a headless
+ * target reuse the recording and merging as is, with the same {@link FrameStats}. Every upload,
+ * including the ones triggered by switching between quads and sprites, first runs the hook set
+ * with {@link #setBeforeUpload(Runnable)}, where the target draws what was queued below the batch.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class DrawCommandBuffer {
+    private static final int POSITIONS_PER_QUAD = 12;
+    private static final int COLORS_PER_QUAD = 4;
+    private static final int UVS_PER_QUAD = 8;
+
+    private float[] positions = new float[POSITIONS_PER_QUAD * 256];
+    private int[] colors = new int[COLORS_PER_QUAD * 256];
+    private int quadCount = 0;
+
+    private boolean lastMergeable = false;
+    private float lastX0;
+    private float lastY0;
+    private float lastX1;
+    private float lastY1;
+    private float lastZ;
+    private int lastColor;
+
+    private float[] spritePositions = new float[POSITIONS_PER_QUAD * 64];
+    private float[] spriteUvs = new float[UVS_PER_QUAD * 64];
+    private int[] spriteColors = new int[64];
+    private int spriteCount = 0;
+    private Identifier spriteTexture = null;
+    private final float[] spriteScratch = new float[POSITIONS_PER_QUAD];
+    private final float[] uvScratch = new float[UVS_PER_QUAD];
+
+    private final List<DisplayList> sinks = new ArrayList<>(2);
+    private final float[] sinkPositions = new float[POSITIONS_PER_QUAD];
+    private final int[] sinkColors = new int[COLORS_PER_QUAD];
+
+    private final Uploader uploader;
+    private Runnable beforeUpload = null;
+
+    private int primitives = 0;
+    private int emittedQuads = 0;
+    private int drawCalls = 0;
+    private int rejected = 0;
+
+    public DrawCommandBuffer() {
+        this(GL_UPLOADER);
+    }
+
+    public DrawCommandBuffer(Uploader uploader) {
+        this.uploader = uploader;
+    }
+
+    /**
+     * Runs before each batch is uploaded, null for none
+     */
+    public void setBeforeUpload(Runnable hook) {
+        this.beforeUpload = hook;
+    }
+
+    /**
+     * Records a solid rect, the equivalent of one {@code DrawContext.fill} call
+     */
+    public void rect(Matrix4f matrix, float x0, float y0, float x1, float y1, int color) {
+        primitives++;
+        if (x1 < x0) { float t = x0; x0 = x1; x1 = t; }
+        if (y1 < y0) { float t = y0; y0 = y1; y1 = t; }
+        if (x0 == x1 || y0 == y1 || (color >>> 24) == 0) return;
+
+        if (matrix.m10() == 0 && matrix.m01() == 0) {
+            float sx0 = tx(matrix, x0, y0);
+            float sy0 = ty(matrix, x0, y0);
+            float sx1 = tx(matrix, x1, y1);
+            float sy1 = ty(matrix, x1, y1);
+            float sz = tz(matrix, x0, y0);
+            if (sx1 < sx0) { float t = sx0; sx0 = sx1; sx1 = t; }
+            if (sy1 < sy0) { float t = sy0; sy0 = sy1; sy1 = t; }
+            emitRect(sx0, sy0, sx1, sy1, sz, color);
+            return;
+        }
+
+        quad(matrix, x0, y0, x0, y1, x1, y1, x1, y0, color, color, color, color);
+        primitives--;
+    }
+
+    /**
+     * Records a rect with a vertical gradient, the equivalent of {@code DrawContext.fillGradient}
+     */
+    public void gradient(Matrix4f matrix, float x0, float y0, float x1, float y1, int top, int bottom) {
+        if (top == bottom) {
+            rect(matrix, x0, y0, x1, y1, top);
+            return;
+        }
+        quad(matrix, x0, y0, x0, y1, x1, y1, x1, y0, top, bottom, bottom, top);
+    }
+
+    /**
+     * Records an arbitrary quad, vertices in counter-clockwise order starting at the top left.
+     * A triangle is a quad whose last vertex repeats the third one.
+     */
+    public void quad(Matrix4f matrix,
+                     float ax, float ay, float bx, float by, float cx, float cy, float dx, float dy,
+                     int colorA, int colorB, int colorC, int colorD) {
+        primitives++;
+        int q = reserve();
+        int p = q * POSITIONS_PER_QUAD;
+        writeVertex(matrix, p, ax, ay);
+        writeVertex(matrix, p + 3, bx, by);
+        writeVertex(matrix, p + 6, cx, cy);
+        writeVertex(matrix, p + 9, dx, dy);
+        int c = q * COLORS_PER_QUAD;
+        colors[c] = colorA;
+        colors[c + 1] = colorB;
+        colors[c + 2] = colorC;
+        colors[c + 3] = colorD;
+        lastMergeable = false;
+        if (recording()) {
+            for (DisplayList sink : sinks) sink.quad(positions, p, colors, c);
+        }
+    }
+
+    /**
+     * Records a textured axis-aligned quad, the UVs of the top left and bottom right corners
+     */
+    public void sprite(Matrix4f matrix, Identifier texture, float x0, float y0, float x1, float y1,
+                       float u0, float v0, float u1, float v1, int color) {
+        uvScratch[0] = u0; uvScratch[1] = v0;
+        uvScratch[2] = u0; uvScratch[3] = v1;
+        uvScratch[4] = u1; uvScratch[5] = v1;
+        uvScratch[6] = u1; uvScratch[7] = v0;
+        sprite(matrix, texture, x0, y0, x1, y1, uvScratch, color);
+    }
+
+    /**
+     * Records a textured quad
+     * @param uvs eight UVs in vertex order: top left, bottom left, bottom right, top right
+     */
+    public void sprite(Matrix4f matrix, Identifier texture, float x0, float y0, float x1, float y1, float[] uvs, int color) {
+        transformInto(matrix, spriteScratch, 0, x0, y0);
+        transformInto(matrix, spriteScratch, 3, x0, y1);
+        transformInto(matrix, spriteScratch, 6, x1, y1);
+        transformInto(matrix, spriteScratch, 9, x1, y0);
+        replaySprite(spriteScratch, 0, uvs, 0, color, texture);
+    }
+
+    /**
+     * Re-issues a sprite recorded by a {@link DisplayList}, positions are already transformed
+     */
+    void replaySprite(float[] src, int p, float[] uvs, int u, int color, Identifier texture) {
+        primitives++;
+        if (quadCount > 0) flushQuads();
+        if (spriteTexture != null && !spriteTexture.equals(texture)) flushSprites();
+        spriteTexture = texture;
+        if (spriteCount * POSITIONS_PER_QUAD == spritePositions.length) {
+            int capacity = spriteCount * 2;
+            float[] grownPositions = new float[capacity * POSITIONS_PER_QUAD];
+            System.arraycopy(spritePositions, 0, grownPositions, 0, spritePositions.length);
+            spritePositions = grownPositions;
+            float[] grownUvs = new float[capacity * UVS_PER_QUAD];
+            System.arraycopy(spriteUvs, 0, grownUvs, 0, spriteUvs.length);
+            spriteUvs = grownUvs;
+            int[] grownColors = new int[capacity];
+            System.arraycopy(spriteColors, 0, grownColors, 0, spriteColors.length);
+            spriteColors = grownColors;
+        }
+        System.arraycopy(src, p, spritePositions, spriteCount * POSITIONS_PER_QUAD, POSITIONS_PER_QUAD);
+        System.arraycopy(uvs, u, spriteUvs, spriteCount * UVS_PER_QUAD, UVS_PER_QUAD);
+        spriteColors[spriteCount] = color;
+        spriteCount++;
+        if (recording()) {
+            for (DisplayList sink : sinks) sink.sprite(src, p, uvs, u, color, texture);
+        }
+    }
+
+    /**
+     * Re-issues a quad recorded by a {@link DisplayList}, positions are already transformed
+     */
+    void replay(float[] src, int p, int[] srcColors, int c) {
+        primitives++;
+        int color = srcColors[c];
+        boolean solid = color == srcColors[c + 1] && color == srcColors[c + 2] && color == srcColors[c + 3];
+        boolean aligned = src[p] == src[p + 3] && src[p + 6] == src[p + 9]
+                && src[p + 1] == src[p + 10] && src[p + 4] == src[p + 7]
+                && src[p + 2] == src[p + 5] && src[p + 2] == src[p + 8] && src[p + 2] == src[p + 11];
+        if (solid && aligned) {
+            emitRect(src[p], src[p + 1], src[p + 6], src[p + 4], src[p + 2], color);
+            return;
+        }
+
+        int q = reserve();
+        System.arraycopy(src, p, positions, q * POSITIONS_PER_QUAD, POSITIONS_PER_QUAD);
+        System.arraycopy(srcColors, c, colors, q * COLORS_PER_QUAD, COLORS_PER_QUAD);
+        lastMergeable = false;
+        if (recording()) {
+            for (DisplayList sink : sinks) sink.quad(src, p, srcColors, c);
+        }
+    }
+
+    void attach(DisplayList list) {
+        sinks.add(list);
+    }
+
+    void detach(DisplayList list) {
+        sinks.remove(list);
+    }
+
+    /**
+     * Detaches every list currently recording, lists attached afterward still record
+     * @return the detached lists, to give back to {@link #resume(List)}
+     */
+    List<DisplayList> suspend() {
+        List<DisplayList> detached = new ArrayList<>(sinks);
+        sinks.clear();
+        return detached;
+    }
+
+    void resume(List<DisplayList> detached) {
+        sinks.addAll(0, detached);
+    }
+
+    boolean recording() {
+        return !sinks.isEmpty();
+    }
+
+    List<DisplayList> sinks() {
+        return sinks;
+    }
+
+    public boolean isEmpty() {
+        return quadCount == 0 && spriteCount == 0;
+    }
+
+    public int size() {
+        return quadCount + spriteCount;
+    }
+
+    /**
+     * Uploads the pending batch, colored quads or sprites, and clears the buffer.
+     * The caller is responsible for drawing anything that must appear below first.
+     */
+    public void flush() {
+        flushQuads();
+        flushSprites();
+    }
+
+    private void flushQuads() {
+        if (quadCount == 0) return;
+        if (beforeUpload != null) beforeUpload.run();
+        uploader.quads(positions, colors, quadCount);
+        emittedQuads += quadCount;
+        drawCalls++;
+        quadCount = 0;
+        lastMergeable = false;
+    }
+
+    private void flushSprites() {
+        if (spriteCount == 0) return;
+        if (beforeUpload != null) beforeUpload.run();
+        uploader.sprites(spriteTexture, spritePositions, spriteUvs, spriteColors, spriteCount);
+        emittedQuads += spriteCount;
+        drawCalls++;
+        spriteCount = 0;
+        spriteTexture = null;
+    }
+
+    /**
+     * Drops every recorded quad without drawing them
+     */
+    public void clear() {
+        quadCount = 0;
+        lastMergeable = false;
+        spriteCount = 0;
+        spriteTexture = null;
+    }
+
+    public FrameStats snapshotStats() {
+        return new FrameStats(primitives, emittedQuads, drawCalls, rejected);
+    }
+
+    public void resetStats() {
+        primitives = 0;
+        emittedQuads = 0;
+        drawCalls = 0;
+        rejected = 0;
+    }
+
+    /**
+     * Counts a primitive skipped on the CPU because it was entirely clipped
+     */
+    public void countRejected() {
+        rejected++;
+    }
+
+    private void emitRect(float x0, float y0, float x1, float y1, float z, int color) {
+        if (recording()) {
+            writeRectInto(sinkPositions, 0, x0, y0, x1, y1, z);
+            sinkColors[0] = color;
+            sinkColors[1] = color;
+            sinkColors[2] = color;
+            sinkColors[3] = color;
+            for (DisplayList sink : sinks) sink.quad(sinkPositions, 0, sinkColors, 0);
+        }
+        if (tryMerge(x0, y0, x1, y1, z, color)) return;
+
+        int q = reserve();
+        writeRect(q, x0, y0, x1, y1, z);
+        fillColors(q, color, color);
+        lastMergeable = true;
+        lastX0 = x0; lastY0 = y0; lastX1 = x1; lastY1 = y1; lastZ = z; lastColor = color;
+    }
+
+    private boolean tryMerge(float x0, float y0, float x1, float y1, float z, int color) {
+        if (!lastMergeable || color != lastColor || z != lastZ) return false;
+
+        if (y0 == lastY0 && y1 == lastY1 && (x0 == lastX1 || x1 == lastX0)) {
+            lastX0 = Math.min(x0, lastX0);
+            lastX1 = Math.max(x1, lastX1);
+        } else if (x0 == lastX0 && x1 == lastX1 && (y0 == lastY1 || y1 == lastY0)) {
+            lastY0 = Math.min(y0, lastY0);
+            lastY1 = Math.max(y1, lastY1);
+        } else {
+            return false;
+        }
+        writeRect(quadCount - 1, lastX0, lastY0, lastX1, lastY1, lastZ);
+        return true;
+    }
+
+    private int reserve() {
+        if (spriteCount > 0) flushSprites();
+        if (quadCount * POSITIONS_PER_QUAD == positions.length) {
+            int capacity = quadCount * 2;
+            float[] grownPositions = new float[capacity * POSITIONS_PER_QUAD];
+            System.arraycopy(positions, 0, grownPositions, 0, positions.length);
+            positions = grownPositions;
+            int[] grownColors = new int[capacity * COLORS_PER_QUAD];
+            System.arraycopy(colors, 0, grownColors, 0, colors.length);
+            colors = grownColors;
+        }
+        return quadCount++;
+    }
+
+    private void writeRect(int q, float x0, float y0, float x1, float y1, float z) {
+        writeRectInto(positions, q * POSITIONS_PER_QUAD, x0, y0, x1, y1, z);
+    }
+
+    private static void writeRectInto(float[] dst, int p, float x0, float y0, float x1, float y1, float z) {
+        dst[p] = x0;      dst[p + 1] = y0;  dst[p + 2] = z;
+        dst[p + 3] = x0;  dst[p + 4] = y1;  dst[p + 5] = z;
+        dst[p + 6] = x1;  dst[p + 7] = y1;  dst[p + 8] = z;
+        dst[p + 9] = x1;  dst[p + 10] = y0; dst[p + 11] = z;
+    }
+
+    private void fillColors(int q, int top, int bottom) {
+        int c = q * COLORS_PER_QUAD;
+        colors[c] = top;
+        colors[c + 1] = bottom;
+        colors[c + 2] = bottom;
+        colors[c + 3] = top;
+    }
+
+    private void writeVertex(Matrix4f m, int i, float x, float y) {
+        transformInto(m, positions, i, x, y);
+    }
+
+    private static void transformInto(Matrix4f m, float[] dst, int i, float x, float y) {
+        dst[i] = tx(m, x, y);
+        dst[i + 1] = ty(m, x, y);
+        dst[i + 2] = tz(m, x, y);
+    }
+
+    private static float tx(Matrix4f m, float x, float y) { return m.m00() * x + m.m10() * y + m.m30(); }
+    private static float ty(Matrix4f m, float x, float y) { return m.m01() * x + m.m11() * y + m.m31(); }
+    private static float tz(Matrix4f m, float x, float y) { return m.m02() * x + m.m12() * y + m.m32(); }
+
+    /**
+     * Draws the batches of a {@link DrawCommandBuffer}, one call is one draw call. Positions are
+     * already transformed, three floats per vertex, four vertices per quad in recording order.
+     */
+    public interface Uploader {
+        /**
+         * @param colors one color per vertex
+         */
+        void quads(float[] positions, int[] colors, int count);
+
+        /**
+         * @param uvs two floats per vertex
+         * @param colors one color per quad
+         */
+        void sprites(Identifier texture, float[] positions, float[] uvs, int[] colors, int count);
+    }
+
+    private static final Uploader GL_UPLOADER = new Uploader() {
+        @Override
+        public void quads(float[] positions, int[] colors, int count) {
+            RenderSystem.setShader(ShaderProgramKeys.POSITION_COLOR);
+            RenderSystem.enableBlend();
+            RenderSystem.defaultBlendFunc();
+
+            Tessellator tess = Tessellator.getInstance();
+            BufferBuilder buf = tess.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_COLOR);
+            for (int q = 0; q < count; q++) {
+                int p = q * POSITIONS_PER_QUAD;
+                int c = q * COLORS_PER_QUAD;
+                for (int v = 0; v < 4; v++) {
+                    int i = p + v * 3;
+                    buf.vertex(positions[i], positions[i + 1], positions[i + 2]).color(colors[c + v]);
+                }
+            }
+            BuiltBuffer built = buf.endNullable();
+            if (built != null) BufferRenderer.drawWithGlobalProgram(built);
+            RenderSystem.disableBlend();
+        }
+
+        @Override
+        public void sprites(Identifier texture, float[] positions, float[] uvs, int[] colors, int count) {
+            RenderSystem.setShader(ShaderProgramKeys.POSITION_TEX_COLOR);
+            RenderSystem.setShaderTexture(0, texture);
+            RenderSystem.enableBlend();
+            RenderSystem.defaultBlendFunc();
+
+            Tessellator tess = Tessellator.getInstance();
+            BufferBuilder buf = tess.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE_COLOR);
+            for (int q = 0; q < count; q++) {
+                int p = q * POSITIONS_PER_QUAD;
+                int u = q * UVS_PER_QUAD;
+                int color = colors[q];
+                for (int v = 0; v < 4; v++) {
+                    int i = p + v * 3;
+                    buf.vertex(positions[i], positions[i + 1], positions[i + 2])
+                            .texture(uvs[u + v * 2], uvs[u + v * 2 + 1])
+                            .color(color);
+                }
+            }
+            BuiltBuffer built = buf.endNullable();
+            if (built != null) BufferRenderer.drawWithGlobalProgram(built);
+            RenderSystem.disableBlend();
+        }
+    };
+
+    /**
+     * Counters of one frame
+     * @param primitives the primitives recorded, each one used to be a separate {@code fill} call
+     * @param quads the quads actually uploaded after merging
+     * @param drawCalls the batches uploaded
+     * @param rejected the primitives skipped because they were entirely clipped
+     */
+    public record FrameStats(int primitives, int quads, int drawCalls, int rejected) {
+        public static final FrameStats EMPTY = new FrameStats(0, 0, 0, 0);
+
+        public int verticesBefore() { return primitives * 4; }
+        public int verticesAfter() { return quads * 4; }
+    }
+}
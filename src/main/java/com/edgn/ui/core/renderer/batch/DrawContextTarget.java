@@ -0,0 +1,72 @@
+package com.edgn.ui.core.renderer.batch;
+
+import com.edgn.ui.core.renderer.RenderTarget;
+import net.minecraft.client.gui.DrawContext;
+import org.joml.Matrix4f;
+
+/**
+ * The in-game target, primitives go to the pass' {@link DrawCommandBuffer} and scissor changes
+ * to the {@link DrawContext}, which transforms them itself. Before any batch is uploaded, explicit
+ * flush or quad/sprite switch, the context draws what it queued, so older text stays below.
+ * @author EDGN
+ */
+final class DrawContextTarget implements RenderTarget {
+    private final DrawCommandBuffer buffer;
+    private DrawContext context;
+
+    DrawContextTarget(DrawCommandBuffer buffer) {
+        this.buffer = buffer;
+        buffer.setBeforeUpload(this::drawQueued);
+    }
+
+    void bind(DrawContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public int width() {
+        return context.getScaledWindowWidth();
+    }
+
+    @Override
+    public int height() {
+        return context.getScaledWindowHeight();
+    }
+
+    @Override
+    public void fill(Matrix4f matrix, float x0, float y0, float x1, float y1, int color) {
+        buffer.rect(matrix, x0, y0, x1, y1, color);
+    }
+
+    @Override
+    public void fillGradient(Matrix4f matrix, float x0, float y0, float x1, float y1, int top, int bottom) {
+        buffer.gradient(matrix, x0, y0, x1, y1, top, bottom);
+    }
+
+    @Override
+    public void quad(Matrix4f matrix,
+                     float ax, float ay, float bx, float by, float cx, float cy, float dx, float dy,
+                     int colorA, int colorB, int colorC, int colorD) {
+        buffer.quad(matrix, ax, ay, bx, by, cx, cy, dx, dy, colorA, colorB, colorC, colorD);
+    }
+
+    @Override
+    public void pushScissor(Matrix4f matrix, int x1, int y1, int x2, int y2) {
+        context.enableScissor(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void popScissor() {
+        context.disableScissor();
+    }
+
+    @Override
+    public void flush() {
+        if (buffer.isEmpty()) return;
+        buffer.flush();
+    }
+
+    private void drawQueued() {
+        if (context != null) context.draw();
+    }
+}
@@ -0,0 +1,255 @@
+package com.edgn.ui.core.renderer.batch;
+
+import com.edgn.ui.core.UIElement;
+import com.edgn.ui.core.renderer.FontRenderer;
+import com.edgn.ui.core.renderer.FrameClock;
+import com.edgn.ui.core.renderer.RenderTarget;
+import net.minecraft.client.gui.DrawContext;
+import org.joml.Matrix4f;
+
+import java.util.List;
+
+/**
+ * The frame-scoped owner of the {@link DrawCommandBuffer}.
+ * <p>
+ * {@code BaseTemplate} opens a pass around the UI tree, while it is open {@code DrawingUtils}
+ * records into the buffer instead of calling {@code DrawContext.fill}. Anything that draws through
+ * the context directly (text, images, vanilla widgets) or changes the scissor must call
+ * {@link #flush(DrawContext)} first so the recorded shapes stay below it.
+ * <p>
+ * The pass also drives retained containers: between {@link #beginRecording(DisplayList)} and
+ * {@link #endRecording(DisplayList)} quads, text, scissor changes and volatile children are captured
+ * into the display list while being drawn. Anything drawn behind the pass' back must call
+ * {@link #markUnrecordable()} so the list is not replayed without it.
+ * <p>
+ * Every scissor change of the pass goes through {@link #enableScissor} and {@link #disableScissor},
+ * which keep a {@link ClipStack} of the intersected screen rects. Primitives entirely outside of it
+ * are rejected before reaching the target, see {@link #rejects}.
+ * <p>
+ * Primitives end up in the pass' {@link RenderTarget}. In game it is the GL buffer above, a pass
+ * opened with {@link #begin(DrawContext, RenderTarget)} sends them to another target instead, such as
+ * the software rasterizer used to render screens headlessly. Display lists are only recorded for
+ * the GL target.
+ * <p>
+ * Opening the outermost pass ticks the {@link FrameClock}, animations read the frame time from it
+ * instead of the wall clock.
+ * <p>
+ * Render thread only.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class RenderPass {
+    private static final DrawCommandBuffer BUFFER = new DrawCommandBuffer();
+    private static final DrawContextTarget GL_TARGET = new DrawContextTarget(BUFFER);
+    private static final ClipStack CLIP = new ClipStack();
+    private static DrawContext context = null;
+    private static RenderTarget target = null;
+    private static int depth = 0;
+    private static boolean enabled = true;
+    private static DrawCommandBuffer.FrameStats lastFrame = DrawCommandBuffer.FrameStats.EMPTY;
+
+    private RenderPass() { /* utility class */ }
+
+    public static void begin(DrawContext ctx) {
+        begin(ctx, null);
+    }
+
+    /**
+     * Opens a pass drawing into a custom target, {@code ctx} then only carries the matrix stack.
+     * Such a pass ignores {@link #setEnabled(boolean)}.
+     */
+    public static void begin(DrawContext ctx, RenderTarget custom) {
+        if (depth++ > 0) return;
+        FrameClock.tick();
+        if (custom == null && !enabled) return;
+        context = ctx;
+        if (custom == null) {
+            GL_TARGET.bind(ctx);
+            target = GL_TARGET;
+        } else {
+            target = custom;
+        }
+        BUFFER.clear();
+        BUFFER.resetStats();
+        CLIP.reset();
+    }
+
+    public static void end(DrawContext ctx) {
+        if (depth == 0 || --depth > 0 || context == null) return;
+        flush(ctx);
+        lastFrame = BUFFER.snapshotStats();
+        context = null;
+        target = null;
+        CLIP.reset();
+        GL_TARGET.bind(null);
+        BUFFER.sinks().clear();
+    }
+
+    /**
+     * @return the buffer recording for this context, or null when no pass is open for it
+     */
+    public static DrawCommandBuffer buffer(DrawContext ctx) {
+        return ctx != null && ctx == context && target == GL_TARGET ? BUFFER : null;
+    }
+
+    /**
+     * @return the buffer of the open pass whatever its context, for helpers that draw without one
+     */
+    public static DrawCommandBuffer buffer() {
+        return context != null && target == GL_TARGET ? BUFFER : null;
+    }
+
+    /**
+     * @return the target of the pass open for this context, or null when there is none
+     */
+    public static RenderTarget target(DrawContext ctx) {
+        return ctx != null && ctx == context ? target : null;
+    }
+
+    /**
+     * @return the target of the open pass whatever its context, for helpers that draw without one
+     */
+    public static RenderTarget target() {
+        return target;
+    }
+
+    /**
+     * @return true while the open pass draws somewhere else than the game window
+     */
+    public static boolean isHeadless() {
+        return target != null && target != GL_TARGET;
+    }
+
+    public static boolean isActive() {
+        return context != null;
+    }
+
+    /**
+     * Draws what the context already queued, then the recorded shapes, keeping the paint order
+     */
+    public static void flush(DrawContext ctx) {
+        if (ctx == null || ctx != context) return;
+        target.flush();
+    }
+
+    /**
+     * Flushes the open pass whatever its context, for helpers that draw without one
+     */
+    public static void flush() {
+        flush(context);
+    }
+
+    /**
+     * Disables batching, every helper goes back to immediate {@code DrawContext} calls
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() { return enabled; }
+
+    /**
+     * Starts capturing into the list, lists nest, an enclosing list keeps capturing too
+     */
+    public static void beginRecording(DisplayList list) {
+        list.reset();
+        BUFFER.attach(list);
+    }
+
+    public static void endRecording(DisplayList list) {
+        BUFFER.detach(list);
+    }
+
+    public static boolean isRecording() {
+        return context != null && target == GL_TARGET && BUFFER.recording();
+    }
+
+    /**
+     * Called by draws that can't be captured, the lists being recorded won't be replayed
+     */
+    public static void markUnrecordable() {
+        if (!isRecording()) return;
+        for (DisplayList list : BUFFER.sinks()) list.markFailed();
+    }
+
+    /**
+     * Captures a text draw, the caller still draws it
+     */
+    public static void recordText(DrawContext ctx, FontRenderer font, String text, int x, int y, int argb, boolean shadow) {
+        if (ctx != context || !BUFFER.recording()) return;
+        Matrix4f matrix = ctx.getMatrices().peek().getPositionMatrix();
+        for (DisplayList list : BUFFER.sinks()) list.text(matrix, font, text, x, y, argb, shadow);
+    }
+
+    /**
+     * Captures a single glyph draw, the caller still draws it
+     */
+    public static void recordGlyph(DrawContext ctx, FontRenderer font, int codePoint, int x, int y, int argb, boolean shadow, boolean bold) {
+        if (ctx != context || !BUFFER.recording()) return;
+        Matrix4f matrix = ctx.getMatrices().peek().getPositionMatrix();
+        for (DisplayList list : BUFFER.sinks()) list.glyph(matrix, font, codePoint, x, y, argb, shadow, bold);
+    }
+
+    public static void enableScissor(DrawContext ctx, int x1, int y1, int x2, int y2) {
+        flush(ctx);
+        if (ctx == context && BUFFER.recording()) {
+            Matrix4f matrix = ctx.getMatrices().peek().getPositionMatrix();
+            for (DisplayList list : BUFFER.sinks()) list.pushScissor(matrix, x1, y1, x2, y2);
+        }
+        if (ctx == context) {
+            Matrix4f matrix = ctx.getMatrices().peek().getPositionMatrix();
+            CLIP.push(matrix, x1, y1, x2, y2);
+            target.pushScissor(matrix, x1, y1, x2, y2);
+        } else {
+            ctx.enableScissor(x1, y1, x2, y2);
+        }
+    }
+
+    public static void disableScissor(DrawContext ctx) {
+        flush(ctx);
+        if (ctx == context && BUFFER.recording()) {
+            for (DisplayList list : BUFFER.sinks()) list.popScissor();
+        }
+        if (ctx == context) {
+            CLIP.pop();
+            target.popScissor();
+        } else {
+            ctx.disableScissor();
+        }
+    }
+
+    /**
+     * Renders a child of a container, while recording a volatile child is captured as a live
+     * reference and drawn without being recorded, it will be rendered again on every replay
+     */
+    public static void renderChild(DrawContext ctx, UIElement child) {
+        if (ctx != context || !BUFFER.recording() || !child.isPaintVolatile()) {
+            child.renderElement(ctx);
+            return;
+        }
+        Matrix4f matrix = ctx.getMatrices().peek().getPositionMatrix();
+        for (DisplayList list : BUFFER.sinks()) list.child(matrix, child);
+        List<DisplayList> detached = BUFFER.suspend();
+        try {
+            child.renderElement(ctx);
+        } finally {
+            BUFFER.resume(detached);
+        }
+    }
+
+    /**
+     * Tests a rect in GUI space under the context's current matrix against the clip of the pass.
+     * Never rejects while a display list records, the list may be replayed under another clip.
+     * @return true when nothing of the rect can be visible, the caller skips the draw
+     */
+    public static boolean rejects(DrawContext ctx, float x1, float y1, float x2, float y2) {
+        if (ctx == null || ctx != context || CLIP.isEmpty() || BUFFER.recording()) return false;
+        if (!CLIP.rejects(ctx.getMatrices().peek().getPositionMatrix(), x1, y1, x2, y2)) return false;
+        BUFFER.countRejected();
+        return true;
+    }
+
+    public static DrawCommandBuffer.FrameStats getLastFrameStats() {
+        return lastFrame;
+    }
+}
@@ -0,0 +1,155 @@
+package com.edgn.ui.core.renderer.font;
+
+import com.edgn.ui.core.renderer.FontRenderer;
+import com.edgn.ui.utils.DrawingUtils;
+import net.minecraft.client.gui.DrawContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A built-in 5x7 monospace font drawn with solid rects.
+ * <p>
+ * It needs neither the game's {@code TextRenderer} nor a texture, renders the same pixels on every
+ * machine and goes through the same path as the shapes, so it works on any render target. Meant
+ * for headless rendering, printable ASCII only, other characters are drawn as a hollow box.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class BitmapFontRenderer implements FontRenderer {
+    private static final int GLYPH_WIDTH = 5;
+    private static final int GLYPH_HEIGHT = 7;
+    private static final int ADVANCE = GLYPH_WIDTH + 1;
+    private static final int LINE_HEIGHT = 9;
+    private static final int FIRST = 0x20;
+    private static final int LAST = 0x7E;
+
+    /** Column major, bit 0 is the top row, five columns per glyph from {@code ' '} to {@code '~'}. */
+    private static final String GLYPHS =
+            "0000000000" + "00005F0000" + "0007000700" + "147F147F14" + "242A7F2A12" + "2313086462" +
+            "3649562050" + "0000070000" + "001C224100" + "0041221C00" + "14083E0814" + "08083E0808" +
+            "0050300000" + "0808080808" + "0060600000" + "2010080402" + "3E5149453E" + "00427F4000" +
+            "4261514946" + "2141454B31" + "1814127F10" + "2745454539" + "3C4A494930" + "0171090503" +
+            "3649494936" + "064949291E" + "0036360000" + "0056360000" + "0814224100" + "1414141414" +
+            "0041221408" + "0201510906" + "324979413E" + "7E1111117E" + "7F49494936" + "3E41414122" +
+            "7F4141221C" + "7F49494941" + "7F09090901" + "3E4149497A" + "7F0808087F" + "00417F4100" +
+            "2040413F01" + "7F08142241" + "7F40404040" + "7F020C027F" + "7F0408107F" + "3E4141413E" +
+            "7F09090906" + "3E4151215E" + "7F09192946" + "4649494931" + "01017F0101" + "3F4040403F" +
+            "1F2040201F" + "3F4038403F" + "6314081463" + "0708700807" + "6151494543" + "007F414100" +
+            "0204081020" + "0041417F00" + "0402010204" + "4040404040" + "0001020400" + "2054545478" +
+            "7F48444438" + "3844444420" + "384444487F" + "3854545418" + "087E090102" + "0C5252523E" +
+            "7F08040478" + "00447D4000" + "2040443D00" + "7F10284400" + "00417F4000" + "7C04180478" +
+            "7C08040478" + "3844444438" + "7C14141408" + "081414187C" + "7C08040408" + "4854545420" +
+            "043F444020" + "3C4040207C" + "1C2040201C" + "3C4030403C" + "4428102844" + "0C5050503C" +
+            "4464544C44" + "0008364100" + "00007F0000" + "0041360800" + "0804081008";
+
+    private static final byte[] COLUMNS = new byte[GLYPHS.length() / 2];
+    private static final BitmapFontRenderer INSTANCE = new BitmapFontRenderer();
+
+    static {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            COLUMNS[i] = (byte) Integer.parseInt(GLYPHS.substring(i * 2, i * 2 + 2), 16);
+        }
+    }
+
+    private BitmapFontRenderer() { /* stateless, see getInstance */ }
+
+    public static BitmapFontRenderer getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public int width(String text) {
+        return text == null ? 0 : text.codePointCount(0, text.length()) * ADVANCE;
+    }
+
+    @Override
+    public int lineHeight() {
+        return LINE_HEIGHT;
+    }
+
+    @Override
+    public int advance(int codePoint) {
+        return ADVANCE;
+    }
+
+    @Override
+    public void draw(DrawContext ctx, String text, int x, int y, int argb, boolean shadow) {
+        if (text == null || text.isEmpty()) return;
+        if ((argb & 0xFC000000) == 0) argb |= 0xFF000000;
+        if (shadow) drawRun(ctx, text, x + 1, y + 1, (argb & 0xFF000000) | ((argb & 0xFCFCFC) >> 2));
+        drawRun(ctx, text, x, y, argb);
+    }
+
+    @Override
+    public void drawGlyph(DrawContext ctx, int codePoint, int x, int y, int argb, boolean shadow, boolean bold) {
+        if (codePoint == ' ') return;
+        if ((argb & 0xFC000000) == 0) argb |= 0xFF000000;
+        if (shadow) {
+            int shadowColor = (argb & 0xFF000000) | ((argb & 0xFCFCFC) >> 2);
+            paintGlyph(ctx, codePoint, x + 1, y + 1, shadowColor);
+            if (bold) paintGlyph(ctx, codePoint, x + 2, y + 1, shadowColor);
+        }
+        paintGlyph(ctx, codePoint, x, y, argb);
+        if (bold) paintGlyph(ctx, codePoint, x + 1, y, argb);
+    }
+
+    @Override
+    public List<String> wrap(String text, int maxWidth) {
+        List<String> lines = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            lines.add("");
+            return lines;
+        }
+        int perLine = Math.max(1, maxWidth / ADVANCE);
+        for (String paragraph : text.split("\n", -1)) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.split(" ", -1)) {
+                int needed = line.isEmpty() ? word.length() : line.length() + 1 + word.length();
+                if (needed > perLine && !line.isEmpty()) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                }
+                if (!line.isEmpty()) line.append(' ');
+                while (word.length() > perLine) {
+                    lines.add(word.substring(0, perLine));
+                    word = word.substring(perLine);
+                }
+                line.append(word);
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private void drawRun(DrawContext ctx, String text, int x, int y, int color) {
+        int penX = x;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (cp != ' ') paintGlyph(ctx, cp, penX, y, color);
+            penX += ADVANCE;
+        }
+    }
+
+    /** Each row of a glyph is emitted as horizontal runs, the command buffer merges them further. */
+    private static void paintGlyph(DrawContext ctx, int cp, int x, int y, int color) {
+        if (cp < FIRST || cp > LAST) {
+            DrawingUtils.drawBorder(ctx, x, y, GLYPH_WIDTH, GLYPH_HEIGHT, color, 1);
+            return;
+        }
+        int base = (cp - FIRST) * GLYPH_WIDTH;
+        for (int row = 0; row < GLYPH_HEIGHT; row++) {
+            int start = -1;
+            for (int col = 0; col <= GLYPH_WIDTH; col++) {
+                boolean set = col < GLYPH_WIDTH && (COLUMNS[base + col] & (1 << row)) != 0;
+                if (set && start < 0) {
+                    start = col;
+                } else if (!set && start >= 0) {
+                    DrawingUtils.fillRect(ctx, x + start, y + row, col - start, 1, color);
+                    start = -1;
+                }
+            }
+        }
+    }
+}
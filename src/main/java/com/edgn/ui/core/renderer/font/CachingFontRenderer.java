@@ -0,0 +1,158 @@
+package com.edgn.ui.core.renderer.font;
+
+import com.edgn.ui.core.renderer.FontRenderer;
+import net.minecraft.client.gui.DrawContext;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memoizes the measurements of another font.
+ * <p>
+ * Advances of the basic multilingual plane live in a dense table filled on first use, string
+ * widths in a bounded LRU keyed by the string. Components measure the same labels every frame for
+ * alignment, truncation and decorations, with the cache that is a map lookup instead of a walk
+ * through the game's glyph providers.
+ * <p>
+ * Every instance is dropped by {@link #invalidateAll()}, which runs on resource reload and must be
+ * called by anything that changes the glyphs of a font in place. Drawing and wrapping go straight
+ * to the wrapped font. Render thread only.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class CachingFontRenderer implements FontRenderer {
+    private static final int WIDTH_CACHE_SIZE = 2048;
+    private static volatile int generation = 0;
+    private static CachingFontRenderer defaultInstance;
+
+    private final FontRenderer delegate;
+    /** Advance + 1 per BMP code point, 0 when not measured yet. */
+    private final int[] advances = new int[0x10000];
+    private final Map<String, Integer> widths = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > WIDTH_CACHE_SIZE;
+        }
+    };
+    private int seenGeneration = generation;
+    private int lineHeight = -1;
+    private long hits = 0;
+    private long misses = 0;
+
+    public CachingFontRenderer(FontRenderer delegate) {
+        if (delegate == null) throw new IllegalArgumentException("Font can't be null");
+        this.delegate = delegate instanceof CachingFontRenderer caching ? caching.delegate : delegate;
+    }
+
+    /**
+     * The game font behind a cache, shared by every component created without a font
+     */
+    public static synchronized CachingFontRenderer getDefault() {
+        if (defaultInstance == null) defaultInstance = new CachingFontRenderer(new MinecraftFontRenderer());
+        return defaultInstance;
+    }
+
+    /**
+     * Forgets every measurement of every instance, they are taken again on next use
+     */
+    public static void invalidateAll() {
+        generation++;
+    }
+
+    /**
+     * @return a number that changes on every {@link #invalidateAll()}, for caches built on measurements
+     */
+    public static int generation() {
+        return generation;
+    }
+
+    public FontRenderer getDelegate() { return delegate; }
+
+    @Override
+    public int width(String text) {
+        if (text == null) return delegate.width(null);
+        if (text.isEmpty()) return 0;
+        validate();
+        Integer cached = widths.get(text);
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+        misses++;
+        int width = delegate.width(text);
+        widths.put(text, width);
+        return width;
+    }
+
+    @Override
+    public int lineHeight() {
+        validate();
+        if (lineHeight < 0) lineHeight = delegate.lineHeight();
+        return lineHeight;
+    }
+
+    @Override
+    public void draw(DrawContext ctx, String text, int x, int y, int argb, boolean shadow) {
+        delegate.draw(ctx, text, x, y, argb, shadow);
+    }
+
+    @Override
+    public void drawGlyph(DrawContext ctx, int codePoint, int x, int y, int argb, boolean shadow, boolean bold) {
+        delegate.drawGlyph(ctx, codePoint, x, y, argb, shadow, bold);
+    }
+
+    @Override
+    public List<String> wrap(String text, int maxWidth) {
+        return delegate.wrap(text, maxWidth);
+    }
+
+    @Override
+    public int advance(int codePoint) {
+        if (codePoint < 0 || codePoint >= advances.length) return delegate.advance(codePoint);
+        validate();
+        int cached = advances[codePoint];
+        if (cached != 0) {
+            hits++;
+            return cached - 1;
+        }
+        misses++;
+        int advance = delegate.advance(codePoint);
+        advances[codePoint] = advance + 1;
+        return advance;
+    }
+
+    /**
+     * @return the lookups served from the cache and those measured since the last reset
+     */
+    public Stats getStats() {
+        return new Stats(hits, misses, widths.size());
+    }
+
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+    }
+
+    private void validate() {
+        int current = generation;
+        if (current == seenGeneration) return;
+        seenGeneration = current;
+        Arrays.fill(advances, 0);
+        widths.clear();
+        lineHeight = -1;
+    }
+
+    /**
+     * @param hits lookups answered from the cache
+     * @param misses lookups that measured with the wrapped font
+     * @param cachedWidths strings currently held by the width cache
+     */
+    public record Stats(long hits, long misses, int cachedWidths) {
+        public float hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0f : hits / (float) total;
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package com.edgn.ui.core.renderer.font;
 
 import com.edgn.ui.core.renderer.FontRenderer;
+import com.edgn.ui.core.renderer.batch.RenderPass;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.font.TextRenderer;
 import net.minecraft.client.gui.DrawContext;
-import net.minecraft.text.Text;
+import net.minecraft.text.CharacterVisitor;
+import net.minecraft.text.OrderedText;
+import net.minecraft.text.Style;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public final class MinecraftFontRenderer implements FontRenderer {
+    private static final Style BOLD = Style.EMPTY.withBold(true);
+
     private final TextRenderer tr;
+    private final Glyph glyph = new Glyph();
 
     public MinecraftFontRenderer(TextRenderer tr) { this.tr = tr; }
     public MinecraftFontRenderer() { this(MinecraftClient.getInstance().textRenderer); }
@@ -20,23 +26,56 @@ public final class MinecraftFontRenderer implements FontRenderer {
 
     @Override
     public void draw(DrawContext ctx, String text, int x, int y, int argb, boolean shadow) {
+        if (RenderPass.rejects(ctx, x - 1, y - 1, x + tr.getWidth(text) + 1, y + tr.fontHeight + 1)) return;
+        RenderPass.flush(ctx);
+        RenderPass.recordText(ctx, this, text, x, y, argb, shadow);
         ctx.drawText(tr, text, x, y, argb, shadow);
     }
 
+    /**
+     * Splits with the game's line breaker, lines are substrings of the text, cut at the indices it
+     * reports
+     */
     @Override
     public List<String> wrap(String text, int maxWidth) {
-        var ordered = tr.wrapLines(Text.literal(text), maxWidth);
-        var out = new ArrayList<String>(ordered.size());
-        for (var ot : ordered) {
-            var sb = new StringBuilder();
-            ot.accept((i, style, cp) -> { sb.append(Character.toChars(cp)); return true; });
-            out.add(sb.toString());
-        }
+        List<String> out = new ArrayList<>();
+        tr.getTextHandler().wrapLines(text, maxWidth, Style.EMPTY, false,
+                (style, start, end) -> out.add(text.substring(start, end)));
+        if (out.isEmpty()) out.add(text);
         return out;
     }
 
+    /**
+     * Draws the code point through a reused {@link OrderedText}, bold is the game's own bold style
+     */
+    @Override
+    public void drawGlyph(DrawContext ctx, int codePoint, int x, int y, int argb, boolean shadow, boolean bold) {
+        int advance = tr.getWidth(glyph.set(codePoint, Style.EMPTY));
+        if (RenderPass.rejects(ctx, x - 1, y - 1, x + advance + 2, y + tr.fontHeight + 1)) return;
+        RenderPass.flush(ctx);
+        RenderPass.recordGlyph(ctx, this, codePoint, x, y, argb, shadow, bold);
+        ctx.drawText(tr, glyph.set(codePoint, bold ? BOLD : Style.EMPTY), x, y, argb, shadow);
+    }
+
     @Override
     public int advance(int codePoint) {
-        return tr.getWidth(new String(Character.toChars(codePoint)));
+        return tr.getWidth(glyph.set(codePoint, Style.EMPTY));
+    }
+
+    /** A one code point text, render thread only, set right before each use. */
+    private static final class Glyph implements OrderedText {
+        private int codePoint;
+        private Style style = Style.EMPTY;
+
+        private Glyph set(int codePoint, Style style) {
+            this.codePoint = codePoint;
+            this.style = style;
+            return this;
+        }
+
+        @Override
+        public boolean accept(CharacterVisitor visitor) {
+            return visitor.accept(0, style, codePoint);
+        }
     }
 }
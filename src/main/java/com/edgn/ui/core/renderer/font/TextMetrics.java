@@ -0,0 +1,105 @@
+package com.edgn.ui.core.renderer.font;
+
+import com.edgn.ui.core.renderer.FontRenderer;
+
+/**
+ * The horizontal layout of one line of text: the pixel offset of every column, measured once.
+ * <p>
+ * {@code prefix[i]} is the width of the first {@code i} chars, the sum of the font's advances, so
+ * mapping a column to a pixel is an array read and a pixel to a column a binary search, without
+ * measuring substrings. Both halves of a surrogate pair map to the right edge of the pair, a
+ * column inside a pair is never returned for a pixel. Formatting codes are not interpreted, the
+ * widths are those of the plain text.
+ * <p>
+ * Immutable, keep it for as long as the line and the font don't change.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class TextMetrics {
+    private final FontRenderer font;
+    private final String text;
+    private final int[] prefix;
+
+    private TextMetrics(FontRenderer font, String text, int[] prefix) {
+        this.font = font;
+        this.text = text;
+        this.prefix = prefix;
+    }
+
+    public static TextMetrics of(FontRenderer font, String text) {
+        if (text == null) text = "";
+        int n = text.length();
+        int[] prefix = new int[n + 1];
+        int x = 0;
+        int i = 0;
+        while (i < n) {
+            int cp = text.codePointAt(i);
+            x += font.advance(cp);
+            int len = Character.charCount(cp);
+            for (int k = 1; k <= len; k++) prefix[i + k] = x;
+            i += len;
+        }
+        return new TextMetrics(font, text, prefix);
+    }
+
+    public FontRenderer getFont() { return font; }
+
+    public String text() { return text; }
+
+    public int length() { return text.length(); }
+
+    /**
+     * @return the width of the whole line
+     */
+    public int width() {
+        return prefix[prefix.length - 1];
+    }
+
+    /**
+     * @return the pixel offset of a column from the start of the line, the column is clamped
+     */
+    public int x(int column) {
+        return prefix[Math.clamp(column, 0, prefix.length - 1)];
+    }
+
+    /**
+     * @return the width of the chars between two columns, in any order
+     */
+    public int width(int from, int to) {
+        return Math.abs(x(to) - x(from));
+    }
+
+    /**
+     * @return the last column whose offset is at most {@code px}, 0 left of the line and the
+     * length right of it
+     */
+    public int columnAt(int px) {
+        if (px < 0) return 0;
+        int lo = 0;
+        int hi = prefix.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (prefix[mid] <= px) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * @return the column closest to {@code px}, what a click on a char boundary should pick
+     */
+    public int nearestColumn(int px) {
+        int column = columnAt(px);
+        if (column >= text.length()) return column;
+        int next = column + 1;
+        if (next < text.length() && Character.isLowSurrogate(text.charAt(next))) next++;
+        return px - prefix[column] > prefix[next] - px ? next : column;
+    }
+
+    /**
+     * @return how many chars fit in {@code maxWidth} pixels
+     */
+    public int fit(int maxWidth) {
+        return columnAt(maxWidth);
+    }
+}
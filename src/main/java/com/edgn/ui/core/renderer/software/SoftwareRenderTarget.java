@@ -0,0 +1,344 @@
+package com.edgn.ui.core.renderer.software;
+
+import com.edgn.ui.core.renderer.RenderTarget;
+import com.edgn.ui.core.renderer.batch.DrawCommandBuffer;
+import com.edgn.ui.core.renderer.batch.RenderPass;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.VertexConsumerProvider;
+import net.minecraft.util.Identifier;
+import org.joml.Matrix4f;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A pure Java rasterizer drawing into an {@code int[]} ARGB framebuffer, one pixel per GUI unit.
+ * <p>
+ * Rects, gradients and quads are sampled at pixel centers with a top-left fill rule, so shapes
+ * sharing an edge never blend a pixel twice, and blended source-over in straight alpha. Output only
+ * depends on the commands received, which makes it usable for golden-image comparisons and for
+ * benchmarking the UI code without a GPU:
+ * <pre>{@code
+ * TextComponent.setDefaultFontProvider(BitmapFontRenderer::getInstance);
+ * new SoftwareRenderTarget(320, 240).render(container::renderElement).writePng(path);
+ * }</pre>
+ * Textures are not supported, image helpers draw nothing on this target.
+ * <p>
+ * With {@link #setBatched(boolean)} primitives go through a {@link DrawCommandBuffer} first, merged
+ * and flushed exactly as in game, and each batch is rasterized when uploaded. The pixels are the
+ * same, {@link #getFrameStats()} then reports the counters the game would see for the same frame.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class SoftwareRenderTarget implements RenderTarget {
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+
+    private int[] clips = new int[4 * 8];
+    private int clipDepth = 0;
+
+    private DrawCommandBuffer buffer = null;
+    private DrawCommandBuffer.FrameStats frameStats = DrawCommandBuffer.FrameStats.EMPTY;
+
+    public SoftwareRenderTarget(int width, int height) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Invalid framebuffer size " + width + "x" + height);
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+        resetClip();
+    }
+
+    /**
+     * Renders with this target as the destination of a {@link RenderPass}. The context handed to
+     * the painter only carries a matrix stack, anything calling it directly instead of going through
+     * the pass (vanilla text, widgets) will fail.
+     */
+    public SoftwareRenderTarget render(Consumer<DrawContext> painter) {
+        DrawContext context = new DrawContext((MinecraftClient) null, (VertexConsumerProvider.Immediate) null);
+        if (buffer != null) {
+            buffer.clear();
+            buffer.resetStats();
+        }
+        RenderPass.begin(context, this);
+        try {
+            painter.accept(context);
+        } finally {
+            RenderPass.end(context);
+            resetClip();
+        }
+        if (buffer != null) {
+            DrawCommandBuffer.FrameStats recorded = buffer.snapshotStats();
+            frameStats = new DrawCommandBuffer.FrameStats(recorded.primitives(), recorded.quads(),
+                    recorded.drawCalls(), RenderPass.getLastFrameStats().rejected());
+        }
+        return this;
+    }
+
+    /**
+     * Records through a {@link DrawCommandBuffer} before rasterizing, to count what a frame costs in game
+     */
+    public SoftwareRenderTarget setBatched(boolean batched) {
+        if (batched == isBatched()) return this;
+        buffer = batched ? new DrawCommandBuffer(new Rasterizer()) : null;
+        frameStats = DrawCommandBuffer.FrameStats.EMPTY;
+        return this;
+    }
+
+    public boolean isBatched() {
+        return buffer != null;
+    }
+
+    /**
+     * @return the counters of the last {@link #render} of a batched target, empty otherwise
+     */
+    public DrawCommandBuffer.FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    @Override public int width() { return width; }
+    @Override public int height() { return height; }
+
+    @Override
+    public boolean supportsTextures() {
+        return false;
+    }
+
+    public void clear(int argb) {
+        Arrays.fill(pixels, argb);
+    }
+
+    public int getPixel(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+    /**
+     * @return the framebuffer itself, row major, not a copy
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    @Override
+    public void fill(Matrix4f m, float x0, float y0, float x1, float y1, int color) {
+        if (buffer != null) {
+            buffer.rect(m, x0, y0, x1, y1, color);
+            return;
+        }
+        if ((color >>> 24) == 0) return;
+        if (!isAxisAligned(m)) {
+            quad(m, x0, y0, x0, y1, x1, y1, x1, y0, color, color, color, color);
+            return;
+        }
+        int px0 = pixel(Math.min(tx(m, x0, y0), tx(m, x1, y1)));
+        int px1 = pixel(Math.max(tx(m, x0, y0), tx(m, x1, y1)));
+        int py0 = pixel(Math.min(ty(m, x0, y0), ty(m, x1, y1)));
+        int py1 = pixel(Math.max(ty(m, x0, y0), ty(m, x1, y1)));
+        int c = clipDepth * 4;
+        px0 = Math.max(px0, clips[c]);
+        py0 = Math.max(py0, clips[c + 1]);
+        px1 = Math.min(px1, clips[c + 2]);
+        py1 = Math.min(py1, clips[c + 3]);
+        for (int y = py0; y < py1; y++) {
+            int row = y * width;
+            for (int x = px0; x < px1; x++) blend(row + x, color);
+        }
+    }
+
+    @Override
+    public void fillGradient(Matrix4f m, float x0, float y0, float x1, float y1, int top, int bottom) {
+        if (buffer != null) {
+            buffer.gradient(m, x0, y0, x1, y1, top, bottom);
+            return;
+        }
+        if (top == bottom) {
+            fill(m, x0, y0, x1, y1, top);
+            return;
+        }
+        quad(m, x0, y0, x0, y1, x1, y1, x1, y0, top, bottom, bottom, top);
+    }
+
+    @Override
+    public void quad(Matrix4f m,
+                     float ax, float ay, float bx, float by, float cx, float cy, float dx, float dy,
+                     int colorA, int colorB, int colorC, int colorD) {
+        if (buffer != null) {
+            buffer.quad(m, ax, ay, bx, by, cx, cy, dx, dy, colorA, colorB, colorC, colorD);
+            return;
+        }
+        float sax = tx(m, ax, ay), say = ty(m, ax, ay);
+        float sbx = tx(m, bx, by), sby = ty(m, bx, by);
+        float scx = tx(m, cx, cy), scy = ty(m, cx, cy);
+        float sdx = tx(m, dx, dy), sdy = ty(m, dx, dy);
+        triangle(sax, say, colorA, sbx, sby, colorB, scx, scy, colorC);
+        triangle(sax, say, colorA, scx, scy, colorC, sdx, sdy, colorD);
+    }
+
+    @Override
+    public void pushScissor(Matrix4f m, int x1, int y1, int x2, int y2) {
+        flush();
+        int c = clipDepth * 4;
+        int nx0 = Math.max(clips[c], pixel(Math.min(tx(m, x1, y1), tx(m, x2, y2))));
+        int ny0 = Math.max(clips[c + 1], pixel(Math.min(ty(m, x1, y1), ty(m, x2, y2))));
+        int nx1 = Math.min(clips[c + 2], pixel(Math.max(tx(m, x1, y1), tx(m, x2, y2))));
+        int ny1 = Math.min(clips[c + 3], pixel(Math.max(ty(m, x1, y1), ty(m, x2, y2))));
+        if (c + 8 > clips.length) clips = Arrays.copyOf(clips, clips.length * 2);
+        clipDepth++;
+        c += 4;
+        clips[c] = nx0;
+        clips[c + 1] = ny0;
+        clips[c + 2] = Math.max(nx0, nx1);
+        clips[c + 3] = Math.max(ny0, ny1);
+    }
+
+    @Override
+    public void popScissor() {
+        flush();
+        if (clipDepth > 0) clipDepth--;
+    }
+
+    @Override
+    public void flush() {
+        // unbatched targets rasterize every command as it arrives
+        if (buffer != null) buffer.flush();
+    }
+
+    public BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+        return image;
+    }
+
+    public void writePng(OutputStream out) throws IOException {
+        if (!ImageIO.write(toImage(), "png", out)) throw new IOException("No PNG writer available");
+    }
+
+    public void writePng(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            writePng(out);
+        }
+    }
+
+    private void resetClip() {
+        clipDepth = 0;
+        clips[0] = 0;
+        clips[1] = 0;
+        clips[2] = width;
+        clips[3] = height;
+    }
+
+    private void rasterQuad(float[] positions, int p, int[] colors, int c) {
+        float ax = positions[p], ay = positions[p + 1];
+        float bx = positions[p + 3], by = positions[p + 4];
+        float cx = positions[p + 6], cy = positions[p + 7];
+        float dx = positions[p + 9], dy = positions[p + 10];
+        triangle(ax, ay, colors[c], bx, by, colors[c + 1], cx, cy, colors[c + 2]);
+        triangle(ax, ay, colors[c], cx, cy, colors[c + 2], dx, dy, colors[c + 3]);
+    }
+
+    private void triangle(float x0, float y0, int c0, float x1, float y1, int c1, float x2, float y2, int c2) {
+        float area = edge(x0, y0, x1, y1, x2, y2);
+        if (area == 0) return;
+        if (area < 0) {
+            float tx = x1; x1 = x2; x2 = tx;
+            float ty = y1; y1 = y2; y2 = ty;
+            int tc = c1; c1 = c2; c2 = tc;
+            area = -area;
+        }
+        boolean solid = c0 == c1 && c0 == c2;
+        if (solid && (c0 >>> 24) == 0) return;
+
+        int c = clipDepth * 4;
+        int minX = Math.max(clips[c], pixel(Math.min(x0, Math.min(x1, x2))));
+        int minY = Math.max(clips[c + 1], pixel(Math.min(y0, Math.min(y1, y2))));
+        int maxX = Math.min(clips[c + 2], pixel(Math.max(x0, Math.max(x1, x2))));
+        int maxY = Math.min(clips[c + 3], pixel(Math.max(y0, Math.max(y1, y2))));
+
+        boolean inc0 = includesTies(x1, y1, x2, y2);
+        boolean inc1 = includesTies(x2, y2, x0, y0);
+        boolean inc2 = includesTies(x0, y0, x1, y1);
+        for (int y = minY; y < maxY; y++) {
+            float py = y + 0.5f;
+            int row = y * width;
+            for (int x = minX; x < maxX; x++) {
+                float px = x + 0.5f;
+                float w0 = edge(x1, y1, x2, y2, px, py);
+                float w1 = edge(x2, y2, x0, y0, px, py);
+                float w2 = edge(x0, y0, x1, y1, px, py);
+                if (w0 < 0 || w1 < 0 || w2 < 0) continue;
+                if ((w0 == 0 && !inc0) || (w1 == 0 && !inc1) || (w2 == 0 && !inc2)) continue;
+                blend(row + x, solid ? c0 : mix(c0, c1, c2, w0 / area, w1 / area, w2 / area));
+            }
+        }
+    }
+
+    /** Of the two triangles sharing an edge, only the one walking it in this direction owns its pixels. */
+    private static boolean includesTies(float ax, float ay, float bx, float by) {
+        float dy = by - ay;
+        return dy > 0 || (dy == 0 && bx < ax);
+    }
+
+    private static float edge(float ax, float ay, float bx, float by, float px, float py) {
+        return (px - ax) * (by - ay) - (py - ay) * (bx - ax);
+    }
+
+    private static int mix(int c0, int c1, int c2, float w0, float w1, float w2) {
+        int a = Math.round(((c0 >>> 24) * w0) + ((c1 >>> 24) * w1) + ((c2 >>> 24) * w2));
+        int r = Math.round((((c0 >> 16) & 0xFF) * w0) + (((c1 >> 16) & 0xFF) * w1) + (((c2 >> 16) & 0xFF) * w2));
+        int g = Math.round((((c0 >> 8) & 0xFF) * w0) + (((c1 >> 8) & 0xFF) * w1) + (((c2 >> 8) & 0xFF) * w2));
+        int b = Math.round(((c0 & 0xFF) * w0) + ((c1 & 0xFF) * w1) + ((c2 & 0xFF) * w2));
+        return (clamp(a) << 24) | (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+    }
+
+    private static int clamp(int v) {
+        return Math.clamp(v, 0, 255);
+    }
+
+    private void blend(int index, int src) {
+        int sa = src >>> 24;
+        if (sa == 0) return;
+        if (sa == 255) {
+            pixels[index] = src;
+            return;
+        }
+        int dst = pixels[index];
+        int da = (dst >>> 24) * (255 - sa) / 255;
+        int oa = sa + da;
+        int r = (((src >> 16) & 0xFF) * sa + ((dst >> 16) & 0xFF) * da) / oa;
+        int g = (((src >> 8) & 0xFF) * sa + ((dst >> 8) & 0xFF) * da) / oa;
+        int b = ((src & 0xFF) * sa + (dst & 0xFF) * da) / oa;
+        pixels[index] = (oa << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /** The first pixel whose center lies at or after this coordinate. */
+    private static int pixel(float v) {
+        return (int) Math.ceil(v - 0.5f);
+    }
+
+    private static boolean isAxisAligned(Matrix4f m) {
+        return m.m10() == 0 && m.m01() == 0;
+    }
+
+    private static float tx(Matrix4f m, float x, float y) { return m.m00() * x + m.m10() * y + m.m30(); }
+    private static float ty(Matrix4f m, float x, float y) { return m.m01() * x + m.m11() * y + m.m31(); }
+
+    /** Rasterizes the batches of the buffer, positions are already in framebuffer space. */
+    private final class Rasterizer implements DrawCommandBuffer.Uploader {
+        @Override
+        public void quads(float[] positions, int[] colors, int count) {
+            for (int q = 0; q < count; q++) rasterQuad(positions, q * 12, colors, q * 4);
+        }
+
+        @Override
+        public void sprites(Identifier texture, float[] positions, float[] uvs, int[] colors, int count) {
+            // textures are not supported, see supportsTextures
+        }
+    }
+}
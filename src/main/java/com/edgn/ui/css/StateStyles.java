@@ -0,0 +1,77 @@
+package com.edgn.ui.css;
+
+import com.edgn.ui.core.item.BaseItem.ItemState;
+import com.edgn.ui.css.values.ActiveEffect;
+import com.edgn.ui.css.values.HoverEffect;
+import com.edgn.ui.utils.ColorUtils;
+import com.edgn.ui.utils.DrawingUtils;
+
+import java.util.List;
+
+/**
+ * The resolved styles of a class set for every {@link ItemState}.
+ * Built once per theme and class set (see {@link Theme#resolveStates}), widgets index it by state
+ * instead of brightening, darkening or fading colors every frame.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class StateStyles {
+    private static final ItemState[] STATES = ItemState.values();
+
+    private final CSSStyleApplier.ComputedStyles[] styles = new CSSStyleApplier.ComputedStyles[STATES.length];
+    private final int[] backgrounds = new int[STATES.length];
+    private final float[] scales = new float[STATES.length];
+
+    StateStyles(Theme theme, StyleSet base, List<StyleSet> stateClasses, int fallbackBackground) {
+        for (ItemState state : STATES) {
+            int i = state.ordinal();
+            StyleSet extra = stateClasses.get(i);
+            StyleSet classes = base;
+            if (!extra.isEmpty()) {
+                classes = base.copy().addAll(extra);
+            }
+
+            CSSStyleApplier.ComputedStyles computed = theme.resolve(classes);
+            styles[i] = computed;
+
+            int bg = computed.getBackgroundColor();
+            if (bg == 0) bg = fallbackBackground;
+            backgrounds[i] = backgroundFor(theme, state, classes, bg);
+            scales[i] = scaleFor(theme, state, classes);
+        }
+    }
+
+    private static int backgroundFor(Theme theme, ItemState state, StyleSet classes, int bg) {
+        return switch (state) {
+            case HOVERED -> DrawingUtils.lighten(bg, classes.contains(StyleKey.HOVER_BRIGHTEN)
+                    ? theme.getHoverBrightenRatio() : theme.getHoverRatio());
+            case PRESSED -> DrawingUtils.darken(bg, theme.getPressedRatio());
+            case FOCUSED -> classes.contains(StyleKey.FOCUS_RING) ? ColorUtils.NamedColor.ALICEBLUE.toInt() : bg;
+            case ACTIVE -> DrawingUtils.lighten(bg, theme.getActiveRatio());
+            case DISABLED -> DrawingUtils.multiplyAlpha(bg, theme.getDisabledAlpha());
+            default -> bg;
+        };
+    }
+
+    private static float scaleFor(Theme theme, ItemState state, StyleSet classes) {
+        if (state == ItemState.HOVERED && classes.contains(StyleKey.HOVER_SCALE)) {
+            return theme.get(StyleKey.HOVER_SCALE) instanceof Float f ? f : HoverEffect.SCALE.value;
+        }
+        if (state == ItemState.PRESSED && classes.contains(StyleKey.ACTIVE_SCALE)) {
+            return theme.get(StyleKey.ACTIVE_SCALE) instanceof Float f ? f : ActiveEffect.SCALE.value;
+        }
+        return 1.0f;
+    }
+
+    public CSSStyleApplier.ComputedStyles get(ItemState state) {
+        return styles[state.ordinal()];
+    }
+
+    public int background(ItemState state) {
+        return backgrounds[state.ordinal()];
+    }
+
+    public float scale(ItemState state) {
+        return scales[state.ordinal()];
+    }
+}
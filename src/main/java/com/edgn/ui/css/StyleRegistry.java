@@ -0,0 +1,65 @@
+package com.edgn.ui.css;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The shared, immutable side of the style system.
+ * Themes and their interned computed styles live here once for the whole game, every screen's
+ * {@link UIStyleSystem} only keeps its mutable state (event manager, theme override) and reads
+ * the rest from this registry, so opening a screen no longer rebuilds any style data.
+ * <p>
+ * Built once from {@code EdgnScreenLib.onInitialize}, thread-safe afterward.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class StyleRegistry {
+    private static final Map<String, Theme> THEMES = new ConcurrentHashMap<>();
+    private static volatile Theme defaultTheme = Theme.DEFAULT;
+    private static volatile int generation = 0;
+    private static volatile boolean initialized = false;
+
+    private StyleRegistry() { /* utility class */ }
+
+    /**
+     * Registers the built-in theme and warms their caches up, calling it again does nothing
+     */
+    public static synchronized void initialize() {
+        if (initialized) return;
+        register(Theme.DEFAULT);
+
+        StyleSet empty = new StyleSet();
+        for (Theme theme : THEMES.values()) theme.resolve(empty);
+        initialized = true;
+    }
+
+    public static boolean isInitialized() { return initialized; }
+
+    public static void register(Theme theme) {
+        if (theme != null) THEMES.put(theme.getName(), theme);
+    }
+
+    public static Theme get(String name) {
+        return THEMES.get(name);
+    }
+
+    public static Collection<Theme> getThemes() {
+        return Collections.unmodifiableCollection(THEMES.values());
+    }
+
+    public static Theme getDefaultTheme() { return defaultTheme; }
+
+    /**
+     * Changes the theme of every screen that did not override it, they refresh lazily
+     */
+    public static void setDefaultTheme(Theme theme) {
+        if (theme == null || theme == defaultTheme) return;
+        register(theme);
+        defaultTheme = theme;
+        generation++;
+    }
+
+    public static int getGeneration() { return generation; }
+}
@@ -0,0 +1,139 @@
+package com.edgn.ui.css;
+
+import java.util.BitSet;
+import java.util.EnumSet;
+
+/**
+ * The classes of an element as a single bitset, {@link StyleKey} ordinals come first and
+ * interned {@link StyleToken} ids follow. Equality and hashing only depend on the bits, which
+ * lets themes intern computed styles per set whatever mix of keys and tokens it holds.
+ * <p>
+ * A set holds at most one token per {@link StyleToken.Property}, adding a token replaces the
+ * previous one of the same property.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class StyleSet {
+    private static final StyleKey[] KEYS = StyleKey.values();
+    private static final int TOKEN_OFFSET = KEYS.length;
+
+    private final BitSet bits;
+
+    public StyleSet() {
+        this.bits = new BitSet(TOKEN_OFFSET);
+    }
+
+    private StyleSet(BitSet bits) {
+        this.bits = bits;
+    }
+
+    public static StyleSet of(StyleKey... keys) {
+        StyleSet set = new StyleSet();
+        for (StyleKey key : keys) set.add(key);
+        return set;
+    }
+
+    public StyleSet add(StyleKey key) {
+        bits.set(key.ordinal());
+        return this;
+    }
+
+    public StyleSet add(StyleToken token) {
+        StyleToken previous = token(token.getProperty());
+        if (previous != null) bits.clear(TOKEN_OFFSET + previous.getId());
+        bits.set(TOKEN_OFFSET + token.getId());
+        return this;
+    }
+
+    public StyleSet addAll(StyleSet other) {
+        if (!other.hasTokens()) {
+            bits.or(other.bits);
+            return this;
+        }
+        for (int i = other.bits.nextSetBit(0); i >= 0 && i < TOKEN_OFFSET; i = other.bits.nextSetBit(i + 1)) {
+            bits.set(i);
+        }
+        for (int i = other.bits.nextSetBit(TOKEN_OFFSET); i >= 0; i = other.bits.nextSetBit(i + 1)) {
+            add(StyleToken.byId(i - TOKEN_OFFSET));
+        }
+        return this;
+    }
+
+    public StyleSet remove(StyleKey key) {
+        bits.clear(key.ordinal());
+        return this;
+    }
+
+    public StyleSet remove(StyleToken token) {
+        bits.clear(TOKEN_OFFSET + token.getId());
+        return this;
+    }
+
+    public StyleSet remove(StyleToken.Property property) {
+        StyleToken token = token(property);
+        if (token != null) remove(token);
+        return this;
+    }
+
+    public boolean contains(StyleKey key) {
+        return bits.get(key.ordinal());
+    }
+
+    public boolean contains(StyleToken token) {
+        return bits.get(TOKEN_OFFSET + token.getId());
+    }
+
+    /**
+     * @return the token set for this property, or null, only scans the token bits
+     */
+    public StyleToken token(StyleToken.Property property) {
+        for (int i = bits.nextSetBit(TOKEN_OFFSET); i >= 0; i = bits.nextSetBit(i + 1)) {
+            StyleToken token = StyleToken.byId(i - TOKEN_OFFSET);
+            if (token != null && token.getProperty() == property) return token;
+        }
+        return null;
+    }
+
+    public boolean hasTokens() {
+        return bits.length() > TOKEN_OFFSET;
+    }
+
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    public StyleSet copy() {
+        return new StyleSet((BitSet) bits.clone());
+    }
+
+    /**
+     * @return the enum keys of this set, tokens are left out
+     */
+    public EnumSet<StyleKey> keys() {
+        EnumSet<StyleKey> keys = EnumSet.noneOf(StyleKey.class);
+        for (int i = bits.nextSetBit(0); i >= 0 && i < TOKEN_OFFSET; i = bits.nextSetBit(i + 1)) {
+            keys.add(KEYS[i]);
+        }
+        return keys;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof StyleSet other && bits.equals(other.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return bits.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(i < TOKEN_OFFSET ? KEYS[i] : StyleToken.byId(i - TOKEN_OFFSET));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.edgn.ui.css;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A style class carrying an arbitrary value, such as {@code padding(13)} or {@code basis(0.42f)},
+ * for values that fall between the fixed {@link StyleKey} steps.
+ * <p>
+ * Tokens are interned in a global pool, the same property and value always give the same instance
+ * and each instance gets a small, stable id. That id is what a {@link StyleSet} stores, right after
+ * the {@link StyleKey} ordinals, so tokens cost one bit per element like any other class.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class StyleToken {
+    public enum Property {
+        PADDING, PADDING_TOP, PADDING_RIGHT, PADDING_BOTTOM, PADDING_LEFT,
+        MARGIN, MARGIN_TOP, MARGIN_RIGHT, MARGIN_BOTTOM, MARGIN_LEFT,
+        GAP, ROUNDED, FLEX_GROW, FLEX_SHRINK, FLEX_BASIS
+    }
+
+    private static final Map<Long, StyleToken> POOL = new ConcurrentHashMap<>();
+    private static final Object LOCK = new Object();
+    private static volatile StyleToken[] byId = new StyleToken[16];
+    private static int count = 0;
+
+    private final int id;
+    private final Property property;
+    private final int value;
+
+    private StyleToken(int id, Property property, int value) {
+        this.id = id;
+        this.property = property;
+        this.value = value;
+    }
+
+    public static StyleToken of(Property property, int value) {
+        long key = ((long) property.ordinal() << 32) | (value & 0xFFFFFFFFL);
+        StyleToken token = POOL.get(key);
+        if (token != null) return token;
+
+        synchronized (LOCK) {
+            token = POOL.get(key);
+            if (token != null) return token;
+
+            StyleToken[] table = byId;
+            if (count == table.length) {
+                StyleToken[] grown = new StyleToken[table.length * 2];
+                System.arraycopy(table, 0, grown, 0, count);
+                table = grown;
+            }
+            token = new StyleToken(count, property, value);
+            table[count++] = token;
+            byId = table;
+            POOL.put(key, token);
+            return token;
+        }
+    }
+
+    public static StyleToken padding(int px) { return of(Property.PADDING, px); }
+    public static StyleToken paddingTop(int px) { return of(Property.PADDING_TOP, px); }
+    public static StyleToken paddingRight(int px) { return of(Property.PADDING_RIGHT, px); }
+    public static StyleToken paddingBottom(int px) { return of(Property.PADDING_BOTTOM, px); }
+    public static StyleToken paddingLeft(int px) { return of(Property.PADDING_LEFT, px); }
+
+    public static StyleToken margin(int px) { return of(Property.MARGIN, px); }
+    public static StyleToken marginTop(int px) { return of(Property.MARGIN_TOP, px); }
+    public static StyleToken marginRight(int px) { return of(Property.MARGIN_RIGHT, px); }
+    public static StyleToken marginBottom(int px) { return of(Property.MARGIN_BOTTOM, px); }
+    public static StyleToken marginLeft(int px) { return of(Property.MARGIN_LEFT, px); }
+
+    public static StyleToken gap(int px) { return of(Property.GAP, px); }
+    public static StyleToken rounded(int px) { return of(Property.ROUNDED, px); }
+    public static StyleToken grow(int factor) { return of(Property.FLEX_GROW, factor); }
+    public static StyleToken shrink(int factor) { return of(Property.FLEX_SHRINK, factor); }
+
+    /**
+     * @param fraction the basis as a fraction of the container, stored as a percentage like the
+     *                 {@code FLEX_BASIS_*} keys
+     */
+    public static StyleToken basis(float fraction) { return of(Property.FLEX_BASIS, Math.round(fraction * 100)); }
+
+    /**
+     * @return the token with the given id, or null if no such token was interned
+     */
+    public static StyleToken byId(int id) {
+        StyleToken[] table = byId;
+        return id >= 0 && id < table.length ? table[id] : null;
+    }
+
+    public static int getPoolSize() {
+        synchronized (LOCK) {
+            return count;
+        }
+    }
+
+    public int getId() { return id; }
+    public Property getProperty() { return property; }
+    public int getValue() { return value; }
+
+    @Override
+    public String toString() {
+        return property.name().toLowerCase() + "(" + value + ")";
+    }
+}
@@ -0,0 +1,280 @@
+package com.edgn.ui.css;
+
+import com.edgn.ui.css.values.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable, precompiled set of style values.
+ * Every {@link StyleKey} value is resolved once when the theme is built and stored in a flat
+ * table indexed by the key ordinal, so lookups never go through a map at render time.
+ * Computed styles are interned per class set, elements sharing the same classes share the
+ * same {@link CSSStyleApplier.ComputedStyles} instance.
+ * <p>
+ * Switching themes is done with {@link UIStyleSystem#setTheme(Theme)}, which only swaps a reference
+ * and bumps a generation counter, elements pick the new styles up lazily.
+ * <p>
+ * Only {@link #DEFAULT} is built in. Other palettes are made with {@link #builder(String)} or
+ * {@link #derive(String)} and registered with {@link StyleRegistry#register(Theme)}.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class Theme {
+    private static final StyleKey[] KEYS = StyleKey.values();
+
+    public static final Theme DEFAULT = builder("default").build();
+
+    private final String name;
+    private final Object[] values;
+    private final int[] intValues;
+    private final int textColor;
+    private final int backgroundColor;
+    private final Map<StyleKey, Object> view;
+    private final float hoverRatio;
+    private final float hoverBrightenRatio;
+    private final float pressedRatio;
+    private final float activeRatio;
+    private final float disabledAlpha;
+    private final Map<StyleSet, CSSStyleApplier.ComputedStyles> interned = new ConcurrentHashMap<>();
+    private final Map<StateKey, StateStyles> internedStates = new ConcurrentHashMap<>();
+
+    private Theme(Builder builder) {
+        this.name = builder.name;
+        this.values = builder.values.clone();
+        this.textColor = builder.textColor;
+        this.backgroundColor = builder.backgroundColor;
+        this.hoverRatio = builder.hoverRatio;
+        this.hoverBrightenRatio = builder.hoverBrightenRatio;
+        this.pressedRatio = builder.pressedRatio;
+        this.activeRatio = builder.activeRatio;
+        this.disabledAlpha = builder.disabledAlpha;
+
+        this.intValues = new int[values.length];
+        Map<StyleKey, Object> map = new EnumMap<>(StyleKey.class);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value instanceof Integer integer) intValues[i] = integer;
+            else if (value instanceof Float floatValue) intValues[i] = Math.round(floatValue * 100);
+            if (value != null) map.put(KEYS[i], value);
+        }
+        this.view = Collections.unmodifiableMap(map);
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * Creates a builder seeded with every value of this theme
+     * @param name the name of the derived theme
+     * @return a builder
+     */
+    public Builder derive(String name) {
+        Builder builder = new Builder(name);
+        System.arraycopy(values, 0, builder.values, 0, values.length);
+        builder.textColor = textColor;
+        builder.backgroundColor = backgroundColor;
+        builder.hoverRatio = hoverRatio;
+        builder.hoverBrightenRatio = hoverBrightenRatio;
+        builder.pressedRatio = pressedRatio;
+        builder.activeRatio = activeRatio;
+        builder.disabledAlpha = disabledAlpha;
+        return builder;
+    }
+
+    public String getName() { return name; }
+    public int getTextColor() { return textColor; }
+    public int getBackgroundColor() { return backgroundColor; }
+    public float getHoverRatio() { return hoverRatio; }
+    public float getHoverBrightenRatio() { return hoverBrightenRatio; }
+    public float getPressedRatio() { return pressedRatio; }
+    public float getActiveRatio() { return activeRatio; }
+    public float getDisabledAlpha() { return disabledAlpha; }
+
+    public Object get(StyleKey key) {
+        return values[key.ordinal()];
+    }
+
+    /**
+     * Integer form of a style value, floats are returned as percentages the same way
+     * {@link UIStyleSystem#getValue(StyleKey)} always did
+     */
+    public int getValue(StyleKey key) {
+        return intValues[key.ordinal()];
+    }
+
+    public Map<StyleKey, Object> asMap() {
+        return view;
+    }
+
+    /**
+     * Resolves the computed styles of a class set, computing them only the first time
+     * this exact set is seen by this theme.
+     * @param classes the classes and tokens of an element, never mutated nor retained
+     * @return a shared, interned instance
+     */
+    public CSSStyleApplier.ComputedStyles resolve(StyleSet classes) {
+        CSSStyleApplier.ComputedStyles styles = interned.get(classes);
+        if (styles != null) return styles;
+
+        StyleSet key = classes.copy();
+        styles = CSSStyleApplier.computeStyles(key, this);
+        CSSStyleApplier.ComputedStyles previous = interned.putIfAbsent(key, styles);
+        return previous != null ? previous : styles;
+    }
+
+    /**
+     * Resolves the per-state styles of a widget, computing the table only the first time
+     * this combination of classes, state classes and fallback background is seen.
+     * @param classes the base classes of the widget
+     * @param stateClasses the extra classes of each state, indexed by state ordinal
+     * @param fallbackBackground the background used when the classes don't define one
+     * @return a shared, interned table
+     */
+    public StateStyles resolveStates(StyleSet classes, List<StyleSet> stateClasses, int fallbackBackground) {
+        StateKey key = new StateKey(classes, stateClasses, fallbackBackground);
+        StateStyles states = internedStates.get(key);
+        if (states != null) return states;
+
+        List<StyleSet> copies = new ArrayList<>(stateClasses.size());
+        for (StyleSet set : stateClasses) copies.add(set.copy());
+        key = new StateKey(classes.copy(), List.copyOf(copies), fallbackBackground);
+        states = new StateStyles(this, key.classes(), key.stateClasses(), fallbackBackground);
+        StateStyles previous = internedStates.putIfAbsent(key, states);
+        return previous != null ? previous : states;
+    }
+
+    public int getInternedCount() {
+        return interned.size() + internedStates.size();
+    }
+
+    private record StateKey(StyleSet classes, List<StyleSet> stateClasses, int fallbackBackground) {}
+
+    @Override
+    public String toString() {
+        return "Theme[" + name + "]";
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final Object[] values = new Object[KEYS.length];
+        private int textColor = 0xFF000000;
+        private int backgroundColor = 0;
+        private float hoverRatio = 0.08f;
+        private float hoverBrightenRatio = 0.20f;
+        private float pressedRatio = 0.16f;
+        private float activeRatio = 0.12f;
+        private float disabledAlpha = 0.5f;
+
+        private Builder(String name) {
+            this.name = name;
+            initializeDefaults();
+        }
+
+        public Builder set(StyleKey key, Object value) {
+            values[key.ordinal()] = value;
+            return this;
+        }
+
+        public Builder textColor(int argb) {
+            this.textColor = argb;
+            return this;
+        }
+
+        public Builder backgroundColor(int argb) {
+            this.backgroundColor = argb;
+            return this;
+        }
+
+        public Builder stateRatios(float hover, float hoverBrighten, float pressed, float active, float disabledAlpha) {
+            this.hoverRatio = hover;
+            this.hoverBrightenRatio = hoverBrighten;
+            this.pressedRatio = pressed;
+            this.activeRatio = active;
+            this.disabledAlpha = disabledAlpha;
+            return this;
+        }
+
+        public Theme build() {
+            return new Theme(this);
+        }
+
+        private void spacing(Spacing spacing, StyleKey... keys) {
+            for (StyleKey key : keys) set(key, spacing.value);
+        }
+
+        private void initializeDefaults() {
+            set(StyleKey.ROUNDED_NONE, BorderRadius.NONE.value);
+            set(StyleKey.ROUNDED_SM, BorderRadius.SM.value);
+            set(StyleKey.ROUNDED_MD, BorderRadius.MD.value);
+            set(StyleKey.ROUNDED_LG, BorderRadius.LG.value);
+            set(StyleKey.ROUNDED_XL, BorderRadius.XL.value);
+            set(StyleKey.ROUNDED_XXL, BorderRadius.XXL.value);
+            set(StyleKey.ROUNDED_FULL, BorderRadius.FULL.value);
+
+            spacing(Spacing.NONE, StyleKey.P_0, StyleKey.PT_0, StyleKey.PR_0, StyleKey.PB_0, StyleKey.PL_0,
+                    StyleKey.M_0, StyleKey.MT_0, StyleKey.MR_0, StyleKey.MB_0, StyleKey.ML_0, StyleKey.GAP_0);
+            spacing(Spacing.XS, StyleKey.P_1, StyleKey.PT_1, StyleKey.PR_1, StyleKey.PB_1, StyleKey.PL_1,
+                    StyleKey.M_1, StyleKey.MT_1, StyleKey.MR_1, StyleKey.MB_1, StyleKey.ML_1, StyleKey.GAP_1);
+            spacing(Spacing.SM, StyleKey.P_2, StyleKey.PT_2, StyleKey.PR_2, StyleKey.PB_2, StyleKey.PL_2,
+                    StyleKey.M_2, StyleKey.MT_2, StyleKey.MR_2, StyleKey.MB_2, StyleKey.ML_2, StyleKey.GAP_2);
+            spacing(Spacing.MD, StyleKey.P_3, StyleKey.PT_3, StyleKey.PR_3, StyleKey.PB_3, StyleKey.PL_3,
+                    StyleKey.M_3, StyleKey.MT_3, StyleKey.MR_3, StyleKey.MB_3, StyleKey.ML_3, StyleKey.GAP_3);
+            spacing(Spacing.LG, StyleKey.P_4, StyleKey.PT_4, StyleKey.PR_4, StyleKey.PB_4, StyleKey.PL_4,
+                    StyleKey.M_4, StyleKey.MT_4, StyleKey.MR_4, StyleKey.MB_4, StyleKey.ML_4, StyleKey.GAP_4);
+            spacing(Spacing.XL, StyleKey.P_5, StyleKey.PT_5, StyleKey.PR_5, StyleKey.PB_5, StyleKey.PL_5,
+                    StyleKey.M_5, StyleKey.MT_5, StyleKey.MR_5, StyleKey.MB_5, StyleKey.ML_5, StyleKey.GAP_5);
+            spacing(Spacing.XXL, StyleKey.PT_6, StyleKey.PR_6, StyleKey.PB_6, StyleKey.PL_6,
+                    StyleKey.MT_6, StyleKey.MR_6, StyleKey.MB_6, StyleKey.ML_6, StyleKey.GAP_6);
+            spacing(Spacing.XXXL, StyleKey.PT_7, StyleKey.PR_7, StyleKey.PB_7, StyleKey.PL_7,
+                    StyleKey.PT_8, StyleKey.PR_8, StyleKey.PB_8, StyleKey.PL_8,
+                    StyleKey.MT_7, StyleKey.MR_7, StyleKey.MB_7, StyleKey.ML_7,
+                    StyleKey.MT_8, StyleKey.MR_8, StyleKey.MB_8, StyleKey.GAP_8);
+            spacing(Spacing.XXXXL, StyleKey.ML_8);
+
+            set(StyleKey.FLEX_BASIS_0, FlexBasis.BASIS_0.value);
+            set(StyleKey.FLEX_BASIS_10, FlexBasis.BASIS_10.value);
+            set(StyleKey.FLEX_BASIS_15, FlexBasis.BASIS_15.value);
+            set(StyleKey.FLEX_BASIS_20, FlexBasis.BASIS_20.value);
+            set(StyleKey.FLEX_BASIS_25, FlexBasis.BASIS_25.value);
+            set(StyleKey.FLEX_BASIS_30, FlexBasis.BASIS_30.value);
+            set(StyleKey.FLEX_BASIS_33, FlexBasis.BASIS_33.value);
+            set(StyleKey.FLEX_BASIS_40, FlexBasis.BASIS_40.value);
+            set(StyleKey.FLEX_BASIS_50, FlexBasis.BASIS_50.value);
+            set(StyleKey.FLEX_BASIS_60, FlexBasis.BASIS_60.value);
+            set(StyleKey.FLEX_BASIS_66, FlexBasis.BASIS_66.value);
+            set(StyleKey.FLEX_BASIS_75, FlexBasis.BASIS_75.value);
+            set(StyleKey.FLEX_BASIS_100, FlexBasis.BASIS_100.value);
+
+            set(StyleKey.FLEX_GROW_0, FlexGrow.GROW_0.value);
+            set(StyleKey.FLEX_GROW_1, FlexGrow.GROW_1.value);
+            set(StyleKey.FLEX_GROW_2, FlexGrow.GROW_2.value);
+            set(StyleKey.FLEX_GROW_3, FlexGrow.GROW_3.value);
+
+            set(StyleKey.FLEX_SHRINK_0, FlexShrink.SHRINK_0.value);
+            set(StyleKey.FLEX_SHRINK_1, FlexShrink.SHRINK_1.value);
+
+            set(StyleKey.SHADOW_NONE, Shadow.NONE);
+            set(StyleKey.SHADOW_SM, Shadow.SM);
+            set(StyleKey.SHADOW_MD, Shadow.MD);
+            set(StyleKey.SHADOW_LG, Shadow.LG);
+            set(StyleKey.SHADOW_XL, Shadow.XL);
+            set(StyleKey.SHADOW_GLOW, Shadow.GLOW);
+
+            set(StyleKey.HOVER_SCALE, HoverEffect.SCALE.value);
+            set(StyleKey.HOVER_BRIGHTEN, HoverEffect.BRIGHTEN.value);
+            set(StyleKey.HOVER_OPACITY, HoverEffect.OPACITY.value);
+            set(StyleKey.HOVER_ROTATE, HoverEffect.ROTATE.value);
+
+            set(StyleKey.FOCUS_RING, FocusEffect.RING.value);
+            set(StyleKey.FOCUS_OUTLINE, FocusEffect.OUTLINE.value);
+
+            set(StyleKey.ACTIVE_SCALE, ActiveEffect.SCALE.value);
+        }
+    }
+}
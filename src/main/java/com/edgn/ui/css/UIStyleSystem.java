@@ -1,178 +1,59 @@
 package com.edgn.ui.css;
 
-
-import com.edgn.ui.css.values.*;
+import com.edgn.ui.core.animation.AnimationScheduler;
 import com.edgn.ui.event.UIEventManager;
 
-import java.util.EnumMap;
 import java.util.Map;
+import java.util.Objects;
 
 @SuppressWarnings("unused")
 public class UIStyleSystem {
-    private final Map<StyleKey, Object> styleValues = new EnumMap<>(StyleKey.class);
     private final UIEventManager eventManager = new UIEventManager();
+    private final AnimationScheduler animations = new AnimationScheduler();
+    private volatile Theme themeOverride;
+    private volatile int themeGeneration = 0;
 
+    /**
+     * A screen's style system, follows the default theme of {@link StyleRegistry}
+     */
     public UIStyleSystem() {
-        initializeDefaults();
+        /* all style data is shared through StyleRegistry */
+    }
+
+    public UIStyleSystem(Theme theme) {
+        this.themeOverride = theme;
+    }
+
+    /**
+     * Overrides the theme of this screen only, elements refresh their computed styles lazily
+     * the next time they are read, nothing is recomputed here.
+     */
+    public void setTheme(Theme theme) {
+        if (theme == themeOverride) return;
+        this.themeOverride = theme;
+        themeGeneration++;
+    }
+
+    /**
+     * Drops the override, the screen follows the registry default theme again
+     */
+    public void clearTheme() {
+        setTheme(null);
     }
 
-    private void initializeDefaults() {
-        styleValues.put(StyleKey.ROUNDED_NONE, BorderRadius.NONE.value);    
-        styleValues.put(StyleKey.ROUNDED_SM, BorderRadius.SM.value);        
-        styleValues.put(StyleKey.ROUNDED_MD, BorderRadius.MD.value);        
-        styleValues.put(StyleKey.ROUNDED_LG, BorderRadius.LG.value);        
-        styleValues.put(StyleKey.ROUNDED_XL, BorderRadius.XL.value);        
-        styleValues.put(StyleKey.ROUNDED_XXL, BorderRadius.XXL.value);      
-        styleValues.put(StyleKey.ROUNDED_FULL, BorderRadius.FULL.value);    
-
-        styleValues.put(StyleKey.P_0, Spacing.NONE.value);     
-        styleValues.put(StyleKey.P_1, Spacing.XS.value);       
-        styleValues.put(StyleKey.P_2, Spacing.SM.value);       
-        styleValues.put(StyleKey.P_3, Spacing.MD.value);       
-        styleValues.put(StyleKey.P_4, Spacing.LG.value);       
-        styleValues.put(StyleKey.P_5, Spacing.XL.value);       
-
-        styleValues.put(StyleKey.PT_0, Spacing.NONE.value);    
-        styleValues.put(StyleKey.PT_1, Spacing.XS.value);      
-        styleValues.put(StyleKey.PT_2, Spacing.SM.value);      
-        styleValues.put(StyleKey.PT_3, Spacing.MD.value);      
-        styleValues.put(StyleKey.PT_4, Spacing.LG.value);      
-        styleValues.put(StyleKey.PT_5, Spacing.XL.value);      
-        styleValues.put(StyleKey.PT_6, Spacing.XXL.value);     
-        styleValues.put(StyleKey.PT_7, Spacing.XXXL.value);    
-        styleValues.put(StyleKey.PT_8, Spacing.XXXL.value);
-
-        styleValues.put(StyleKey.PR_0, Spacing.NONE.value);    
-        styleValues.put(StyleKey.PR_1, Spacing.XS.value);      
-        styleValues.put(StyleKey.PR_2, Spacing.SM.value);      
-        styleValues.put(StyleKey.PR_3, Spacing.MD.value);      
-        styleValues.put(StyleKey.PR_4, Spacing.LG.value);      
-        styleValues.put(StyleKey.PR_5, Spacing.XL.value);      
-        styleValues.put(StyleKey.PR_6, Spacing.XXL.value);     
-        styleValues.put(StyleKey.PR_7, Spacing.XXXL.value);    
-        styleValues.put(StyleKey.PR_8, Spacing.XXXL.value);
-
-        styleValues.put(StyleKey.PB_0, Spacing.NONE.value);    
-        styleValues.put(StyleKey.PB_1, Spacing.XS.value);      
-        styleValues.put(StyleKey.PB_2, Spacing.SM.value);      
-        styleValues.put(StyleKey.PB_3, Spacing.MD.value);      
-        styleValues.put(StyleKey.PB_4, Spacing.LG.value);      
-        styleValues.put(StyleKey.PB_5, Spacing.XL.value);      
-        styleValues.put(StyleKey.PB_6, Spacing.XXL.value);     
-        styleValues.put(StyleKey.PB_7, Spacing.XXXL.value);    
-        styleValues.put(StyleKey.PB_8, Spacing.XXXL.value);
-
-        styleValues.put(StyleKey.PL_0, Spacing.NONE.value);    
-        styleValues.put(StyleKey.PL_1, Spacing.XS.value);      
-        styleValues.put(StyleKey.PL_2, Spacing.SM.value);      
-        styleValues.put(StyleKey.PL_3, Spacing.MD.value);      
-        styleValues.put(StyleKey.PL_4, Spacing.LG.value);      
-        styleValues.put(StyleKey.PL_5, Spacing.XL.value);      
-        styleValues.put(StyleKey.PL_6, Spacing.XXL.value);     
-        styleValues.put(StyleKey.PL_7, Spacing.XXXL.value);    
-        styleValues.put(StyleKey.PL_8, Spacing.XXXL.value);
-
-        styleValues.put(StyleKey.M_0, Spacing.NONE.value);     
-        styleValues.put(StyleKey.M_1, Spacing.XS.value);       
-        styleValues.put(StyleKey.M_2, Spacing.SM.value);       
-        styleValues.put(StyleKey.M_3, Spacing.MD.value);       
-        styleValues.put(StyleKey.M_4, Spacing.LG.value);       
-        styleValues.put(StyleKey.M_5, Spacing.XL.value);       
-
-        styleValues.put(StyleKey.MT_0, Spacing.NONE.value);    
-        styleValues.put(StyleKey.MT_1, Spacing.XS.value);      
-        styleValues.put(StyleKey.MT_2, Spacing.SM.value);      
-        styleValues.put(StyleKey.MT_3, Spacing.MD.value);      
-        styleValues.put(StyleKey.MT_4, Spacing.LG.value);      
-        styleValues.put(StyleKey.MT_5, Spacing.XL.value);      
-        styleValues.put(StyleKey.MT_6, Spacing.XXL.value);     
-        styleValues.put(StyleKey.MT_7, Spacing.XXXL.value);    
-        styleValues.put(StyleKey.MT_8, Spacing.XXXL.value);
-
-        styleValues.put(StyleKey.MR_0, Spacing.NONE.value);    
-        styleValues.put(StyleKey.MR_1, Spacing.XS.value);      
-        styleValues.put(StyleKey.MR_2, Spacing.SM.value);      
-        styleValues.put(StyleKey.MR_3, Spacing.MD.value);      
-        styleValues.put(StyleKey.MR_4, Spacing.LG.value);      
-        styleValues.put(StyleKey.MR_5, Spacing.XL.value);      
-        styleValues.put(StyleKey.MR_6, Spacing.XXL.value);     
-        styleValues.put(StyleKey.MR_7, Spacing.XXXL.value);    
-        styleValues.put(StyleKey.MR_8, Spacing.XXXL.value);
-
-        styleValues.put(StyleKey.MB_0, Spacing.NONE.value);    
-        styleValues.put(StyleKey.MB_1, Spacing.XS.value);      
-        styleValues.put(StyleKey.MB_2, Spacing.SM.value);      
-        styleValues.put(StyleKey.MB_3, Spacing.MD.value);      
-        styleValues.put(StyleKey.MB_4, Spacing.LG.value);      
-        styleValues.put(StyleKey.MB_5, Spacing.XL.value);      
-        styleValues.put(StyleKey.MB_6, Spacing.XXL.value);     
-        styleValues.put(StyleKey.MB_7, Spacing.XXXL.value);    
-        styleValues.put(StyleKey.MB_8, Spacing.XXXL.value);
-
-        styleValues.put(StyleKey.ML_0, Spacing.NONE.value);    
-        styleValues.put(StyleKey.ML_1, Spacing.XS.value);      
-        styleValues.put(StyleKey.ML_2, Spacing.SM.value);      
-        styleValues.put(StyleKey.ML_3, Spacing.MD.value);      
-        styleValues.put(StyleKey.ML_4, Spacing.LG.value);      
-        styleValues.put(StyleKey.ML_5, Spacing.XL.value);      
-        styleValues.put(StyleKey.ML_6, Spacing.XXL.value);     
-        styleValues.put(StyleKey.ML_7, Spacing.XXXL.value);    
-        styleValues.put(StyleKey.ML_8, Spacing.XXXXL.value);   
-
-        styleValues.put(StyleKey.GAP_0, Spacing.NONE.value);   
-        styleValues.put(StyleKey.GAP_1, Spacing.XS.value);     
-        styleValues.put(StyleKey.GAP_2, Spacing.SM.value);     
-        styleValues.put(StyleKey.GAP_3, Spacing.MD.value);     
-        styleValues.put(StyleKey.GAP_4, Spacing.LG.value);     
-        styleValues.put(StyleKey.GAP_5, Spacing.XL.value);     
-        styleValues.put(StyleKey.GAP_6, Spacing.XXL.value);    
-        styleValues.put(StyleKey.GAP_8, Spacing.XXXL.value);
-
-        styleValues.put(StyleKey.FLEX_BASIS_0,   FlexBasis.BASIS_0.value);
-        styleValues.put(StyleKey.FLEX_BASIS_10,  FlexBasis.BASIS_10.value);
-        styleValues.put(StyleKey.FLEX_BASIS_15,  FlexBasis.BASIS_15.value);
-        styleValues.put(StyleKey.FLEX_BASIS_20,  FlexBasis.BASIS_20.value);
-        styleValues.put(StyleKey.FLEX_BASIS_25,  FlexBasis.BASIS_25.value);
-        styleValues.put(StyleKey.FLEX_BASIS_30,  FlexBasis.BASIS_30.value);
-        styleValues.put(StyleKey.FLEX_BASIS_33,  FlexBasis.BASIS_33.value);
-        styleValues.put(StyleKey.FLEX_BASIS_40,  FlexBasis.BASIS_40.value);
-        styleValues.put(StyleKey.FLEX_BASIS_50,  FlexBasis.BASIS_50.value);
-        styleValues.put(StyleKey.FLEX_BASIS_60,  FlexBasis.BASIS_60.value);
-        styleValues.put(StyleKey.FLEX_BASIS_66,  FlexBasis.BASIS_66.value);
-        styleValues.put(StyleKey.FLEX_BASIS_75,  FlexBasis.BASIS_75.value);
-        styleValues.put(StyleKey.FLEX_BASIS_100, FlexBasis.BASIS_100.value);
-
-        styleValues.put(StyleKey.FLEX_GROW_0, FlexGrow.GROW_0.value);
-        styleValues.put(StyleKey.FLEX_GROW_1, FlexGrow.GROW_1.value);
-        styleValues.put(StyleKey.FLEX_GROW_2, FlexGrow.GROW_2.value);
-        styleValues.put(StyleKey.FLEX_GROW_3, FlexGrow.GROW_3.value);
-
-        styleValues.put(StyleKey.FLEX_SHRINK_0, FlexShrink.SHRINK_0.value);
-        styleValues.put(StyleKey.FLEX_SHRINK_1, FlexShrink.SHRINK_1.value);
-
-        styleValues.put(StyleKey.SHADOW_NONE, Shadow.NONE);
-        styleValues.put(StyleKey.SHADOW_SM, Shadow.SM);
-        styleValues.put(StyleKey.SHADOW_MD, Shadow.MD);
-        styleValues.put(StyleKey.SHADOW_LG, Shadow.LG);
-        styleValues.put(StyleKey.SHADOW_XL, Shadow.XL);
-        styleValues.put(StyleKey.SHADOW_GLOW, Shadow.GLOW);
-
-        styleValues.put(StyleKey.HOVER_SCALE, HoverEffect.SCALE.value);
-        styleValues.put(StyleKey.HOVER_BRIGHTEN, HoverEffect.BRIGHTEN.value);
-        styleValues.put(StyleKey.HOVER_OPACITY, HoverEffect.OPACITY.value);
-        styleValues.put(StyleKey.HOVER_ROTATE, HoverEffect.ROTATE.value);
-
-        styleValues.put(StyleKey.FOCUS_RING, FocusEffect.RING.value);
-        styleValues.put(StyleKey.FOCUS_OUTLINE, FocusEffect.OUTLINE.value);
-
-        styleValues.put(StyleKey.ACTIVE_SCALE, ActiveEffect.SCALE.value);
+    public Theme getTheme() {
+        Theme override = themeOverride;
+        return override != null ? override : StyleRegistry.getDefaultTheme();
+    }
+
+    public int getThemeGeneration() { return themeGeneration + StyleRegistry.getGeneration(); }
+
+    public CSSStyleApplier.ComputedStyles resolveStyles(StyleSet classes) {
+        return getTheme().resolve(classes);
     }
 
     public int getValue(StyleKey key) {
-        Object value = styleValues.get(key);
-        if (value instanceof Integer integer) return integer;
-        if (value instanceof Float floatValue) return Math.round(floatValue * 100);
-        return 0;
+        return getTheme().getValue(key);
     }
 
     public static int applyOpacity(int color, float opacity) {
@@ -186,6 +67,32 @@ public class UIStyleSystem {
         return (newAlpha << 24) | (red << 16) | (green << 8) | blue;
     }
 
-    public Map<StyleKey, Object> getStyleValues() { return styleValues; }
+    /**
+     * Overrides one style value for this screen: the current theme is derived with the value and
+     * set as the override, so the generation is bumped and elements pick the value up lazily.
+     * @param key the style key
+     * @param value the new value, of the same type the theme stores for the key
+     * @return this style system
+     */
+    public UIStyleSystem setStyleValue(StyleKey key, Object value) {
+        Theme current = getTheme();
+        if (Objects.equals(current.get(key), value)) return this;
+        setTheme(current.derive(current.getName()).set(key, value).build());
+        return this;
+    }
+
+    /**
+     * @return a read-only view of the values of the current theme, writes throw
+     * {@link UnsupportedOperationException}
+     * @deprecated themes are immutable and shared, read values with {@link #getValue(StyleKey)} or
+     * {@link Theme#get(StyleKey)} and change them with {@link #setStyleValue(StyleKey, Object)}
+     */
+    @Deprecated
+    public Map<StyleKey, Object> getStyleValues() { return getTheme().asMap(); }
     public UIEventManager getEventManager() { return eventManager; }
+
+    /**
+     * The tweens of this screen, stepped once per frame by the template
+     */
+    public AnimationScheduler getAnimations() { return animations; }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.edgn.exceptions.safe.Crash;
 import com.edgn.exceptions.safe.Safe;
 import com.edgn.mixin.accessors.ScreenAccessor;
 import com.edgn.ui.core.container.BaseContainer;
+import com.edgn.ui.core.renderer.batch.RenderPass;
 import com.edgn.ui.css.UIStyleSystem;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
@@ -206,11 +207,13 @@ public abstract class BaseTemplate extends EventTemplate {
     }
 
     protected void renderDefaultHeader(DrawContext context) {
+        RenderPass.flush(context);
         context.drawCenteredTextWithShadow(textRenderer, this.title, width / 2, headerHeight / 2 - 3, 0xFFFFFF);
         context.fill(0, headerHeight - 1, width, headerHeight, 0x40FFFFFF);
     }
 
     protected void renderDefaultFooter(DrawContext context) {
+        RenderPass.flush(context);
         String footerText = Calendar.getInstance().get(Calendar.YEAR) + " " + EdgnScreenLib.MOD_ID;
         context.drawCenteredTextWithShadow(textRenderer, footerText, width / 2,
                 this.height - (this.footerHeight / 2) - 3, 0xFFAAAAAA);
@@ -223,9 +226,15 @@ public abstract class BaseTemplate extends EventTemplate {
         try {
             Safe.run(s, ScreenCrashException.Phase.RENDER, this::updateScreenValues);
             Safe.run(s, ScreenCrashException.Phase.RENDER, () -> renderBackground(context, mouseX, mouseY, delta));
-            Safe.run(s, ScreenCrashException.Phase.RENDER, () -> renderHeader(context));
-            Safe.run(s, ScreenCrashException.Phase.RENDER, () -> renderContent(context));
-            Safe.run(s, ScreenCrashException.Phase.RENDER, () -> renderFooter(context));
+            RenderPass.begin(context);
+            try {
+                Safe.run(s, ScreenCrashException.Phase.RENDER, () -> uiSystem.getAnimations().update());
+                Safe.run(s, ScreenCrashException.Phase.RENDER, () -> renderHeader(context));
+                Safe.run(s, ScreenCrashException.Phase.RENDER, () -> renderContent(context));
+                Safe.run(s, ScreenCrashException.Phase.RENDER, () -> renderFooter(context));
+            } finally {
+                RenderPass.end(context);
+            }
             Safe.run(s, ScreenCrashException.Phase.RENDER, () -> {
                 for (Drawable drawable : ((ScreenAccessor) this).getDrawables()) {
                     if(drawable != null) {
@@ -0,0 +1,85 @@
+package com.edgn.ui.utils;
+
+import java.awt.Color;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared ARGB lookup tables for color ramps.
+ * <p>
+ * A gradient table holds {@value #SIZE} steps from one color to another, a rainbow table a full
+ * turn of hues at a given saturation and brightness. Tables are built once and shared by every
+ * caller, sampling one is an index computation instead of per-channel float math or an HSB
+ * conversion, which is what per-glyph text effects and banded gradient fills need.
+ * @author EDGN
+ */
+@SuppressWarnings("unused")
+public final class ColorLut {
+    public static final int SIZE = 256;
+    private static final int MAX_GRADIENTS = 512;
+    private static final int MAX_RAINBOWS = 64;
+
+    private static final Map<Long, int[]> GRADIENTS = new ConcurrentHashMap<>();
+    private static final Map<Long, int[]> RAINBOWS = new ConcurrentHashMap<>();
+
+    private ColorLut() { /* utility class */ }
+
+    /**
+     * @return the ramp from {@code from} at index 0 to {@code to} at the last index, channels
+     * interpolated separately
+     */
+    public static int[] gradient(int from, int to) {
+        long key = ((long) from << 32) | (to & 0xFFFFFFFFL);
+        int[] lut = GRADIENTS.get(key);
+        if (lut != null) return lut;
+        if (GRADIENTS.size() >= MAX_GRADIENTS) GRADIENTS.clear();
+        return GRADIENTS.computeIfAbsent(key, k -> buildGradient(from, to));
+    }
+
+    /**
+     * @return a full turn of opaque hues starting at red, for {@link #sampleCyclic}
+     */
+    public static int[] rainbow(float saturation, float brightness) {
+        long key = ((long) Float.floatToIntBits(saturation) << 32) | (Float.floatToIntBits(brightness) & 0xFFFFFFFFL);
+        int[] lut = RAINBOWS.get(key);
+        if (lut != null) return lut;
+        if (RAINBOWS.size() >= MAX_RAINBOWS) RAINBOWS.clear();
+        return RAINBOWS.computeIfAbsent(key, k -> buildRainbow(saturation, brightness));
+    }
+
+    /**
+     * @param t position on the ramp, clamped to {@code [0, 1]}
+     */
+    public static int sample(int[] lut, float t) {
+        if (!(t > 0f)) return lut[0];
+        if (t >= 1f) return lut[SIZE - 1];
+        return lut[(int) (t * (SIZE - 1) + 0.5f)];
+    }
+
+    /**
+     * @param t position on a cyclic table, only its fractional part counts
+     */
+    public static int sampleCyclic(int[] lut, float t) {
+        float f = t - (float) Math.floor(t);
+        return lut[(int) (f * SIZE) & (SIZE - 1)];
+    }
+
+    /**
+     * {@link DrawingUtils#lerpColor} quantized to the shared table of the two colors
+     */
+    public static int lerp(int from, int to, float t) {
+        return sample(gradient(from, to), t);
+    }
+
+    private static int[] buildGradient(int from, int to) {
+        int[] lut = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) lut[i] = DrawingUtils.lerpColor(from, to, i / (float) (SIZE - 1));
+        return lut;
+    }
+
+    private static int[] buildRainbow(float saturation, float brightness) {
+        int[] lut = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) lut[i] = Color.HSBtoRGB(i / (float) SIZE, saturation, brightness);
+        return lut;
+    }
+}
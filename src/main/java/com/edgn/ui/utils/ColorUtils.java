@@ -201,4 +201,20 @@ public class ColorUtils {
         int newAlpha = (int) (alpha * 255);
         return (newAlpha << 24) | (color & 0x00FFFFFF);
     }
+
+    /**
+     * Blends two colors through their shared {@link ColorLut} ramp, cheap enough to call per glyph
+     * @param t a value between 0 and 1
+     */
+    public static int lerp(int from, int to, float t) {
+        return ColorLut.lerp(from, to, t);
+    }
+
+    /**
+     * A fully saturated and bright color of the hue wheel, from the shared rainbow table
+     * @param hue the turn, only its fractional part counts
+     */
+    public static int rainbow(float hue) {
+        return ColorLut.sampleCyclic(ColorLut.rainbow(1.0f, 1.0f), hue);
+    }
 }
@@ -1,5 +1,12 @@
 package com.edgn.ui.utils;
 
+import com.edgn.ui.core.renderer.RenderTarget;
+import com.edgn.ui.core.renderer.atlas.IconAtlas;
+import com.edgn.ui.core.renderer.atlas.NineSlice;
+import com.edgn.ui.core.renderer.atlas.SpriteHandle;
+import com.edgn.ui.core.renderer.batch.DrawCommandBuffer;
+import com.edgn.ui.core.renderer.batch.RenderPass;
+import com.edgn.ui.css.values.Shadow;
 import com.mojang.blaze3d.systems.RenderSystem;
 import net.minecraft.client.font.TextRenderer;
 import net.minecraft.client.gl.ShaderProgramKeys;
@@ -11,18 +18,21 @@ import net.minecraft.client.render.Tessellator;
 import net.minecraft.client.render.VertexFormat;
 import net.minecraft.client.render.VertexFormats;
 import net.minecraft.util.Identifier;
+import org.joml.Matrix4f;
 
 import java.awt.Color;
-import java.awt.Rectangle;
-import java.util.ArrayDeque;
-import java.util.Deque;
 
 /**
  * Utility class providing convenience drawing helpers.
  * <p><b>Notes</b></p>
  * <ul>
- *   <li>Rounded corners are approximated with fills for performance. (might change later) </li>
- *   <li>Algorithms for lines/circles use integer math (Bresenham) to avoid allocations.</li>
+ *   <li>Circles, arcs and rounded corners are drawn from span tables cached per radius and thickness
+ *   ({@link ShapeSpans}), one fill per band of rows sharing the same extents.</li>
+ *   <li>Lines use integer math (Bresenham) to avoid allocations.</li>
+ *   <li>While a {@link RenderPass} is open, shapes are recorded into its {@link DrawCommandBuffer}
+ *   and uploaded in one batch, text and image helpers flush it first to keep the paint order.</li>
+ *   <li>A pass opened on another {@link RenderTarget} (headless rendering) receives the same shapes,
+ *   image helpers draw nothing when the target can't sample textures.</li>
  * </ul>
  *
  * @author EDGN
@@ -30,16 +40,25 @@ import java.util.Deque;
 @SuppressWarnings("unused")
 public class DrawingUtils {
 
+    private static final Matrix4f IDENTITY = new Matrix4f();
 
-    /** Thread-local stack of active clipping rectangles for push/pop semantics. */
-    private static final ThreadLocal<Deque<Rectangle>> CLIP_STACK =
-            ThreadLocal.withInitial(ArrayDeque::new);
+    /** Texture corners of an unrotated image, in the bottom left, bottom right, top right, top left order rotations shift. */
+    private static final float[] BASE_U = {0, 1, 1, 0};
+    private static final float[] BASE_V = {1, 1, 0, 0};
+    /** Where the top left, bottom left, bottom right and top right corners sit in that order. */
+    private static final int[] CORNER_ORDER = {3, 0, 1, 2};
+    /** Scratch UVs of the image helpers, render thread only, the buffer copies them right away. */
+    private static final float[] UVS = new float[8];
 
 
     private DrawingUtils() {/* utility class */}
 
+    /**
+     * @deprecated the clip stack belongs to the {@link RenderPass} and is reset with every pass
+     */
+    @Deprecated
     public static void clearClipStack() {
-        CLIP_STACK.remove();
+        // nothing left to clear
     }
 
     /**
@@ -53,7 +72,24 @@ public class DrawingUtils {
      * @param color   fill color (ARGB)
      */
     public static void fillRect(DrawContext context, int x, int y, int width, int height, int color) {
-        context.fill(x, y, x + width, y + height, color);
+        fill(context, x, y, x + width, y + height, color);
+    }
+
+    /**
+     * Every solid fill goes through here, recorded when a pass is open, immediate otherwise.
+     */
+    private static void fill(DrawContext context, int x1, int y1, int x2, int y2, int color) {
+        if (RenderPass.rejects(context, x1, y1, x2, y2)) return;
+        RenderTarget target = RenderPass.target(context);
+        if (target != null) target.fill(context.getMatrices().peek().getPositionMatrix(), x1, y1, x2, y2, color);
+        else context.fill(x1, y1, x2, y2, color);
+    }
+
+    private static void fillGradient(DrawContext context, int x1, int y1, int x2, int y2, int startColor, int endColor) {
+        if (RenderPass.rejects(context, x1, y1, x2, y2)) return;
+        RenderTarget target = RenderPass.target(context);
+        if (target != null) target.fillGradient(context.getMatrices().peek().getPositionMatrix(), x1, y1, x2, y2, startColor, endColor);
+        else context.fillGradient(x1, y1, x2, y2, startColor, endColor);
     }
 
     /**
@@ -70,7 +106,7 @@ public class DrawingUtils {
      */
     public static void drawHLine(DrawContext context, int x1, int x2, int y, int color) {
         if (x2 < x1) { int t = x1; x1 = x2; x2 = t; }
-        context.fill(x1, y, x2 + 1, y + 1, color);
+        fill(context, x1, y, x2 + 1, y + 1, color);
     }
 
     /**
@@ -80,7 +116,7 @@ public class DrawingUtils {
      */
     public static void drawVLine(DrawContext context, int x, int y1, int y2, int color) {
         if (y2 < y1) { int t = y1; y1 = y2; y2 = t; }
-        context.fill(x, y1, x + 1, y2 + 1, color);
+        fill(context, x, y1, x + 1, y2 + 1, color);
     }
 
     /**
@@ -95,7 +131,7 @@ public class DrawingUtils {
         int sy = y0 < y1 ? 1 : -1;
         int err = dx - dy;
         while (true) {
-            context.fill(x0, y0, x0 + 1, y0 + 1, color);
+            fill(context, x0, y0, x0 + 1, y0 + 1, color);
             if (x0 == x1 && y0 == y1) break;
             int e2 = 2 * err;
             if (e2 > -dy) { err -= dy; x0 += sx; }
@@ -104,36 +140,57 @@ public class DrawingUtils {
     }
 
     /**
-     * Draws a filled rounded rectangle (fast, approximate corners).
+     * Draws a filled rounded rectangle, corners sampled from a true circle.
      *
      * @param radius corner radius in pixels (clamped to half of min(width, height))
      * @param color  fill color (ARGB)
      */
     public static void drawRoundedRect(DrawContext context, int x, int y, int width, int height, int radius, int color) {
+        if (width <= 0 || height <= 0) return;
         radius = Math.clamp(radius, 0, Math.min(width, height) / 2);
-        context.fill(x + radius, y, x + width - radius, y + height, color);
-        context.fill(x, y + radius, x + radius, y + height - radius, color);
-        context.fill(x + width - radius, y + radius, x + width, y + height - radius, color);
-        context.fill(x, y, x + radius, y + radius, color);
-        context.fill(x + width - radius, y, x + width, y + radius, color);
-        context.fill(x, y + height - radius, x + radius, y + height, color);
-        context.fill(x + width - radius, y + height - radius, x + width, y + height, color);
+        int[] bands = ShapeSpans.corner(radius);
+        for (int i = 0; i < bands.length; i += ShapeSpans.CORNER_STRIDE) {
+            int row = bands[i];
+            int rows = bands[i + 1];
+            int inset = bands[i + 2];
+            fill(context, x + inset, y + row, x + width - inset, y + row + rows, color);
+            fill(context, x + inset, y + height - row - rows, x + width - inset, y + height - row, color);
+        }
+        fill(context, x, y + radius, x + width, y + height - radius, color);
     }
 
     /**
-     * Draws a rounded rectangle border (fast, approximate corners).
+     * Draws a rounded rectangle border, outer and inner edges sampled from true circles.
      *
      * @param thickness border thickness in pixels (>=1)
      */
     public static void drawRoundedRectBorder(DrawContext context, int x, int y, int width, int height, int radius, int color, int thickness) {
-        radius = Math.clamp(radius, 0, Math.min(width, height) / 2);
-        thickness = Math.max(1, thickness);
-        for (int i = 0; i < thickness; i++) {
-            context.fill(x + radius, y + i, x + width - radius, y + i + 1, color);
-            context.fill(x + radius, y + height - i - 1, x + width - radius, y + height - i, color);
-            context.fill(x + i, y + radius, x + i + 1, y + height - radius, color);
-            context.fill(x + width - i - 1, y + radius, x + width - i, y + height - radius, color);
+        if (width <= 0 || height <= 0) return;
+        int half = Math.min(width, height) / 2;
+        radius = Math.clamp(radius, 0, half);
+        thickness = Math.clamp(thickness, 1, Math.max(1, half));
+        int[] bands = ShapeSpans.border(radius, thickness);
+        int edgeRows = 0;
+        for (int i = 0; i < bands.length; i += ShapeSpans.BORDER_STRIDE) {
+            int row = bands[i];
+            int rows = bands[i + 1];
+            int outer = bands[i + 2];
+            int inner = bands[i + 3];
+            borderRows(context, x, y + row, width, rows, outer, inner, color);
+            borderRows(context, x, y + height - row - rows, width, rows, outer, inner, color);
+            edgeRows = row + rows;
         }
+        fill(context, x, y + edgeRows, x + thickness, y + height - edgeRows, color);
+        fill(context, x + width - thickness, y + edgeRows, x + width, y + height - edgeRows, color);
+    }
+
+    private static void borderRows(DrawContext context, int x, int y, int width, int rows, int outer, int inner, int color) {
+        if (inner < 0 || inner * 2 >= width) {
+            fill(context, x + outer, y, x + width - outer, y + rows, color);
+            return;
+        }
+        fill(context, x + outer, y, x + inner, y + rows, color);
+        fill(context, x + width - inner, y, x + width - outer, y + rows, color);
     }
 
     /**
@@ -171,7 +228,43 @@ public class DrawingUtils {
      * @param shadowColor ARGB color (usually semi-transparent)
      */
     public static void drawShadow(DrawContext context, int x, int y, int width, int height, int offsetX, int offsetY, int shadowColor) {
-        context.fill(x + offsetX, y + offsetY, x + width + offsetX, y + height + offsetY, shadowColor);
+        fill(context, x + offsetX, y + offsetY, x + width + offsetX, y + height + offsetY, shadowColor);
+    }
+
+    /**
+     * Draws a soft shadow behind a rounded shape: concentric rounded rects spreading up to
+     * {@code blur} pixels, their alpha stacking up to the color's under the shape. The rects of each
+     * size, radius and blur are computed once and cached.
+     *
+     * @param radius corner radius of the shape
+     * @param blur   how far the shadow fades out, 0 draws a hard offset shadow
+     * @param color  ARGB color under the shape
+     */
+    public static void drawSoftShadow(DrawContext context, int x, int y, int width, int height, int radius,
+                                      int offsetX, int offsetY, int blur, int color) {
+        if ((color >>> 24) == 0 || width <= 0 || height <= 0) return;
+        if (blur <= 0) {
+            drawRoundedRect(context, x + offsetX, y + offsetY, width, height, radius, color);
+            return;
+        }
+        int ox = x + offsetX;
+        int oy = y + offsetY;
+        if (RenderPass.rejects(context, ox - blur, oy - blur, ox + width + blur, oy + height + blur)) return;
+
+        int layerColor = (ShadowGeometry.layerAlpha(color >>> 24, ShadowGeometry.layers(blur)) << 24) | (color & 0xFFFFFF);
+        int[] rects = ShadowGeometry.get(width, height, Math.max(0, radius), blur);
+        for (int i = 0; i < rects.length; i += ShadowGeometry.STRIDE) {
+            fill(context, ox + rects[i], oy + rects[i + 1], ox + rects[i + 2], oy + rects[i + 3], layerColor);
+        }
+    }
+
+    /**
+     * Draws the soft shadow of a style {@link Shadow} behind a rounded shape.
+     */
+    public static void drawShadow(DrawContext context, int x, int y, int width, int height, int radius,
+                                  int offsetX, int offsetY, Shadow shadow) {
+        if (shadow == null || shadow == Shadow.NONE) return;
+        drawSoftShadow(context, x, y, width, height, radius, offsetX, offsetY, shadow.blur, shadow.color);
     }
 
     /**
@@ -199,22 +292,30 @@ public class DrawingUtils {
      * @param endColor   bottom color (ARGB)
      */
     public static void drawGradient(DrawContext context, int x, int y, int width, int height, int startColor, int endColor) {
-        context.fillGradient(x, y, x + width, y + height, startColor, endColor);
+        fillGradient(context, x, y, x + width, y + height, startColor, endColor);
     }
 
     /**
-     * Fills a rounded rectangle with a vertical gradient (fast approximation).
-     * <p>Uses a central gradient + side bands + flat-color corners for speed.</p>
+     * Fills a rounded rectangle with a vertical gradient, every corner band carries the colors of
+     * the rows it covers.
      */
     public static void drawRoundedRectGradientV(DrawContext context, int x, int y, int w, int h, int radius, int startColor, int endColor) {
+        if (w <= 0 || h <= 0) return;
         radius = Math.clamp(radius, 0, Math.min(w, h) / 2);
-        context.fillGradient(x + radius, y, x + w - radius, y + h, startColor, endColor);
-        context.fillGradient(x, y + radius, x + radius, y + h - radius, startColor, endColor);
-        context.fillGradient(x + w - radius, y + radius, x + w, y + h - radius, startColor, endColor);
-        fillRect(context, x, y, radius, radius, startColor);
-        fillRect(context, x + w - radius, y, radius, radius, startColor);
-        fillRect(context, x, y + h - radius, radius, radius, endColor);
-        fillRect(context, x + w - radius, y + h - radius, radius, radius, endColor);
+        int[] bands = ShapeSpans.corner(radius);
+        int[] lut = ColorLut.gradient(startColor, endColor);
+        for (int i = 0; i < bands.length; i += ShapeSpans.CORNER_STRIDE) {
+            int row = bands[i];
+            int rows = bands[i + 1];
+            int inset = bands[i + 2];
+            int bottom = h - row - rows;
+            fillGradient(context, x + inset, y + row, x + w - inset, y + row + rows,
+                    ColorLut.sample(lut, row / (float) h), ColorLut.sample(lut, (row + rows) / (float) h));
+            fillGradient(context, x + inset, y + bottom, x + w - inset, y + bottom + rows,
+                    ColorLut.sample(lut, bottom / (float) h), ColorLut.sample(lut, (bottom + rows) / (float) h));
+        }
+        fillGradient(context, x, y + radius, x + w, y + h - radius,
+                ColorLut.sample(lut, radius / (float) h), ColorLut.sample(lut, (h - radius) / (float) h));
     }
 
     /**
@@ -224,12 +325,10 @@ public class DrawingUtils {
      */
     public static void drawBorder(DrawContext context, int x, int y, int width, int height, int color, int thickness) {
         thickness = Math.max(1, thickness);
-        for (int i = 0; i < thickness; i++) {
-            context.fill(x + i, y + i, x + width - i, y + i + 1, color);
-            context.fill(x + i, y + height - i - 1, x + width - i, y + height - i, color);
-            context.fill(x + i, y + i, x + i + 1, y + height - i, color);
-            context.fill(x + width - i - 1, y + i, x + width - i, y + height - i, color);
-        }
+        fill(context, x, y, x + width, y + thickness, color);
+        fill(context, x, y + height - thickness, x + width, y + height, color);
+        fill(context, x, y + thickness, x + thickness, y + height - thickness, color);
+        fill(context, x + width - thickness, y + thickness, x + width, y + height - thickness, color);
     }
 
     /**
@@ -242,7 +341,7 @@ public class DrawingUtils {
     }
 
     /**
-     * Draws a filled circle using horizontal scanlines (fast, no allocations).
+     * Draws a filled circle from its cached span table, one fill per band of equal-width rows.
      *
      * @param cx    center X
      * @param cy    center Y
@@ -251,46 +350,100 @@ public class DrawingUtils {
      */
     public static void drawCircleFilled(DrawContext context, int cx, int cy, int r, int color) {
         if (r <= 0) return;
-        int r2 = r * r;
-        for (int dy = -r; dy <= r; dy++) {
-            int dx = (int) Math.floor(Math.sqrt((double) r2 - dy * dy));
-            context.fill(cx - dx, cy + dy, cx + dx + 1, cy + dy + 1, color);
+        int[] bands = ShapeSpans.disc(r);
+        for (int i = 0; i < bands.length; i += ShapeSpans.DISC_STRIDE) {
+            int from = bands[i];
+            int to = bands[i + 1];
+            int hw = bands[i + 2];
+            if (from == 0) {
+                fill(context, cx - hw, cy - to, cx + hw + 1, cy + to + 1, color);
+            } else {
+                fill(context, cx - hw, cy - to, cx + hw + 1, cy - from + 1, color);
+                fill(context, cx - hw, cy + from, cx + hw + 1, cy + to + 1, color);
+            }
         }
     }
 
     /**
-     * Draws a circle outline using Bresenham's algorithm.
+     * Draws a circle outline as the ring between radius {@code r} and {@code r - thickness}.
      *
      * @param thickness outline thickness (>=1)
      * @param color     ARGB color
      */
     public static void drawCircleBorder(DrawContext context, int cx, int cy, int r, int thickness, int color) {
         if (r <= 0 || thickness <= 0) return;
-        for (int t = 0; t < thickness; t++) {
-            int rr = r - t;
-            if (rr <= 0) break;
-            int x = rr;
-            int y = 0;
-            int err = 1 - x;
-            while (x >= y) {
-                putPixel(context, cx + x, cy + y, color);
-                putPixel(context, cx + y, cy + x, color);
-                putPixel(context, cx - y, cy + x, color);
-                putPixel(context, cx - x, cy + y, color);
-                putPixel(context, cx - x, cy - y, color);
-                putPixel(context, cx - y, cy - x, color);
-                putPixel(context, cx + y, cy - x, color);
-                putPixel(context, cx + x, cy - y, color);
-                y++;
-                if (err < 0) err += 2 * y + 1;
-                else { x--; err += 2 * (y - x + 1); }
+        int[] bands = ShapeSpans.ring(r, Math.min(thickness, r));
+        for (int i = 0; i < bands.length; i += ShapeSpans.RING_STRIDE) {
+            int from = bands[i];
+            int to = bands[i + 1];
+            if (from == 0) {
+                ringRows(context, cx, cy - to, to * 2 + 1, bands[i + 2], bands[i + 3], color);
+            } else {
+                ringRows(context, cx, cy - to, to - from + 1, bands[i + 2], bands[i + 3], color);
+                ringRows(context, cx, cy + from, to - from + 1, bands[i + 2], bands[i + 3], color);
             }
         }
     }
 
-    /** Writes a single pixel using {@link DrawContext#fill}. */
-    private static void putPixel(DrawContext context, int x, int y, int color) {
-        context.fill(x, y, x + 1, y + 1, color);
+    private static void ringRows(DrawContext context, int cx, int y, int rows, int outer, int inner, int color) {
+        if (inner < 0) {
+            fill(context, cx - outer, y, cx + outer + 1, y + rows, color);
+            return;
+        }
+        fill(context, cx - outer, y, cx - inner, y + rows, color);
+        fill(context, cx + inner + 1, y, cx + outer + 1, y + rows, color);
+    }
+
+    /**
+     * Draws an arc of a ring, angles in degrees, 0 pointing right and growing clockwise on screen.
+     * Walks the cached ring spans and emits one fill per run of pixels inside the sweep.
+     *
+     * @param startDegrees where the arc starts
+     * @param sweepDegrees how far it extends clockwise, 360 or more draws the full ring
+     * @param thickness    ring thickness (>=1)
+     */
+    public static void drawArc(DrawContext context, int cx, int cy, int r, int thickness, float startDegrees, float sweepDegrees, int color) {
+        if (r <= 0 || thickness <= 0 || sweepDegrees <= 0) return;
+        if (sweepDegrees >= 360f) {
+            drawCircleBorder(context, cx, cy, r, thickness, color);
+            return;
+        }
+        float start = ((startDegrees % 360f) + 360f) % 360f;
+        int[] bands = ShapeSpans.ring(r, Math.min(thickness, r));
+        for (int i = 0; i < bands.length; i += ShapeSpans.RING_STRIDE) {
+            for (int dy = bands[i]; dy <= bands[i + 1]; dy++) {
+                arcRow(context, cx, cy, dy, bands[i + 2], bands[i + 3], start, sweepDegrees, color);
+                if (dy != 0) arcRow(context, cx, cy, -dy, bands[i + 2], bands[i + 3], start, sweepDegrees, color);
+            }
+        }
+    }
+
+    private static void arcRow(DrawContext context, int cx, int cy, int dy, int outer, int inner, float start, float sweep, int color) {
+        if (inner < 0) {
+            arcRun(context, cx, cy, dy, -outer, outer, start, sweep, color);
+        } else {
+            arcRun(context, cx, cy, dy, -outer, -inner - 1, start, sweep, color);
+            arcRun(context, cx, cy, dy, inner + 1, outer, start, sweep, color);
+        }
+    }
+
+    private static void arcRun(DrawContext context, int cx, int cy, int dy, int fromDx, int toDx, float start, float sweep, int color) {
+        int runStart = Integer.MIN_VALUE;
+        for (int dx = fromDx; dx <= toDx + 1; dx++) {
+            boolean inside = dx <= toDx && inSweep(dx, dy, start, sweep);
+            if (inside && runStart == Integer.MIN_VALUE) {
+                runStart = dx;
+            } else if (!inside && runStart != Integer.MIN_VALUE) {
+                fill(context, cx + runStart, cy + dy, cx + dx, cy + dy + 1, color);
+                runStart = Integer.MIN_VALUE;
+            }
+        }
+    }
+
+    private static boolean inSweep(int dx, int dy, float start, float sweep) {
+        float angle = (float) Math.toDegrees(Math.atan2(dy, dx));
+        float offset = ((angle - start) % 360f + 360f) % 360f;
+        return offset <= sweep;
     }
 
     /**
@@ -299,6 +452,11 @@ public class DrawingUtils {
      * @param color ARGB fill color
      */
     public static void drawTriangleFilled(int x1, int y1, int x2, int y2, int x3, int y3, int color) {
+        RenderTarget target = RenderPass.target();
+        if (target != null) {
+            target.quad(IDENTITY, x1, y1, x2, y2, x3, y3, x3, y3, color, color, color, color);
+            return;
+        }
         RenderSystem.setShader(ShaderProgramKeys.POSITION_COLOR);
         RenderSystem.enableBlend();
         float a = ((color >>> 24) & 0xFF) / 255f;
@@ -316,6 +474,12 @@ public class DrawingUtils {
         RenderSystem.disableBlend();
     }
 
+    /** Headless targets can't sample game textures, image helpers draw nothing there. */
+    private static boolean texturesAvailable() {
+        RenderTarget target = RenderPass.target();
+        return target == null || target.supportsTextures();
+    }
+
     /**
      * Draws text centered on the provided (cx, cy).
      *
@@ -323,6 +487,8 @@ public class DrawingUtils {
      */
     public static void drawCenteredText(DrawContext context, TextRenderer tr, String text, int cx, int cy, int color, boolean shadow) {
         if (text == null) text = "";
+        RenderPass.flush(context);
+        RenderPass.markUnrecordable();
         int w = tr.getWidth(text);
         int x = cx - w / 2;
         int y = cy - tr.fontHeight / 2;
@@ -337,6 +503,8 @@ public class DrawingUtils {
     public static void drawTextClipped(DrawContext context, TextRenderer tr, String text, int x, int y, int maxWidth, int color, boolean shadow, String ellipsis) {
         if (text == null) text = "";
         if (ellipsis == null) ellipsis = "…";
+        RenderPass.flush(context);
+        RenderPass.markUnrecordable();
         int w = tr.getWidth(text);
         if (w <= maxWidth) {
             context.drawText(tr, text, x, y, color, shadow);
@@ -359,44 +527,35 @@ public class DrawingUtils {
      * @param height height in pixels
      */
     public static void enableClipping(DrawContext context, int x, int y, int width, int height) {
-        context.enableScissor(x, y, x + width, y + height);
+        RenderPass.enableScissor(context, x, y, x + width, y + height);
     }
 
     /**
      * Disables scissor clipping.
      */
     public static void disableClipping(DrawContext context) {
-        context.disableScissor();
+        RenderPass.disableScissor(context);
     }
 
     /**
-     * Pushes a clipping rectangle onto the stack. The new region is intersected with the current top.
+     * Pushes a clipping rectangle onto the pass' clip stack, intersected with the current clip
+     * (including the one of every enclosing container).
      * Call {@link #popClip(DrawContext)} to restore the previous region.
      */
     public static void pushClip(DrawContext context, int x, int y, int width, int height) {
-        Rectangle next = new Rectangle(x, y, width, height);
-        Deque<Rectangle> stack = CLIP_STACK.get();
-        if (!stack.isEmpty()) next = next.intersection(stack.peek());
-        stack.push(next);
-        enableClipping(context, next.x, next.y, next.width, next.height);
+        enableClipping(context, x, y, width, height);
     }
 
     /**
      * Pops the current clipping rectangle and restores the previous one (if any).
      */
     public static void popClip(DrawContext context) {
-        Deque<Rectangle> stack = CLIP_STACK.get();
-        if (stack.isEmpty()) return;
-        stack.pop();
         disableClipping(context);
-        if (!stack.isEmpty()) {
-            Rectangle prev = stack.peek();
-            enableClipping(context, prev.x, prev.y, prev.width, prev.height);
-        }
     }
 
     /**
      * Draws a textured quad with optional 90-degree rotation and optional horizontal mirroring.
+     * Batched with the other images of the same texture while a pass is open.
      *
      * @param id       the texture {@link Identifier}
      * @param x1       left screen coordinate
@@ -408,38 +567,18 @@ public class DrawingUtils {
      * @param color    tint color (ARGB). Use fully opaque white for no tint.
      */
     public static void drawImage(Identifier id, int x1, int y1, int x2, int y2, int rotation, boolean parity, Color color) {
-        int[][] texCoords = { {0,1},{1,1},{1,0},{0,0} };
-        rotation = ((rotation % 4) + 4) % 4;
-        for (int i = 0; i < rotation; i++) {
-            int t0 = texCoords[3][0];
-            int t1 = texCoords[3][1];
-            texCoords[3][0] = texCoords[2][0]; texCoords[3][1] = texCoords[2][1];
-            texCoords[2][0] = texCoords[1][0]; texCoords[2][1] = texCoords[1][1];
-            texCoords[1][0] = texCoords[0][0]; texCoords[1][1] = texCoords[0][1];
-            texCoords[0][0] = t0; texCoords[0][1] = t1;
+        if (!texturesAvailable()) return;
+        for (int corner = 0; corner < 4; corner++) {
+            int i = CORNER_ORDER[corner];
+            UVS[corner * 2] = BASE_U[Math.floorMod((parity ? i ^ 1 : i) - rotation, 4)];
+            UVS[corner * 2 + 1] = BASE_V[Math.floorMod(i - rotation, 4)];
         }
-        if (parity) {
-            int t = texCoords[1][0]; texCoords[1][0] = texCoords[0][0]; texCoords[0][0] = t;
-            t = texCoords[3][0];     texCoords[3][0] = texCoords[2][0]; texCoords[2][0] = t;
-        }
-
-        RenderSystem.setShaderColor(1f, 1f, 1f, 1f);
-        RenderSystem.setShader(ShaderProgramKeys.POSITION_TEX_COLOR);
-        RenderSystem.setShaderTexture(0, id);
-        Tessellator tess = Tessellator.getInstance();
-        BufferBuilder buf = tess.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE_COLOR);
-        RenderSystem.enableBlend();
-        buf.vertex(x1, y2, 0).color(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha()).texture(texCoords[0][0], texCoords[0][1]);
-        buf.vertex(x2, y2, 0).color(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha()).texture(texCoords[1][0], texCoords[1][1]);
-        buf.vertex(x2, y1, 0).color(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha()).texture(texCoords[2][0], texCoords[2][1]);
-        buf.vertex(x1, y1, 0).color(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha()).texture(texCoords[3][0], texCoords[3][1]);
-        BuiltBuffer built = buf.endNullable();
-        if (built != null) BufferRenderer.drawWithGlobalProgram(built);
-        RenderSystem.disableBlend();
+        drawTextured(IDENTITY, id, x1, y1, x2, y2, UVS, color.getRGB());
     }
 
     /**
      * Draws a sub-rectangle region of a texture (UVs specified in pixels).
+     * Batched with the other images of the same texture while a pass is open.
      *
      * @param id   texture {@link Identifier}
      * @param x    left on screen
@@ -457,26 +596,68 @@ public class DrawingUtils {
     public static void drawImageRegion(Identifier id, int x, int y, int w, int h,
                                        int u, int v, int rw, int rh,
                                        int texW, int texH, int argb) {
-        float a = ((argb >>> 24) & 0xFF) / 255f;
-        float r = ((argb >>> 16) & 0xFF) / 255f;
-        float g = ((argb >>> 8) & 0xFF) / 255f;
-        float b = (argb & 0xFF) / 255f;
+        if (!texturesAvailable()) return;
+        setRegionUvs(u / (float) texW, v / (float) texH, (u + rw) / (float) texW, (v + rh) / (float) texH);
+        drawTextured(IDENTITY, id, x, y, x + w, y + h, UVS, argb);
+    }
+
+    /**
+     * Draws a sprite of an {@link IconAtlas} page, consecutive sprites of a page are one draw call.
+     *
+     * @param argb tint color (ARGB). Use 0xFFFFFFFF for no tint.
+     */
+    public static void drawSprite(DrawContext context, SpriteHandle sprite, int x, int y, int w, int h, int argb) {
+        if (sprite == null || !texturesAvailable()) return;
+        if (RenderPass.rejects(context, x, y, x + w, y + h)) return;
+        IconAtlas.upload();
+        setRegionUvs(sprite.u0(), sprite.v0(), sprite.u1(), sprite.v1());
+        drawTextured(context.getMatrices().peek().getPositionMatrix(), sprite.texture(), x, y, x + w, y + h, UVS, argb);
+    }
+
+    /**
+     * Draws a nine-slice frame stretched over the rect, its slice geometry is cached per size.
+     *
+     * @param argb tint color (ARGB). Use 0xFFFFFFFF for no tint.
+     */
+    public static void drawNineSlice(DrawContext context, NineSlice slice, int x, int y, int w, int h, int argb) {
+        if (slice == null || w <= 0 || h <= 0 || !texturesAvailable()) return;
+        if (RenderPass.rejects(context, x, y, x + w, y + h)) return;
+        IconAtlas.upload();
+        Matrix4f matrix = context.getMatrices().peek().getPositionMatrix();
+        Identifier texture = slice.getSprite().texture();
+        float[] geometry = slice.geometry(w, h);
+        for (int i = 0; i < geometry.length; i += NineSlice.STRIDE) {
+            setRegionUvs(geometry[i + 4], geometry[i + 5], geometry[i + 6], geometry[i + 7]);
+            drawTextured(matrix, texture, x + geometry[i], y + geometry[i + 1], x + geometry[i + 2], y + geometry[i + 3], UVS, argb);
+        }
+    }
 
-        float u0 = u / (float) texW;
-        float v0 = v / (float) texH;
-        float u1 = (u + rw) / (float) texW;
-        float v1 = (v + rh) / (float) texH;
+    private static void setRegionUvs(float u0, float v0, float u1, float v1) {
+        UVS[0] = u0; UVS[1] = v0;
+        UVS[2] = u0; UVS[3] = v1;
+        UVS[4] = u1; UVS[5] = v1;
+        UVS[6] = u1; UVS[7] = v0;
+    }
 
+    /**
+     * Every textured quad goes through here, batched when a pass is open, immediate otherwise.
+     * UVs are given for the top left, bottom left, bottom right and top right corners.
+     */
+    private static void drawTextured(Matrix4f matrix, Identifier id, float x1, float y1, float x2, float y2, float[] uvs, int argb) {
+        DrawCommandBuffer buffer = RenderPass.buffer();
+        if (buffer != null) {
+            buffer.sprite(matrix, id, x1, y1, x2, y2, uvs, argb);
+            return;
+        }
         RenderSystem.setShader(ShaderProgramKeys.POSITION_TEX_COLOR);
         RenderSystem.setShaderTexture(0, id);
         RenderSystem.enableBlend();
-
         Tessellator tess = Tessellator.getInstance();
         BufferBuilder buf = tess.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE_COLOR);
-        buf.vertex(x,     (float) y + h, 0).color(r, g, b, a).texture(u0, v1);
-        buf.vertex((float) x + w, (float) y + h, 0).color(r, g, b, a).texture(u1, v1);
-        buf.vertex((float) x + w, y,     0).color(r, g, b, a).texture(u1, v0);
-        buf.vertex(x,     y,     0).color(r, g, b, a).texture(u0, v0);
+        buf.vertex(matrix, x1, y1, 0).texture(uvs[0], uvs[1]).color(argb);
+        buf.vertex(matrix, x1, y2, 0).texture(uvs[2], uvs[3]).color(argb);
+        buf.vertex(matrix, x2, y2, 0).texture(uvs[4], uvs[5]).color(argb);
+        buf.vertex(matrix, x2, y1, 0).texture(uvs[6], uvs[7]).color(argb);
         BuiltBuffer built = buf.endNullable();
         if (built != null) BufferRenderer.drawWithGlobalProgram(built);
         RenderSystem.disableBlend();
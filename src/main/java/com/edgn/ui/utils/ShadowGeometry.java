@@ -0,0 +1,108 @@
+package com.edgn.ui.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The rects of soft shadows, kept in a bounded LRU keyed by size, radius and blur.
+ * <p>
+ * A soft shadow is a few concentric rounded rects, the outermost one spread by the full blur and
+ * each next one closer to the shape, drawn with the same translucent color so the alpha builds up
+ * toward the center. Every layer is stored as the spans of its rounded rect, relative to the top
+ * left of the shape, so drawing a cached shadow is only fills. Render thread only.
+ * @author EDGN
+ */
+final class ShadowGeometry {
+    /** Rect groups: {@code x0, y0, x1, y1}. */
+    static final int STRIDE = 4;
+    private static final int MAX_LAYERS = 4;
+    private static final int CAPACITY = 512;
+
+    private static final Map<Long, int[]> CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    private ShadowGeometry() { /* utility class */ }
+
+    /**
+     * How many layers a blur is split into, each one is drawn with the alpha of {@link #layerAlpha}
+     */
+    static int layers(int blur) {
+        return Math.clamp((blur + 1) / 2, 1, MAX_LAYERS);
+    }
+
+    /**
+     * The alpha of one layer so that all of them stacked reach {@code alpha} under the shape
+     */
+    static int layerAlpha(int alpha, int layers) {
+        if (layers == 1) return alpha;
+        double a = 1.0 - Math.pow(1.0 - alpha / 255.0, 1.0 / layers);
+        return Math.clamp((int) Math.round(a * 255.0), 1, 255);
+    }
+
+    static int[] get(int width, int height, int radius, int blur) {
+        long key = ((long) (width & 0xFFFF) << 48) | ((long) (height & 0xFFFF) << 32)
+                | ((long) (radius & 0xFFFF) << 16) | (blur & 0xFFFF);
+        int[] rects = CACHE.get(key);
+        if (rects == null) {
+            rects = build(width, height, radius, blur);
+            CACHE.put(key, rects);
+        }
+        return rects;
+    }
+
+    static int size() {
+        return CACHE.size();
+    }
+
+    static void clear() {
+        CACHE.clear();
+    }
+
+    private static int[] build(int width, int height, int radius, int blur) {
+        int layers = layers(blur);
+        int[] out = new int[64];
+        int n = 0;
+        for (int layer = 0; layer < layers; layer++) {
+            int spread = blur * (layers - layer) / layers;
+            int x = -spread;
+            int y = -spread;
+            int w = width + spread * 2;
+            int h = height + spread * 2;
+            int r = Math.clamp(radius + spread, 0, Math.min(w, h) / 2);
+
+            int[] bands = ShapeSpans.corner(r);
+            for (int i = 0; i < bands.length; i += ShapeSpans.CORNER_STRIDE) {
+                int row = bands[i];
+                int rows = bands[i + 1];
+                int inset = bands[i + 2];
+                out = ensure(out, n + STRIDE * 2);
+                n = put(out, n, x + inset, y + row, x + w - inset, y + row + rows);
+                n = put(out, n, x + inset, y + h - row - rows, x + w - inset, y + h - row);
+            }
+            out = ensure(out, n + STRIDE);
+            n = put(out, n, x, y + r, x + w, y + h - r);
+        }
+        int[] trimmed = new int[n];
+        System.arraycopy(out, 0, trimmed, 0, n);
+        return trimmed;
+    }
+
+    private static int put(int[] out, int n, int x0, int y0, int x1, int y1) {
+        out[n] = x0;
+        out[n + 1] = y0;
+        out[n + 2] = x1;
+        out[n + 3] = y1;
+        return n + STRIDE;
+    }
+
+    private static int[] ensure(int[] array, int size) {
+        if (size <= array.length) return array;
+        int[] grown = new int[Math.max(array.length * 2, size)];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+}
@@ -0,0 +1,171 @@
+package com.edgn.ui.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached horizontal span tables for the curved shapes of {@link DrawingUtils}.
+ * <p>
+ * Every table describes one quadrant of a shape as bands of consecutive rows sharing the same
+ * extents, stored flat as {@code int} groups. Drawing a shape only mirrors the bands, so a circle
+ * costs one fill per distinct row width instead of one per row or per pixel, and the tables are
+ * computed once per radius (and thickness) for the whole game.
+ * @author EDGN
+ */
+final class ShapeSpans {
+    /** Disc bands: {@code dyFrom, dyTo, halfWidth}, rows measured from the center row. */
+    static final int DISC_STRIDE = 3;
+    /** Ring bands: {@code dyFrom, dyTo, outerHalfWidth, innerHalfWidth}, inner is -1 on solid rows. */
+    static final int RING_STRIDE = 4;
+    /** Corner bands: {@code rowFrom, rowCount, inset}, rows measured from the top edge. */
+    static final int CORNER_STRIDE = 3;
+    /** Rounded border bands: {@code rowFrom, rowCount, outerInset, innerInset}, inner is -1 on solid rows. */
+    static final int BORDER_STRIDE = 4;
+
+    private static final Map<Integer, int[]> DISCS = new ConcurrentHashMap<>();
+    private static final Map<Long, int[]> RINGS = new ConcurrentHashMap<>();
+    private static final Map<Integer, int[]> CORNERS = new ConcurrentHashMap<>();
+    private static final Map<Long, int[]> BORDERS = new ConcurrentHashMap<>();
+
+    private ShapeSpans() { /* utility class */ }
+
+    /**
+     * Half widths of a disc of {@code 2r + 1} pixels centered on a pixel, the row at {@code dy}
+     * spans {@code [cx - hw, cx + hw]}
+     */
+    static int[] disc(int r) {
+        return DISCS.computeIfAbsent(r, ShapeSpans::buildDisc);
+    }
+
+    /**
+     * The ring between the disc of radius {@code r} and the one of radius {@code r - thickness}
+     */
+    static int[] ring(int r, int thickness) {
+        return RINGS.computeIfAbsent(key(r, thickness), k -> buildRing(r, thickness));
+    }
+
+    /**
+     * Left insets of the top rows of a rectangle rounded with radius {@code r}, sampled at pixel centers
+     */
+    static int[] corner(int r) {
+        return CORNERS.computeIfAbsent(r, ShapeSpans::buildCorner);
+    }
+
+    /**
+     * Left insets of the outer and inner edge of the top rows of a rounded border
+     */
+    static int[] border(int r, int thickness) {
+        return BORDERS.computeIfAbsent(key(r, thickness), k -> buildBorder(r, thickness));
+    }
+
+    static int discHalfWidth(int r, int dy) {
+        return (int) Math.floor(Math.sqrt((double) r * r - (double) dy * dy));
+    }
+
+    static int cornerInset(int r, int row) {
+        double dy = r - (row + 0.5);
+        return (int) Math.ceil(r - Math.sqrt((double) r * r - dy * dy) - 0.5);
+    }
+
+    private static long key(int a, int b) {
+        return ((long) a << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    private static int[] buildDisc(int r) {
+        IntList out = new IntList();
+        int from = 0;
+        int hw = discHalfWidth(r, 0);
+        for (int dy = 1; dy <= r + 1; dy++) {
+            int next = dy <= r ? discHalfWidth(r, dy) : -1;
+            if (next != hw) {
+                out.add(from, dy - 1, hw);
+                from = dy;
+                hw = next;
+            }
+        }
+        return out.toArray();
+    }
+
+    private static int[] buildRing(int r, int thickness) {
+        int inner = r - thickness;
+        IntList out = new IntList();
+        int from = 0;
+        int outerHw = discHalfWidth(r, 0);
+        int innerHw = inner >= 0 ? discHalfWidth(inner, 0) : -1;
+        for (int dy = 1; dy <= r + 1; dy++) {
+            int nextOuter = dy <= r ? discHalfWidth(r, dy) : -2;
+            int nextInner = dy <= inner ? discHalfWidth(inner, dy) : -1;
+            if (nextOuter != outerHw || nextInner != innerHw) {
+                out.add(from, dy - 1, outerHw, innerHw);
+                from = dy;
+                outerHw = nextOuter;
+                innerHw = nextInner;
+            }
+        }
+        return out.toArray();
+    }
+
+    private static int[] buildCorner(int r) {
+        IntList out = new IntList();
+        int from = 0;
+        for (int row = 1; row <= r; row++) {
+            if (row == r || cornerInset(r, row) != cornerInset(r, from)) {
+                out.add(from, row - from, cornerInset(r, from));
+                from = row;
+            }
+        }
+        return out.toArray();
+    }
+
+    private static int[] buildBorder(int r, int thickness) {
+        int rows = Math.max(r, thickness);
+        int innerRadius = Math.max(0, r - thickness);
+        IntList out = new IntList();
+        int from = 0;
+        int outer = borderOuter(r, 0);
+        int inner = borderInner(thickness, innerRadius, 0);
+        for (int row = 1; row <= rows; row++) {
+            int nextOuter = row < rows ? borderOuter(r, row) : -2;
+            int nextInner = row < rows ? borderInner(thickness, innerRadius, row) : -2;
+            if (nextOuter != outer || nextInner != inner) {
+                out.add(from, row - from, outer, inner);
+                from = row;
+                outer = nextOuter;
+                inner = nextInner;
+            }
+        }
+        return out.toArray();
+    }
+
+    private static int borderOuter(int r, int row) {
+        return row < r ? cornerInset(r, row) : 0;
+    }
+
+    private static int borderInner(int thickness, int innerRadius, int row) {
+        if (row < thickness) return -1;
+        int k = row - thickness;
+        return thickness + (k < innerRadius ? cornerInset(innerRadius, k) : 0);
+    }
+
+    /** Just enough of a growable int array for building tables. */
+    private static final class IntList {
+        private int[] data = new int[16];
+        private int size = 0;
+
+        void add(int... values) {
+            if (size + values.length > data.length) {
+                int[] grown = new int[Math.max(data.length * 2, size + values.length)];
+                System.arraycopy(data, 0, grown, 0, size);
+                data = grown;
+            }
+            System.arraycopy(values, 0, data, size, values.length);
+            size += values.length;
+        }
+
+        int[] toArray() {
+            int[] out = new int[size];
+            System.arraycopy(data, 0, out, 0, size);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.edgn.ui.core.renderer.atlas;
+
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Page management of {@link IconAtlas}, only the packing side, nothing here uploads a texture.
+ * @author EDGN
+ */
+class IconAtlasTest {
+    private static final Identifier SHEET = Identifier.of("edgn", "textures/test/sheet.png");
+
+    @BeforeEach
+    @AfterEach
+    void clearAtlas() {
+        IconAtlas.clear();
+    }
+
+    @Test
+    void sameRegionGivesTheSameHandle() {
+        SpriteHandle handle = IconAtlas.register(SHEET, 16, 0, 16, 16);
+        assertSame(handle, IconAtlas.register(SHEET, 16, 0, 16, 16));
+        assertNotEquals(handle, IconAtlas.register(SHEET, 0, 0, 16, 16));
+
+        float texel = 1f / IconAtlas.PAGE_SIZE;
+        assertEquals(16 * texel, handle.u1() - handle.u0(), 1e-6f);
+        assertEquals(16 * texel, handle.v1() - handle.v0(), 1e-6f);
+        assertTrue(handle.u0() >= texel && handle.v0() >= texel, "sprite not padded");
+    }
+
+    @Test
+    void fullPageOpensANewOne() {
+        int size = IconAtlas.PAGE_SIZE / 2 - 2;
+        List<SpriteHandle> handles = new ArrayList<>();
+        for (int i = 0; i < 4; i++) handles.add(IconAtlas.register(SHEET, i * size, 0, size, size));
+        assertEquals(1, IconAtlas.getPageCount());
+
+        SpriteHandle overflow = IconAtlas.register(SHEET, 0, size, size, size);
+        assertEquals(2, IconAtlas.getPageCount());
+        for (SpriteHandle handle : handles) assertEquals(handles.get(0).texture(), handle.texture());
+        assertNotEquals(handles.get(0).texture(), overflow.texture());
+
+        SpriteHandle small = IconAtlas.register(SHEET, 0, 0, 2, 2);
+        assertEquals(overflow.texture(), small.texture(), "the first page is full, small sprites go to the next one");
+    }
+
+    @Test
+    void invalidateMarksPagesWithoutMovingSprites() {
+        List<SpriteHandle> before = registerGrid();
+
+        IconAtlas.invalidate();
+        assertTrue(IconAtlas.needsUpload(0));
+        for (int i = 0; i < before.size(); i++) assertSame(before.get(i), IconAtlas.register(SHEET, (i % 8) * 12, (i / 8) * 12, 12, 12));
+
+        IconAtlas.clear();
+        List<SpriteHandle> repacked = registerGrid();
+        assertEquals(before, repacked, "repacking the same registrations must give the same layout");
+    }
+
+    @Test
+    void rejectsSpritesLargerThanAPage() {
+        assertThrows(IllegalArgumentException.class, () -> IconAtlas.register(SHEET, 0, 0, IconAtlas.PAGE_SIZE, 4));
+        assertThrows(IllegalArgumentException.class, () -> IconAtlas.register(SHEET, 0, 0, 0, 4));
+        assertEquals(0, IconAtlas.getPageCount());
+    }
+
+    private static List<SpriteHandle> registerGrid() {
+        List<SpriteHandle> handles = new ArrayList<>();
+        for (int i = 0; i < 64; i++) handles.add(IconAtlas.register(SHEET, (i % 8) * 12, (i / 8) * 12, 12, 12));
+        return handles;
+    }
+}
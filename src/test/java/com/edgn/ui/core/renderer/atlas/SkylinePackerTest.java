@@ -0,0 +1,72 @@
+package com.edgn.ui.core.renderer.atlas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Placement of {@link SkylinePacker}: rects stay on the page and never overlap, full pages refuse
+ * new rects and a reset page packs the same rects the same way.
+ * @author EDGN
+ */
+class SkylinePackerTest {
+
+    @Test
+    void placedRectsNeverOverlap() {
+        SkylinePacker packer = new SkylinePacker(256, 256);
+        Random random = new Random(7);
+        List<int[]> placed = new ArrayList<>();
+        long area = 0;
+        for (int i = 0; i < 400; i++) {
+            int w = 1 + random.nextInt(24);
+            int h = 1 + random.nextInt(24);
+            long position = packer.insert(w, h);
+            if (position < 0) continue;
+            int x = SkylinePacker.x(position);
+            int y = SkylinePacker.y(position);
+            assertTrue(x >= 0 && y >= 0 && x + w <= 256 && y + h <= 256, "rect " + i + " leaves the page");
+            for (int[] other : placed) {
+                boolean overlaps = x < other[0] + other[2] && other[0] < x + w && y < other[1] + other[3] && other[1] < y + h;
+                assertFalse(overlaps, "rect " + i + " overlaps a previous one");
+            }
+            placed.add(new int[] {x, y, w, h});
+            area += (long) w * h;
+        }
+        assertTrue(placed.size() > 100, "only " + placed.size() + " rects placed");
+        assertEquals(area / (256f * 256f), packer.occupancy(), 1e-6f);
+    }
+
+    @Test
+    void fullPageRefusesRects() {
+        SkylinePacker packer = new SkylinePacker(64, 64);
+        for (int i = 0; i < 4; i++) assertTrue(packer.insert(32, 32) >= 0);
+        assertEquals(-1, packer.insert(1, 1));
+        assertEquals(1f, packer.occupancy());
+
+        SkylinePacker empty = new SkylinePacker(64, 64);
+        assertEquals(-1, empty.insert(65, 1));
+        assertEquals(-1, empty.insert(1, 65));
+        assertEquals(-1, empty.insert(0, 8));
+        assertTrue(empty.insert(64, 64) >= 0);
+    }
+
+    @Test
+    void resetPageRepacksTheSameLayout() {
+        SkylinePacker packer = new SkylinePacker(128, 128);
+        int[][] sizes = {{30, 12}, {8, 40}, {64, 9}, {17, 17}, {50, 30}, {5, 5}, {90, 20}, {12, 60}};
+        long[] first = new long[sizes.length];
+        for (int i = 0; i < sizes.length; i++) first[i] = packer.insert(sizes[i][0], sizes[i][1]);
+
+        packer.reset();
+        assertEquals(0f, packer.occupancy());
+        for (int i = 0; i < sizes.length; i++) {
+            assertEquals(first[i], packer.insert(sizes[i][0], sizes[i][1]), "rect " + i);
+        }
+    }
+}
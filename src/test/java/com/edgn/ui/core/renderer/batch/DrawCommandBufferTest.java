@@ -0,0 +1,111 @@
+package com.edgn.ui.core.renderer.batch;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.VertexConsumerProvider;
+import net.minecraft.util.Identifier;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Batching of {@link DrawCommandBuffer}, checked headlessly through an {@link DrawCommandBuffer.Uploader}
+ * that logs every batch instead of drawing it.
+ * @author EDGN
+ */
+class DrawCommandBufferTest {
+    private static final Matrix4f IDENTITY = new Matrix4f();
+    private static final Identifier PAGE_0 = Identifier.of("edgn", "atlas/icons_0");
+    private static final Identifier PAGE_1 = Identifier.of("edgn", "atlas/icons_1");
+
+    @Test
+    void spritesAreGroupedByTexture() {
+        BatchLog log = new BatchLog();
+        DrawCommandBuffer buffer = new DrawCommandBuffer(log);
+        for (int i = 0; i < 5; i++) sprite(buffer, PAGE_0, i);
+        for (int i = 0; i < 3; i++) sprite(buffer, PAGE_1, i);
+        sprite(buffer, PAGE_0, 0);
+        buffer.flush();
+
+        assertEquals(List.of("sprites edgn:atlas/icons_0 x5", "sprites edgn:atlas/icons_1 x3", "sprites edgn:atlas/icons_0 x1"), log.batches);
+        DrawCommandBuffer.FrameStats stats = buffer.snapshotStats();
+        assertEquals(9, stats.primitives());
+        assertEquals(9, stats.quads());
+        assertEquals(3, stats.drawCalls());
+    }
+
+    @Test
+    void switchingBetweenShapesAndSpritesKeepsThePaintOrder() {
+        BatchLog log = new BatchLog();
+        DrawCommandBuffer buffer = new DrawCommandBuffer(log);
+        buffer.rect(IDENTITY, 0, 0, 10, 10, 0xFF000000);
+        sprite(buffer, PAGE_0, 0);
+        sprite(buffer, PAGE_0, 1);
+        buffer.rect(IDENTITY, 0, 20, 10, 30, 0xFF000000);
+        buffer.flush();
+
+        assertEquals(List.of("quads x1", "sprites edgn:atlas/icons_0 x2", "quads x1"), log.batches);
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void contextQueueIsDrawnBeforeEveryBatchSwitch() {
+        BatchLog log = new BatchLog();
+        DrawCommandBuffer buffer = new DrawCommandBuffer(log);
+        DrawContextTarget target = new DrawContextTarget(buffer);
+        target.bind(new DrawContext((MinecraftClient) null, (VertexConsumerProvider.Immediate) null) {
+            @Override
+            public void draw() {
+                log.batches.add("context");
+            }
+        });
+
+        // text queued in the context, then a rect over it, then an icon over both
+        target.fill(IDENTITY, 0, 0, 10, 10, 0xFF000000);
+        sprite(buffer, PAGE_0, 0);
+        target.flush();
+
+        assertEquals(List.of("context", "quads x1", "context", "sprites edgn:atlas/icons_0 x1"), log.batches);
+    }
+
+    @Test
+    void adjacentSameColorRectsAreMerged() {
+        BatchLog log = new BatchLog();
+        DrawCommandBuffer buffer = new DrawCommandBuffer(log);
+        for (int x = 0; x < 8; x++) buffer.rect(IDENTITY, x, 0, x + 1, 1, 0xFFFF0000);
+        for (int y = 1; y < 4; y++) buffer.rect(IDENTITY, 0, y, 8, y + 1, 0xFFFF0000);
+        buffer.rect(IDENTITY, 8, 0, 9, 4, 0xFF00FF00);
+        buffer.flush();
+
+        assertEquals(List.of("quads x2"), log.batches);
+        assertEquals(new DrawCommandBuffer.FrameStats(12, 2, 1, 0), buffer.snapshotStats());
+        assertEquals(0f, log.lastPositions[0]);
+        assertEquals(4f, log.lastPositions[4], "the merged quad spans the four rows");
+        assertEquals(8f, log.lastPositions[6]);
+    }
+
+    private static void sprite(DrawCommandBuffer buffer, Identifier page, int slot) {
+        buffer.sprite(IDENTITY, page, slot * 16, 0, slot * 16 + 16, 16, slot / 64f, 0, (slot + 1) / 64f, 1 / 64f, 0xFFFFFFFF);
+    }
+
+    private static final class BatchLog implements DrawCommandBuffer.Uploader {
+        private final List<String> batches = new ArrayList<>();
+        private float[] lastPositions;
+
+        @Override
+        public void quads(float[] positions, int[] colors, int count) {
+            batches.add("quads x" + count);
+            lastPositions = positions.clone();
+        }
+
+        @Override
+        public void sprites(Identifier texture, float[] positions, float[] uvs, int[] colors, int count) {
+            batches.add("sprites " + texture + " x" + count);
+        }
+    }
+}
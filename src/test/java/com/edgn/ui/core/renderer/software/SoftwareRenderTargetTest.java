@@ -0,0 +1,183 @@
+package com.edgn.ui.core.renderer.software;
+
+import com.edgn.ui.core.renderer.batch.DrawCommandBuffer;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The rasterization rules of {@link SoftwareRenderTarget}, checked pixel by pixel on tiny framebuffers.
+ * @author EDGN
+ */
+class SoftwareRenderTargetTest {
+    private static final Matrix4f IDENTITY = new Matrix4f();
+    private static final int RED = 0xFFFF0000;
+    private static final int BLUE = 0xFF0000FF;
+    private static final int HALF_RED = 0x80FF0000;
+
+    @Test
+    void rectCoversThePixelsWhoseCenterIsInside() {
+        SoftwareRenderTarget target = new SoftwareRenderTarget(4, 1);
+        target.fill(IDENTITY, 0.4f, 0, 1.6f, 1, RED);
+        assertRow(target, 0, RED, RED, 0, 0);
+
+        target.clear(0);
+        target.fill(IDENTITY, 0.6f, 0, 1.4f, 1, RED);
+        assertRow(target, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    void edgesThroughPixelCentersFollowTheTopLeftRule() {
+        SoftwareRenderTarget fill = new SoftwareRenderTarget(4, 4);
+        fill.fill(IDENTITY, 0.5f, 0.5f, 2.5f, 2.5f, RED);
+        SoftwareRenderTarget quad = new SoftwareRenderTarget(4, 4);
+        quad.quad(IDENTITY, 0.5f, 0.5f, 0.5f, 2.5f, 2.5f, 2.5f, 2.5f, 0.5f, RED, RED, RED, RED);
+
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                int expected = x < 2 && y < 2 ? RED : 0;
+                assertEquals(expected, fill.getPixel(x, y), "fill at " + x + "," + y);
+                assertEquals(expected, quad.getPixel(x, y), "quad at " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void sharedEdgesAreBlendedOnce() {
+        SoftwareRenderTarget target = new SoftwareRenderTarget(8, 8);
+        target.clear(BLUE);
+        target.fill(IDENTITY, 0, 0, 4, 8, HALF_RED);
+        target.fill(IDENTITY, 4, 0, 8, 8, HALF_RED);
+        target.quad(IDENTITY, 0, 0, 0, 8, 8, 8, 8, 0, HALF_RED, HALF_RED, HALF_RED, HALF_RED);
+
+        int once = blendOver(HALF_RED, BLUE);
+        int twice = blendOver(HALF_RED, once);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                assertEquals(twice, target.getPixel(x, y), "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void blendsSourceOverInStraightAlpha() {
+        SoftwareRenderTarget target = new SoftwareRenderTarget(3, 1);
+        target.clear(BLUE);
+        target.fill(IDENTITY, 0, 0, 1, 1, HALF_RED);
+        target.fill(IDENTITY, 1, 0, 2, 1, 0x00FF0000);
+        target.fill(IDENTITY, 2, 0, 3, 1, RED);
+        assertRow(target, 0, 0xFF80007F, BLUE, RED);
+
+        SoftwareRenderTarget transparent = new SoftwareRenderTarget(1, 1);
+        transparent.fill(IDENTITY, 0, 0, 1, 1, HALF_RED);
+        assertEquals(HALF_RED, transparent.getPixel(0, 0));
+        transparent.fill(IDENTITY, 0, 0, 1, 1, HALF_RED);
+        assertEquals(0xBFFF0000, transparent.getPixel(0, 0));
+    }
+
+    @Test
+    void gradientsAreSampledAtPixelCenters() {
+        SoftwareRenderTarget target = new SoftwareRenderTarget(1, 2);
+        target.fillGradient(IDENTITY, 0, 0, 1, 2, 0xFF000000, 0xFFFFFFFF);
+        assertEquals(0xFF404040, target.getPixel(0, 0));
+        assertEquals(0xFFBFBFBF, target.getPixel(0, 1));
+    }
+
+    @Test
+    void matrixIsAppliedToEveryCorner() {
+        SoftwareRenderTarget target = new SoftwareRenderTarget(8, 8);
+        Matrix4f matrix = new Matrix4f().translate(2, 3, 0).scale(2, 2, 1);
+        target.fill(matrix, 0, 0, 1, 1, RED);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                boolean inside = x >= 2 && x < 4 && y >= 3 && y < 5;
+                assertEquals(inside ? RED : 0, target.getPixel(x, y), "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void scissorsIntersectAndPop() {
+        SoftwareRenderTarget target = new SoftwareRenderTarget(6, 1);
+        target.pushScissor(IDENTITY, 1, 0, 5, 1);
+        target.pushScissor(IDENTITY, 3, 0, 6, 1);
+        target.fill(IDENTITY, 0, 0, 6, 1, RED);
+        target.popScissor();
+        target.fill(IDENTITY, 0, 0, 6, 1, BLUE);
+        target.popScissor();
+        assertRow(target, 0, 0, BLUE, BLUE, BLUE, BLUE, 0);
+
+        target.fill(IDENTITY, 0, 0, 6, 1, RED);
+        assertRow(target, 0, RED, RED, RED, RED, RED, RED);
+    }
+
+    @Test
+    void writesLosslessPngs() throws IOException {
+        SoftwareRenderTarget target = new SoftwareRenderTarget(5, 3);
+        target.clear(0x00000000);
+        target.fill(IDENTITY, 0, 0, 2, 3, RED);
+        target.fill(IDENTITY, 2, 0, 4, 2, 0x4000FF00);
+        target.fillGradient(IDENTITY, 4, 0, 5, 3, 0xFF102030, 0x80405060);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        target.writePng(out);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(5, image.getWidth());
+        assertEquals(3, image.getHeight());
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 5; x++) {
+                assertEquals(target.getPixel(x, y), image.getRGB(x, y), "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void batchedTargetMergesAndCountsLikeTheGame() {
+        SoftwareRenderTarget immediate = new SoftwareRenderTarget(8, 4);
+        SoftwareRenderTarget batched = new SoftwareRenderTarget(8, 4).setBatched(true);
+        for (SoftwareRenderTarget target : new SoftwareRenderTarget[] {immediate, batched}) {
+            target.render(ctx -> {
+                for (int x = 0; x < 4; x++) target.fill(IDENTITY, x, 0, x + 1, 2, HALF_RED);
+                target.pushScissor(IDENTITY, 0, 2, 8, 4);
+                target.fill(IDENTITY, 0, 0, 8, 4, BLUE);
+                target.popScissor();
+            });
+        }
+
+        assertArrayEquals(immediate.getPixels(), batched.getPixels());
+        assertEquals(new DrawCommandBuffer.FrameStats(5, 2, 2, 0), batched.getFrameStats());
+        assertEquals(DrawCommandBuffer.FrameStats.EMPTY, immediate.getFrameStats());
+    }
+
+    @Test
+    void rejectsEmptyFramebuffers() {
+        assertThrows(IllegalArgumentException.class, () -> new SoftwareRenderTarget(0, 4));
+    }
+
+    private static void assertRow(SoftwareRenderTarget target, int y, int... expected) {
+        for (int x = 0; x < expected.length; x++) {
+            assertEquals(expected[x], target.getPixel(x, y), "pixel " + x + "," + y);
+        }
+    }
+
+    /** The reference source-over blend the target must reproduce. */
+    private static int blendOver(int src, int dst) {
+        int sa = src >>> 24;
+        int da = (dst >>> 24) * (255 - sa) / 255;
+        int oa = sa + da;
+        int r = (((src >> 16) & 0xFF) * sa + ((dst >> 16) & 0xFF) * da) / oa;
+        int g = (((src >> 8) & 0xFF) * sa + ((dst >> 8) & 0xFF) * da) / oa;
+        int b = ((src & 0xFF) * sa + (dst & 0xFF) * da) / oa;
+        return (oa << 24) | (r << 16) | (g << 8) | b;
+    }
+}
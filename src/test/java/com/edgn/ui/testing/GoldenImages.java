@@ -0,0 +1,67 @@
+package com.edgn.ui.testing;
+
+import com.edgn.ui.core.renderer.software.SoftwareRenderTarget;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Compares software renders against the PNGs under {@code src/test/resources/golden}.
+ * <p>
+ * Comparisons are exact, ARGB for ARGB. On a mismatch the render is written next to the build
+ * output as {@code build/golden/<name>.png} to be looked at. Running the tests with
+ * {@code -PupdateGoldens} rewrites the goldens from the current renders instead of comparing.
+ * @author EDGN
+ */
+public final class GoldenImages {
+    private static final Path SOURCE_DIR = Path.of("src", "test", "resources", "golden");
+    private static final Path FAILURE_DIR = Path.of("build", "golden");
+
+    private GoldenImages() { /* utility class */ }
+
+    public static void assertMatches(String name, SoftwareRenderTarget actual) throws IOException {
+        if (Boolean.getBoolean("edgn.updateGoldens")) {
+            Files.createDirectories(SOURCE_DIR);
+            actual.writePng(SOURCE_DIR.resolve(name + ".png"));
+            return;
+        }
+
+        BufferedImage expected = read(name);
+        assertEquals(expected.getWidth(), actual.width(), name + " width");
+        assertEquals(expected.getHeight(), actual.height(), name + " height");
+
+        int mismatches = 0;
+        int firstX = -1;
+        int firstY = -1;
+        for (int y = 0; y < actual.height(); y++) {
+            for (int x = 0; x < actual.width(); x++) {
+                if (expected.getRGB(x, y) == actual.getPixel(x, y)) continue;
+                if (mismatches++ == 0) {
+                    firstX = x;
+                    firstY = y;
+                }
+            }
+        }
+        if (mismatches == 0) return;
+
+        Files.createDirectories(FAILURE_DIR);
+        Path written = FAILURE_DIR.resolve(name + ".png");
+        actual.writePng(written);
+        fail(String.format("%s: %d pixels differ, first at %d,%d (expected %08X, got %08X), render written to %s",
+                name, mismatches, firstX, firstY, expected.getRGB(firstX, firstY), actual.getPixel(firstX, firstY), written));
+    }
+
+    private static BufferedImage read(String name) throws IOException {
+        try (InputStream in = GoldenImages.class.getResourceAsStream("/golden/" + name + ".png")) {
+            if (in == null) throw new IOException("Missing golden image " + name + ".png, run the tests with -PupdateGoldens");
+            return ImageIO.read(in);
+        }
+    }
+}
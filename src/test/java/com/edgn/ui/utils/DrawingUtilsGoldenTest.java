@@ -0,0 +1,134 @@
+package com.edgn.ui.utils;
+
+import com.edgn.ui.core.renderer.software.SoftwareRenderTarget;
+import com.edgn.ui.css.values.Shadow;
+import com.edgn.ui.testing.GoldenImages;
+import net.minecraft.client.gui.DrawContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Every {@link DrawingUtils} shape rendered through the {@link SoftwareRenderTarget} and compared
+ * with its golden image, drawn immediately and through the batching of the command buffer.
+ * @author EDGN
+ */
+class DrawingUtilsGoldenTest {
+    private static final int BACKGROUND = 0xFF1E1F22;
+    private static final int BLUE = 0xFF3A7BD5;
+    private static final int WHITE = 0xFFF2F2F2;
+    private static final int ORANGE = 0xFFF59E0B;
+    private static final int TRANSLUCENT_RED = 0x99E5484D;
+
+    @Test
+    void roundedRects() throws IOException {
+        assertGolden("rounded_rects", 96, 48, ctx -> {
+            DrawingUtils.drawRoundedRect(ctx, 4, 4, 24, 16, 0, BLUE);
+            DrawingUtils.drawRoundedRect(ctx, 32, 4, 24, 16, 3, BLUE);
+            DrawingUtils.drawRoundedRect(ctx, 60, 4, 32, 16, 100, BLUE);
+            DrawingUtils.drawRoundedRect(ctx, 4, 24, 40, 20, 7, TRANSLUCENT_RED);
+            DrawingUtils.drawRoundedRect(ctx, 20, 30, 40, 14, 5, TRANSLUCENT_RED);
+            DrawingUtils.drawRoundedRect(ctx, 66, 24, 1, 1, 4, WHITE);
+            DrawingUtils.drawRoundedRect(ctx, 70, 24, 20, 20, 10, ORANGE);
+        });
+    }
+
+    @Test
+    void borders() throws IOException {
+        assertGolden("borders", 96, 64, ctx -> {
+            DrawingUtils.drawBorder(ctx, 4, 4, 24, 16, WHITE, 1);
+            DrawingUtils.drawBorder(ctx, 32, 4, 24, 16, TRANSLUCENT_RED, 3);
+            DrawingUtils.drawRoundedRectBorder(ctx, 60, 4, 32, 24, 8, WHITE, 1);
+            DrawingUtils.drawRoundedRectBorder(ctx, 4, 24, 40, 24, 10, TRANSLUCENT_RED, 3);
+            DrawingUtils.drawDashedBorder(ctx, 48, 32, 44, 28, ORANGE, 1, 4, 2);
+            DrawingUtils.drawPanel(ctx, 4, 52, 40, 10, 3, BLUE, WHITE, 1);
+        });
+    }
+
+    @Test
+    void circlesAndArcs() throws IOException {
+        assertGolden("circles", 96, 48, ctx -> {
+            DrawingUtils.drawCircleFilled(ctx, 12, 12, 8, BLUE);
+            DrawingUtils.drawCircleFilled(ctx, 20, 20, 8, TRANSLUCENT_RED);
+            DrawingUtils.drawCircleFilled(ctx, 40, 8, 0, WHITE);
+            DrawingUtils.drawCircleBorder(ctx, 48, 24, 14, 2, WHITE);
+            DrawingUtils.drawArc(ctx, 80, 24, 14, 4, -90f, 250f, ORANGE);
+            DrawingUtils.drawArc(ctx, 80, 24, 8, 2, 0f, 360f, TRANSLUCENT_RED);
+        });
+    }
+
+    @Test
+    void gradients() throws IOException {
+        assertGolden("gradients", 96, 40, ctx -> {
+            DrawingUtils.drawGradient(ctx, 4, 4, 24, 32, BLUE, ORANGE);
+            DrawingUtils.drawGradient(ctx, 32, 4, 24, 32, 0xFFFFFFFF, 0x00FFFFFF);
+            DrawingUtils.drawRoundedRectGradientV(ctx, 60, 4, 32, 32, 9, WHITE, TRANSLUCENT_RED);
+        });
+    }
+
+    @Test
+    void shadows() throws IOException {
+        assertGolden("shadows", 96, 48, ctx -> {
+            DrawingUtils.drawShadow(ctx, 4, 4, 20, 14, 2, 2, 0x80000000);
+            DrawingUtils.drawRoundedRect(ctx, 4, 4, 20, 14, 0, WHITE);
+            DrawingUtils.drawSoftShadow(ctx, 36, 8, 22, 16, 4, 0, 3, 6, 0xC0000000);
+            DrawingUtils.drawRoundedRect(ctx, 36, 8, 22, 16, 4, BLUE);
+            DrawingUtils.drawShadow(ctx, 70, 8, 20, 20, 10, 0, 2, Shadow.LG);
+            DrawingUtils.drawRoundedRect(ctx, 70, 8, 20, 20, 10, ORANGE);
+            DrawingUtils.drawPanelWithShadow(ctx, 4, 26, 28, 16, 4, BLUE, WHITE, 1, 0x80000000);
+        });
+    }
+
+    @Test
+    void linesAndTriangles() throws IOException {
+        assertGolden("lines", 64, 48, ctx -> {
+            DrawingUtils.drawHLine(ctx, 2, 30, 2, WHITE);
+            DrawingUtils.drawVLine(ctx, 2, 4, 44, WHITE);
+            DrawingUtils.drawLine(ctx, 6, 6, 30, 44, ORANGE);
+            DrawingUtils.drawLine(ctx, 30, 6, 6, 20, BLUE);
+            DrawingUtils.drawLine(ctx, 6, 40, 30, 40, TRANSLUCENT_RED);
+            DrawingUtils.drawTriangleFilled(36, 4, 36, 44, 60, 24, BLUE);
+            DrawingUtils.drawTriangleFilled(40, 40, 62, 6, 62, 44, TRANSLUCENT_RED);
+        });
+    }
+
+    @Test
+    void transformedShapes() throws IOException {
+        assertGolden("transformed", 96, 48, ctx -> {
+            ctx.getMatrices().push();
+            ctx.getMatrices().translate(4, 4, 0);
+            ctx.getMatrices().scale(2, 2, 1);
+            DrawingUtils.drawRoundedRect(ctx, 0, 0, 16, 10, 3, BLUE);
+            DrawingUtils.drawCircleBorder(ctx, 30, 10, 8, 1, WHITE);
+            ctx.getMatrices().pop();
+            ctx.getMatrices().push();
+            ctx.getMatrices().translate(60.5f, 30.5f, 0);
+            DrawingUtils.drawRoundedRect(ctx, 0, 0, 30, 12, 4, ORANGE);
+            ctx.getMatrices().pop();
+        });
+    }
+
+    @Test
+    void clipping() throws IOException {
+        assertGolden("clipping", 64, 48, ctx -> {
+            DrawingUtils.enableClipping(ctx, 8, 8, 40, 24);
+            DrawingUtils.drawCircleFilled(ctx, 16, 16, 14, BLUE);
+            DrawingUtils.enableClipping(ctx, 24, 0, 40, 48);
+            DrawingUtils.drawRoundedRect(ctx, 0, 0, 64, 48, 6, TRANSLUCENT_RED);
+            DrawingUtils.disableClipping(ctx);
+            DrawingUtils.drawBorder(ctx, 0, 0, 64, 48, WHITE, 2);
+            DrawingUtils.disableClipping(ctx);
+            DrawingUtils.drawBorder(ctx, 0, 40, 64, 8, ORANGE, 1);
+        });
+    }
+
+    private static void assertGolden(String name, int width, int height, Consumer<DrawContext> painter) throws IOException {
+        for (boolean batched : new boolean[] {false, true}) {
+            SoftwareRenderTarget target = new SoftwareRenderTarget(width, height).setBatched(batched);
+            target.clear(BACKGROUND);
+            target.render(painter);
+            GoldenImages.assertMatches(name, target);
+        }
+    }
+}